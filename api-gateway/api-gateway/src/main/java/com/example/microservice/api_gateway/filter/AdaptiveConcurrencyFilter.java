@@ -0,0 +1,112 @@
+package com.example.microservice.api_gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.RouteToRequestUrlFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sheds load per route once the number of requests in flight to its backend reaches an {@link AdaptiveLimit}
+ * derived from the backend's latency, answering {@code 503} with {@code Retry-After} at once instead of
+ * queuing more work on a saturated service. Each route has its own limit, so a spike on one backend leaves
+ * the others untouched. Runs after the route filters, so requests refused by {@code RequestRateLimiter} or
+ * answered from the response cache never take a slot.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway-shedding.enabled", havingValue = "true", matchIfMissing = true)
+public class AdaptiveConcurrencyFilter implements GlobalFilter, Ordered {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final MeterRegistry meterRegistry;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final Map<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyFilter(MeterRegistry meterRegistry,
+                                     @Value("${gateway-shedding.initial-limit:50}") int initialLimit,
+                                     @Value("${gateway-shedding.min-limit:10}") int minLimit,
+                                     @Value("${gateway-shedding.max-limit:1000}") int maxLimit,
+                                     @Value("${gateway-shedding.smoothing:0.2}") double smoothing,
+                                     @Value("${gateway-shedding.rtt-tolerance:1.5}") double rttTolerance) {
+        this.meterRegistry = meterRegistry;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+    }
+
+    @Override
+    public int getOrder() {
+        // after the route filters and right before the load balancer picks an instance
+        return RouteToRequestUrlFilter.ROUTE_TO_URL_FILTER_ORDER + 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+        AdaptiveLimit limit = limit(route.getId());
+        if (!limit.tryAcquire()) {
+            rejected.get(route.getId()).increment();
+            exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return exchange.getResponse().setComplete();
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            if (signal == SignalType.CANCEL) {
+                limit.onIgnored();
+            } else if (signal == SignalType.ON_ERROR || status == HttpStatus.SERVICE_UNAVAILABLE
+                    || status == HttpStatus.GATEWAY_TIMEOUT) {
+                limit.onDropped();
+            } else {
+                limit.onSample(System.nanoTime() - start);
+            }
+        });
+    }
+
+    AdaptiveLimit limit(String routeId) {
+        return limits.computeIfAbsent(routeId, id -> {
+            AdaptiveLimit limit = new AdaptiveLimit(initialLimit, minLimit, maxLimit, smoothing, rttTolerance);
+            Gauge.builder("gateway.shedding.limit", limit, AdaptiveLimit::limit)
+                    .description("Current adaptive concurrency limit of the route")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.shedding.inflight", limit, AdaptiveLimit::inflight)
+                    .description("Requests of the route in flight to its backend")
+                    .tag("route", id)
+                    .register(meterRegistry);
+            rejected.put(id, Counter.builder("gateway.shedding.rejected")
+                    .description("Requests answered with 503 because the route was at its limit")
+                    .tag("route", id)
+                    .register(meterRegistry));
+            return limit;
+        });
+    }
+}
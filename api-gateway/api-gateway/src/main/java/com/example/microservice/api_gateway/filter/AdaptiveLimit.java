@@ -0,0 +1,85 @@
+package com.example.microservice.api_gateway.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit of one route, adjusted from latency samples in the style of the gradient limiter:
+ * while the latency of a sample stays within {@code rttTolerance} of the long-term average the limit grows
+ * by about {@code sqrt(limit)}, and as queuing in the backend pushes latency above it the limit shrinks
+ * in proportion. Overload signals (errors, 503, 504) cut it multiplicatively.
+ */
+final class AdaptiveLimit {
+
+    // Weight of one sample in the long-term latency average, about the last 500 samples
+    private static final double LONG_RTT_WEIGHT = 1.0 / 500;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile double limit;
+
+    // guarded by this
+    private double longRtt;
+
+    AdaptiveLimit(int initialLimit, int minLimit, int maxLimit, double smoothing, double rttTolerance) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+    }
+
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a request that finished normally and took {@code rttNanos}.
+     */
+    void onSample(long rttNanos) {
+        int inflightAtEnd = inflight.getAndDecrement();
+        synchronized (this) {
+            longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) * LONG_RTT_WEIGHT;
+            if (inflightAtEnd < limit / 2) {
+                // the route is not using its limit, so the sample says nothing about a higher one
+                return;
+            }
+            double gradient = Math.clamp(rttTolerance * longRtt / Math.max(1, rttNanos), MIN_GRADIENT, 1.0);
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            limit = Math.clamp(limit * (1 - smoothing) + newLimit * smoothing, minLimit, maxLimit);
+        }
+    }
+
+    // Releases the slot of a request that failed or was rejected by the backend as overloaded
+    void onDropped() {
+        inflight.decrementAndGet();
+        synchronized (this) {
+            limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+        }
+    }
+
+    // Releases the slot of a request cancelled by the client, without a sample
+    void onIgnored() {
+        inflight.decrementAndGet();
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+}
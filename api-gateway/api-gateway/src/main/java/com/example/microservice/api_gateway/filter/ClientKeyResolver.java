@@ -0,0 +1,43 @@
+package com.example.microservice.api_gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rate limit key of a request: its remote address. The {@code X-Client-Id} header is unauthenticated, so a
+ * caller could rotate it for a fresh bucket each time; it only splits the bucket of an address listed in
+ * {@code gateway-rate-limit.trusted-client-id-sources}, such as a load generator or a proxy fronting many
+ * clients, and is ignored from any other address.
+ */
+@Component("clientKeyResolver")
+public class ClientKeyResolver implements KeyResolver {
+
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final Set<String> trustedClientIdSources;
+
+    public ClientKeyResolver(@Value("${gateway-rate-limit.trusted-client-id-sources:}") List<String> trustedClientIdSources) {
+        this.trustedClientIdSources = Set.copyOf(trustedClientIdSources);
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        String address = remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : "unknown";
+        String clientId = exchange.getRequest().getHeaders().getFirst(CLIENT_ID_HEADER);
+        if (StringUtils.hasText(clientId) && trustedClientIdSources.contains(address)) {
+            return Mono.just("ip:" + address + ":client:" + clientId);
+        }
+        return Mono.just("ip:" + address);
+    }
+}
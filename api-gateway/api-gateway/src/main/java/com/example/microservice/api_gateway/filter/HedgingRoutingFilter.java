@@ -0,0 +1,242 @@
+package com.example.microservice.api_gateway.filter;
+
+import com.example.microservice.shared.hedging.HedgingPolicy;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hedges GET requests whose path matches one of {@code gateway-hedging.paths}. It takes over from
+ * {@link NettyRoutingFilter} after the load balancer has picked an instance: when that instance has not
+ * answered within the route's {@link HedgingPolicy} delay, the same request goes to another instance of
+ * the service, the first complete answer is written back and the other request is cancelled.
+ * <p>
+ * Answers are buffered whole, so only paths with small, bounded bodies belong in the list; streamed ones
+ * such as {@code /api/users/stream} or the unpaged {@code /api/users} never should, and requests that
+ * accept only NDJSON or server-sent events are routed as usual whatever their path. Each attempt gets the
+ * route's connect and response timeouts, like {@link NettyRoutingFilter} would apply. Hedges do not pass
+ * through the load balancer, so they are counted in {@link PeakEwmaStats} here.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway-hedging.enabled", havingValue = "true")
+public class HedgingRoutingFilter implements GlobalFilter, Ordered {
+
+    private final HttpClient httpClient;
+    private final NettyRoutingFilter routingFilter;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final HttpClientProperties httpClientProperties;
+    private final MeterRegistry meterRegistry;
+    // null when the peak-EWMA load balancer is disabled
+    private final PeakEwmaStats peakEwmaStats;
+    private final List<PathPattern> paths;
+    private final double percentile;
+    private final Duration minDelay;
+    private final double budgetRatio;
+    private final Map<String, HedgingPolicy> policies = new ConcurrentHashMap<>();
+
+    public HedgingRoutingFilter(HttpClient httpClient,
+                                NettyRoutingFilter routingFilter,
+                                LoadBalancerClientFactory loadBalancerClientFactory,
+                                HttpClientProperties httpClientProperties,
+                                MeterRegistry meterRegistry,
+                                ObjectProvider<PeakEwmaStats> peakEwmaStats,
+                                @Value("${gateway-hedging.paths:}") List<String> paths,
+                                @Value("${gateway-hedging.percentile:0.95}") double percentile,
+                                @Value("${gateway-hedging.min-delay:5ms}") Duration minDelay,
+                                @Value("${gateway-hedging.budget-ratio:0.1}") double budgetRatio) {
+        this.httpClient = httpClient;
+        this.routingFilter = routingFilter;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.httpClientProperties = httpClientProperties;
+        this.meterRegistry = meterRegistry;
+        this.peakEwmaStats = peakEwmaStats.getIfAvailable();
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.budgetRatio = budgetRatio;
+    }
+
+    @Override
+    public int getOrder() {
+        return NettyRoutingFilter.ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        Response<ServiceInstance> chosen = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (route == null || requestUrl == null || chosen == null || !chosen.hasServer()
+                || exchange.getRequest().getMethod() != HttpMethod.GET || !hedgeable(exchange)
+                || ServerWebExchangeUtils.isAlreadyRouted(exchange)) {
+            return chain.filter(exchange);
+        }
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+
+        HedgingPolicy policy = policy(route.getId());
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(routingFilter.getHeadersFilters(), exchange);
+        headers.remove(HttpHeaders.HOST);
+        HttpClient client = client(route);
+        long delay = policy.begin();
+        long start = System.nanoTime();
+        Mono<Answer> primary = send(client, requestUrl, headers, false);
+        Mono<Answer> answer = delay < 0
+                ? primary
+                : Mono.firstWithValue(primary, Mono.delay(Duration.ofNanos(delay))
+                        .flatMap(tick -> alternative(chosen.getServer()))
+                        .filter(other -> policy.tryHedge())
+                        .flatMap(other -> hedge(client, other, requestUrl, headers)))
+                // both attempts failed, or the only one sent did; report the first failure as NettyRoutingFilter would
+                .onErrorMap(NoSuchElementException.class, ex -> {
+                    List<Throwable> failures = Exceptions.unwrapMultiple(ex.getCause());
+                    return failures.isEmpty() ? ex : failures.get(0);
+                });
+        return answer
+                .doOnNext(first -> {
+                    policy.record(System.nanoTime() - start);
+                    if (first.hedged()) {
+                        policy.hedgeWon();
+                    }
+                })
+                .flatMap(first -> write(exchange, first))
+                .then(chain.filter(exchange));
+    }
+
+    HedgingPolicy policy(String routeId) {
+        return policies.computeIfAbsent(routeId,
+                id -> new HedgingPolicy(Tags.of("route", id), meterRegistry, percentile, minDelay, budgetRatio));
+    }
+
+    private boolean hedgeable(ServerWebExchange exchange) {
+        List<MediaType> accept = exchange.getRequest().getHeaders().getAccept();
+        if (!accept.isEmpty() && accept.stream().allMatch(HedgingRoutingFilter::streaming)) {
+            return false;
+        }
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        return paths.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    private static boolean streaming(MediaType mediaType) {
+        return mediaType.isConcrete() && (MediaType.APPLICATION_NDJSON.isCompatibleWith(mediaType)
+                || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(mediaType));
+    }
+
+    // the route's connect and response timeouts from its metadata, else the gateway's httpclient settings
+    private HttpClient client(Route route) {
+        HttpClient client = httpClient;
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            client = client.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()));
+        }
+        Object responseTimeout = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+        Duration timeout = responseTimeout != null
+                ? Duration.ofMillis(Long.parseLong(responseTimeout.toString()))
+                : httpClientProperties.getResponseTimeout();
+        // a negative route timeout disables the global one
+        return timeout != null && !timeout.isNegative() ? client.responseTimeout(timeout) : client;
+    }
+
+    private Mono<Answer> send(HttpClient client, URI uri, HttpHeaders headers, boolean hedged) {
+        return client
+                .headers(outbound -> headers.forEach(outbound::set))
+                .get()
+                .uri(uri)
+                .responseSingle((response, body) -> body.asByteArray()
+                        .defaultIfEmpty(new byte[0])
+                        .map(bytes -> {
+                            HttpHeaders responseHeaders = new HttpHeaders();
+                            response.responseHeaders().forEach(header -> responseHeaders.add(header.getKey(), header.getValue()));
+                            return new Answer(response.status().code(), responseHeaders, bytes, hedged);
+                        }))
+                .onErrorMap(ReadTimeoutException.class,
+                        ex -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Response took longer than timeout", ex));
+    }
+
+    // the request again, to another instance; cancelled when the first attempt answers before it
+    private Mono<Answer> hedge(HttpClient client, ServiceInstance instance, URI requestUrl, HttpHeaders headers) {
+        Mono<Answer> answer = send(client, LoadBalancerUriTools.reconstructURI(instance, requestUrl), headers, true);
+        if (peakEwmaStats == null) {
+            return answer;
+        }
+        return Mono.defer(() -> {
+            PeakEwmaStats.Attempt attempt = peakEwmaStats.start(instance);
+            return answer
+                    .doOnNext(hedged -> attempt.complete(hedged.status() >= 500))
+                    .doOnError(ex -> attempt.complete(true))
+                    .doOnCancel(attempt::cancel);
+        });
+    }
+
+    // another instance of the service than the chosen one, if there is one
+    private Mono<ServiceInstance> alternative(ServiceInstance chosen) {
+        ServiceInstanceListSupplier supplier = loadBalancerClientFactory.getInstance(chosen.getServiceId(), ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Mono.empty();
+        }
+        return supplier.get().next().flatMap(instances -> {
+            List<ServiceInstance> others = instances.stream()
+                    .filter(instance -> !(instance.getHost().equals(chosen.getHost()) && instance.getPort() == chosen.getPort()))
+                    .toList();
+            if (others.isEmpty()) {
+                return Mono.empty();
+            }
+            return Mono.just(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+        });
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, Answer answer) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatusCode.valueOf(answer.status()));
+        HttpHeaders headers = HttpHeadersFilter.filter(routingFilter.getHeadersFilters(), answer.headers(), exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        response.getHeaders().putAll(headers);
+        response.getHeaders().setContentLength(answer.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(answer.body())));
+    }
+
+    private record Answer(int status, HttpHeaders headers, byte[] body, boolean hedged) {
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.microservice.api_gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches successful GET responses of every route in a bounded local cache keyed by path, query and
+ * {@code Accept}, so repeated reads are answered without a backend hop until {@code time-to-live}.
+ * <p>
+ * Only responses with a {@code Content-Length} of at most {@code max-entry-size} are cached. Their body is
+ * copied while it streams through to the client; anything else, such as a chunked NDJSON or JSON array
+ * stream, is passed through untouched and never held in memory.
+ * <p>
+ * Every cached response carries an {@code ETag} (the backend's, or an MD5 of the body) and a matching
+ * {@code If-None-Match} is answered with {@code 304 Not Modified}, from the cache or after the backend call.
+ * The MD5 is only known at the end of the body, so a miss without a backend {@code ETag} is sent without one,
+ * unless the request is conditional: then the body, at most {@code max-entry-size}, is read before answering.
+ * A POST, PUT, PATCH or DELETE drops every cached response under the same collection ({@code /api/users/**}
+ * for a write on {@code /api/users/5}), since list pages and counts change with it; a read that raced the
+ * write is not stored. Each gateway instance has its own cache, so writes through another instance are
+ * only seen after {@code time-to-live}.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+
+    static final String CACHE_STATUS_HEADER = "X-Cache";
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+    private static final Set<String> UNCACHED_HEADERS = Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING,
+            HttpHeaders.CONNECTION, CACHE_STATUS_HEADER);
+    // Entry overhead beyond the body, so many small responses still count against the bound
+    private static final int ENTRY_OVERHEAD = 512;
+
+    private final Cache<CacheKey, CachedResponse> cache;
+    private final long maxEntryBytes;
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final Counter notModified;
+
+    public ResponseCacheFilter(@Value("${gateway-cache.maximum-size:64MB}") DataSize maximumSize,
+                               @Value("${gateway-cache.time-to-live:30s}") Duration timeToLive,
+                               @Value("${gateway-cache.max-entry-size:1MB}") DataSize maxEntrySize,
+                               MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((CacheKey key, CachedResponse value) -> value.body().length + ENTRY_OVERHEAD)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.notModified = Counter.builder("gateway.response.cache.not.modified")
+                .description("Conditional GETs answered with 304 Not Modified")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "gatewayResponses");
+    }
+
+    @Override
+    public int getOrder() {
+        // must wrap the response before NettyWriteResponseFilter writes the backend body to it
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String root = resourceRoot(request.getPath().value());
+        if (WRITE_METHODS.contains(request.getMethod())) {
+            invalidate(root);
+            // again once the write is done, for reads that were served by the backend while it ran
+            return chain.filter(exchange).doFinally(signal -> invalidate(root));
+        }
+        if (request.getMethod() != HttpMethod.GET || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return chain.filter(exchange);
+        }
+        String requestCacheControl = String.valueOf(request.getHeaders().getCacheControl());
+        if (requestCacheControl.contains("no-store")) {
+            return chain.filter(exchange);
+        }
+
+        CacheKey key = new CacheKey(root, request.getURI().getRawPath(), request.getURI().getRawQuery(),
+                request.getHeaders().getFirst(HttpHeaders.ACCEPT));
+        CachedResponse cached = requestCacheControl.contains("no-cache") ? null : cache.getIfPresent(key);
+        if (cached != null) {
+            return writeCached(exchange, cached);
+        }
+        long generation = generation(root).get();
+        ServerHttpRequest forwarded = request.mutate()
+                // the backend always answers in full, so the body can be cached; the condition is checked here
+                .headers(headers -> headers.remove(HttpHeaders.IF_NONE_MATCH))
+                .build();
+        ServerHttpResponse response = new CachingResponse(exchange, key, generation);
+        return chain.filter(exchange.mutate().request(forwarded).response(response).build());
+    }
+
+    void invalidate(String root) {
+        generation(root).incrementAndGet();
+        cache.asMap().keySet().removeIf(key -> key.root().equals(root));
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private AtomicLong generation(String root) {
+        return generations.computeIfAbsent(root, r -> new AtomicLong());
+    }
+
+    private void store(CacheKey key, long generation, CachedResponse response) {
+        AtomicLong current = generation(key.root());
+        if (current.get() != generation) {
+            return;
+        }
+        cache.put(key, response);
+        if (current.get() != generation) {
+            // a write invalidated the collection between the check and the put
+            cache.invalidate(key);
+        }
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.OK);
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+        if (matches(exchange.getRequest(), cached.etag())) {
+            return notModified(response);
+        }
+        response.getHeaders().setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<Void> notModified(ServerHttpResponse response) {
+        notModified.increment();
+        response.setStatusCode(HttpStatus.NOT_MODIFIED);
+        response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        return response.setComplete();
+    }
+
+    private static boolean matches(ServerHttpRequest request, String etag) {
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+        if (ifNoneMatch.contains("*")) {
+            return true;
+        }
+        String opaque = opaqueTag(etag);
+        return ifNoneMatch.stream().anyMatch(candidate -> opaqueTag(candidate).equals(opaque));
+    }
+
+    // Weak comparison, as If-None-Match requires
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean isCacheable(HttpStatus status, HttpHeaders headers) {
+        if (status != HttpStatus.OK || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        String cacheControl = String.valueOf(headers.getCacheControl());
+        if (cacheControl.contains("no-store") || cacheControl.contains("private")) {
+            return false;
+        }
+        MediaType contentType = headers.getContentType();
+        return contentType == null || !(MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                || MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType));
+    }
+
+    // "/api/users/5/status" -> "/api/users"
+    static String resourceRoot(String path) {
+        int depth = 0;
+        for (int i = 1; i < path.length(); i++) {
+            if (path.charAt(i) == '/' && ++depth == 2) {
+                return path.substring(0, i);
+            }
+        }
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final ServerWebExchange exchange;
+        private final CacheKey key;
+        private final long generation;
+
+        CachingResponse(ServerWebExchange exchange, CacheKey key, long generation) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.generation = generation;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatus status = getStatusCode() != null ? HttpStatus.resolve(getStatusCode().value()) : null;
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            if (!isCacheable(status, headers) || contentLength < 0 || contentLength > maxEntryBytes) {
+                return super.writeWith(body);
+            }
+            if (headers.getCacheControl() == null) {
+                // lets clients keep the body and revalidate it with If-None-Match
+                headers.setCacheControl(CacheControl.noCache());
+            }
+            headers.set(CACHE_STATUS_HEADER, "MISS");
+            if (headers.getETag() == null && !exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+                return writeOrNotModified(body);
+            }
+            BodyCopy copy = new BodyCopy((int) contentLength);
+            return super.writeWith(Flux.from(body).doOnNext(copy::append))
+                    .doOnSuccess(done -> {
+                        byte[] bytes = copy.bytes();
+                        if (bytes != null && bytes.length == contentLength) {
+                            store(key, generation, cachedResponse(headers, bytes));
+                        }
+                    });
+        }
+
+        // The ETag of the body decides between 304 and 200, so the body is read first; Content-Length bounds it
+        private Mono<Void> writeOrNotModified(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(body, (int) maxEntryBytes)
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        CachedResponse cached = cachedResponse(getHeaders(), bytes);
+                        store(key, generation, cached);
+                        getHeaders().setETag(cached.etag());
+                        if (matches(exchange.getRequest(), cached.etag())) {
+                            return notModified(getDelegate());
+                        }
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        private static CachedResponse cachedResponse(HttpHeaders headers, byte[] bytes) {
+            String etag = headers.getETag() != null ? headers.getETag() : "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+            HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                boolean perRequest = UNCACHED_HEADERS.stream().anyMatch(name::equalsIgnoreCase)
+                        || name.regionMatches(true, 0, "Access-Control-", 0, "Access-Control-".length());
+                if (!perRequest) {
+                    copy.put(name, List.copyOf(values));
+                }
+            });
+            copy.setETag(etag);
+            return new CachedResponse(HttpHeaders.readOnlyHttpHeaders(copy), bytes, etag);
+        }
+    }
+
+    // Copy of a body taken while it is written, dropped once it grows past the declared length
+    private static class BodyCopy {
+
+        private final int limit;
+        private ByteArrayOutputStream bytes;
+
+        BodyCopy(int limit) {
+            this.limit = limit;
+            this.bytes = new ByteArrayOutputStream(limit);
+        }
+
+        synchronized void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            if (bytes.size() + buffer.readableByteCount() > limit) {
+                bytes = null;
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                while (iterator.hasNext()) {
+                    ByteBuffer chunk = iterator.next();
+                    byte[] copy = new byte[chunk.remaining()];
+                    chunk.get(copy);
+                    bytes.writeBytes(copy);
+                }
+            }
+        }
+
+        synchronized byte[] bytes() {
+            return bytes != null ? bytes.toByteArray() : null;
+        }
+    }
+
+    record CacheKey(String root, String path, String query, String accept) {
+    }
+
+    record CachedResponse(HttpHeaders headers, byte[] body, String etag) {
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.microservice.api_gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per route and client key for the {@code RequestRateLimiter} route filter, configured per route
+ * with {@code token-bucket.replenish-rate} (tokens per second) and {@code token-bucket.burst-capacity}.
+ * <p>
+ * Buckets are local to this gateway instance by default, so each replica admits the full rate. With
+ * {@code gateway-rate-limit.redis.enabled} the buckets live in Redis and are shared by all replicas, using
+ * the gateway's own {@code request_rate_limiter.lua}; if Redis fails the local bucket decides instead.
+ */
+@Component
+@Primary
+public class TokenBucketRateLimiter extends AbstractRateLimiter<TokenBucketRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "token-bucket";
+    private static final Log log = LogFactory.getLog(TokenBucketRateLimiter.class);
+    // Bounds memory when clients send arbitrary keys
+    private static final long MAX_BUCKETS = 100_000;
+
+    private final Cache<String, Bucket> buckets;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final RedisScript<List<Long>> script;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public TokenBucketRateLimiter(ConfigurationService configurationService,
+                                  ObjectProvider<ReactiveStringRedisTemplate> redisTemplate,
+                                  @Qualifier(RedisRateLimiter.REDIS_SCRIPT_NAME) ObjectProvider<RedisScript<List<Long>>> script,
+                                  @Value("${gateway-rate-limit.redis.enabled:false}") boolean shared,
+                                  @Value("${gateway-rate-limit.idle-bucket-expiry:10m}") Duration idleBucketExpiry) {
+        this(configurationService, shared ? redisTemplate.getIfAvailable() : null, shared ? script.getIfAvailable() : null,
+                idleBucketExpiry, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(ConfigurationService configurationService, ReactiveStringRedisTemplate redisTemplate,
+                           RedisScript<List<Long>> script, Duration idleBucketExpiry, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(idleBucketExpiry)
+                .build();
+        this.redisTemplate = redisTemplate;
+        this.script = script;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().get(routeId);
+        if (config == null) {
+            throw new IllegalArgumentException("No token-bucket configuration for route " + routeId);
+        }
+        if (redisTemplate == null || script == null) {
+            return Mono.fromSupplier(() -> takeLocal(routeId, id, config));
+        }
+        return takeShared(routeId, id, config)
+                .onErrorResume(ex -> {
+                    log.warn("Shared rate limit unavailable, using the local bucket: " + ex.getMessage());
+                    return Mono.fromSupplier(() -> takeLocal(routeId, id, config));
+                });
+    }
+
+    private Response takeLocal(String routeId, String id, Config config) {
+        Bucket bucket = buckets.get(routeId + ':' + id, key -> new Bucket(config.getBurstCapacity(), nanoClock.getAsLong()));
+        return bucket.take(config, nanoClock.getAsLong());
+    }
+
+    private Mono<Response> takeShared(String routeId, String id, Config config) {
+        // same key layout as RedisRateLimiter; the hash tag keeps both keys in one cluster slot
+        String prefix = "request_rate_limiter.{" + routeId + '.' + id + "}.";
+        List<String> keys = List.of(prefix + "tokens", prefix + "timestamp");
+        return redisTemplate.execute(script, keys, List.of(String.valueOf(config.getReplenishRate()),
+                        String.valueOf(config.getBurstCapacity()), "", String.valueOf(config.getRequestedTokens())))
+                .next()
+                .map(result -> new Response(result.get(0) == 1L, headers(config, result.get(1))));
+    }
+
+    private static Map<String, String> headers(Config config, long remaining) {
+        return Map.of(RedisRateLimiter.REMAINING_HEADER, String.valueOf(remaining),
+                RedisRateLimiter.REPLENISH_RATE_HEADER, String.valueOf(config.getReplenishRate()),
+                RedisRateLimiter.BURST_CAPACITY_HEADER, String.valueOf(config.getBurstCapacity()),
+                RedisRateLimiter.REQUESTED_TOKENS_HEADER, String.valueOf(config.getRequestedTokens()));
+    }
+
+    private static final class Bucket {
+
+        // guarded by this
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized Response take(Config config, long now) {
+            double elapsedSeconds = Math.max(0, now - refilledAt) / 1e9;
+            tokens = Math.min(config.getBurstCapacity(), tokens + elapsedSeconds * config.getReplenishRate());
+            refilledAt = now;
+            boolean allowed = tokens >= config.getRequestedTokens();
+            if (allowed) {
+                tokens -= config.getRequestedTokens();
+            }
+            return new Response(allowed, headers(config, (long) tokens));
+        }
+    }
+
+    public static class Config {
+
+        private int replenishRate;
+        private int burstCapacity;
+        private int requestedTokens = 1;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public int getRequestedTokens() {
+            return requestedTokens;
+        }
+
+        public void setRequestedTokens(int requestedTokens) {
+            this.requestedTokens = requestedTokens;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.microservice.api_gateway.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency through the gateway when one of three user-service replicas is degraded, with the peak-EWMA
+ * load balancer and with the default round robin. The replicas are in-process stubs registered through the
+ * simple discovery client; two answer after {@link #HEALTHY_LATENCY}, one after {@link #DEGRADED_LATENCY}.
+ * The response cache, rate limiter and load shedding are off so every request reaches a replica.
+ * <p>
+ * Run with {@code mvn test -Dtest=DegradedReplicaBenchmark* -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DegradedReplicaBenchmark {
+
+    static final Duration HEALTHY_LATENCY = Duration.ofMillis(5);
+    static final Duration DEGRADED_LATENCY = Duration.ofMillis(150);
+    static final int CLIENTS = 8;
+    static final int REQUESTS = 20_000;
+
+    static final List<HttpServer> REPLICAS = List.of(replica(HEALTHY_LATENCY), replica(HEALTHY_LATENCY),
+            replica(DEGRADED_LATENCY));
+    static final AtomicInteger DEGRADED_REQUESTS = new AtomicInteger();
+
+    static final String PROPERTIES = """
+            eureka.client.enabled=false
+            gateway-cache.enabled=false
+            gateway-shedding.enabled=false
+            logging.level.root=WARN
+            spring.cloud.gateway.server.webflux.routes[0].id=user-service
+            spring.cloud.gateway.server.webflux.routes[0].uri=lb://user-service
+            spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/api/users/**
+            """;
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        for (int i = 0; i < REPLICAS.size(); i++) {
+            int port = REPLICAS.get(i).getAddress().getPort();
+            registry.add("spring.cloud.discovery.client.simple.instances.user-service[" + i + "].uri",
+                    () -> "http://localhost:" + port);
+            registry.add("spring.cloud.discovery.client.simple.instances.user-service[" + i + "].instance-id",
+                    () -> "user-service-" + port);
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {PROPERTIES, "load-balancer.peak-ewma.enabled=true"})
+    class PeakEwma extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("peak-EWMA P2C");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {PROPERTIES, "load-balancer.peak-ewma.enabled=false"})
+    class RoundRobin extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("round robin");
+        }
+    }
+
+    abstract static class Scenario {
+
+        @LocalServerPort
+        int port;
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        void run(String name) throws Exception {
+            // warm up JIT, connection pools and the latency estimates
+            measure(REQUESTS / 10);
+            DEGRADED_REQUESTS.set(0);
+            long[] latencies = measure(REQUESTS);
+            Arrays.sort(latencies);
+            System.out.printf("%n== %s, %d requests, 1 of %d replicas at %d ms ==%n"
+                            + "p50 %6.1f ms   p99 %6.1f ms   p999 %6.1f ms   to degraded replica: %.1f%%%n",
+                    name, REQUESTS, REPLICAS.size(), DEGRADED_LATENCY.toMillis(), millis(latencies, 0.50),
+                    millis(latencies, 0.99), millis(latencies, 0.999), 100.0 * DEGRADED_REQUESTS.get() / REQUESTS);
+        }
+
+        private long[] measure(int requests) throws Exception {
+            long[] latencies = new long[requests];
+            AtomicInteger next = new AtomicInteger();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<CompletableFuture<Void>> workers = new ArrayList<>(CLIENTS);
+                for (int client = 0; client < CLIENTS; client++) {
+                    workers.add(CompletableFuture.runAsync(() -> {
+                        for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                            latencies[i] = get("/api/users/" + i);
+                        }
+                    }, clients));
+                }
+                for (CompletableFuture<Void> worker : workers) {
+                    worker.get();
+                }
+            }
+            return latencies;
+        }
+
+        private long get(String path) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Unexpected status " + response.statusCode());
+                }
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            return System.nanoTime() - start;
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+        }
+    }
+
+    private static HttpServer replica(Duration latency) {
+        // headers and body are separate writes; without this, Nagle and delayed ACKs add ~40 ms to some responses
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            byte[] body = "{\"id\":1,\"name\":\"User\"}".getBytes(StandardCharsets.UTF_8);
+            server.createContext("/", exchange -> {
+                if (latency.equals(DEGRADED_LATENCY)) {
+                    DEGRADED_REQUESTS.incrementAndGet();
+                }
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
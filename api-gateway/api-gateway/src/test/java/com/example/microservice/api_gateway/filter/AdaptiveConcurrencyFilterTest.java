@@ -0,0 +1,128 @@
+package com.example.microservice.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyFilterTest {
+
+    static final long FAST = Duration.ofMillis(10).toNanos();
+
+    SimpleMeterRegistry meterRegistry;
+    AdaptiveConcurrencyFilter filter;
+    Route route;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdaptiveConcurrencyFilter(meterRegistry, 2, 1, 100, 0.2, 1.5);
+        route = Route.async().id("order-service").uri(URI.create("lb://order-service")).predicate(exchange -> true).build();
+    }
+
+    MockServerWebExchange exchange() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.post("/api/orders").build());
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    @Test
+    void When_RouteAtLimit_Expect_ServiceUnavailableWithoutBackendCall() {
+        // TODO: Arrange
+        Sinks.Empty<Void> backend = Sinks.empty();
+        GatewayFilterChain slowChain = exchange -> backend.asMono();
+        filter.filter(exchange(), slowChain).subscribe();
+        filter.filter(exchange(), slowChain).subscribe();
+        // TODO: Act
+        MockServerWebExchange shed = exchange();
+        filter.filter(shed, exchange -> Mono.error(new AssertionError("backend called"))).block();
+        backend.tryEmitEmpty();
+        // TODO: Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, shed.getResponse().getStatusCode());
+        assertEquals("1", shed.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(0, filter.limit("order-service").inflight());
+        assertEquals(1.0, meterRegistry.get("gateway.shedding.rejected").tag("route", "order-service").counter().count());
+    }
+
+    @Test
+    void When_BackendOverloaded_Expect_LimitBacksOff() {
+        // TODO: Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(100, 10, 1000, 0.2, 1.5);
+        // TODO: Act
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.onDropped();
+        }
+        // TODO: Assert
+        assertEquals(59, limit.limit());
+        assertEquals(0, limit.inflight());
+    }
+
+    @Test
+    void When_SaturatedWithSteadyLatency_Expect_LimitGrows() {
+        // TODO: Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(20, 10, 1000, 0.2, 1.5);
+        // TODO: Act
+        for (int round = 0; round < 10; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.onSample(FAST);
+            }
+        }
+        // TODO: Assert
+        assertTrue(limit.limit() > 40, "limit " + limit.limit());
+    }
+
+    @Test
+    void When_LatencyRisesUnderLoad_Expect_LimitShrinks() {
+        // TODO: Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(100, 10, 1000, 0.2, 1.5);
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onIgnored();
+        }
+        limit.tryAcquire();
+        limit.onSample(FAST);
+        // TODO: Act
+        for (int round = 0; round < 10; round++) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.onSample(FAST * 5);
+            }
+        }
+        // TODO: Assert
+        assertTrue(limit.limit() < 50, "limit " + limit.limit());
+    }
+
+    @Test
+    void When_AppLimited_Expect_LimitUnchanged() {
+        // TODO: Arrange
+        AdaptiveLimit limit = new AdaptiveLimit(100, 10, 1000, 0.2, 1.5);
+        // TODO: Act
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.onSample(i % 2 == 0 ? FAST : FAST * 10);
+        }
+        // TODO: Assert
+        assertEquals(100, limit.limit());
+    }
+}
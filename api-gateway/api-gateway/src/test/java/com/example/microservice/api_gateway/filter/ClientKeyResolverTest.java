@@ -0,0 +1,40 @@
+package com.example.microservice.api_gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClientKeyResolverTest {
+
+    ClientKeyResolver resolver = new ClientKeyResolver(List.of("10.0.0.5"));
+
+    String resolve(String remoteAddress, String clientId) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/users/1")
+                .remoteAddress(new InetSocketAddress(remoteAddress, 40000));
+        if (clientId != null) {
+            request.header(ClientKeyResolver.CLIENT_ID_HEADER, clientId);
+        }
+        return resolver.resolve(MockServerWebExchange.from(request.build())).block();
+    }
+
+    @Test
+    void When_UntrustedSourceRotatesClientId_Expect_SameAddressKey() {
+        // TODO: Act & Assert
+        assertEquals("ip:192.168.1.7", resolve("192.168.1.7", "first"));
+        assertEquals("ip:192.168.1.7", resolve("192.168.1.7", "second"));
+        assertEquals("ip:192.168.1.7", resolve("192.168.1.7", null));
+    }
+
+    @Test
+    void When_TrustedSourceSendsClientId_Expect_KeyPerAddressAndClient() {
+        // TODO: Act & Assert
+        assertEquals("ip:10.0.0.5:client:first", resolve("10.0.0.5", "first"));
+        assertEquals("ip:10.0.0.5:client:second", resolve("10.0.0.5", "second"));
+        assertEquals("ip:10.0.0.5", resolve("10.0.0.5", " "));
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.microservice.api_gateway.filter;
+
+import com.example.microservice.shared.hedging.HedgingPolicy;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "gateway-cache.enabled=false",
+        "gateway-shedding.enabled=false",
+        // round robin keeps sending every other request to the slow replica
+        "load-balancer.peak-ewma.enabled=false",
+        "gateway-hedging.enabled=true",
+        // well above the fast replica's latency even on a loaded machine, so no hedge is sent needlessly
+        "gateway-hedging.min-delay=100ms",
+        "gateway-hedging.budget-ratio=1.0",
+        "gateway-hedging.paths=/api/users/{id:[0-9]+},/api/stuck/{id:[0-9]+}",
+        "spring.cloud.gateway.server.webflux.routes[0].id=user-service",
+        "spring.cloud.gateway.server.webflux.routes[0].uri=lb://user-service",
+        "spring.cloud.gateway.server.webflux.routes[0].predicates[0]=Path=/api/users/**",
+        "spring.cloud.gateway.server.webflux.routes[1].id=stuck",
+        "spring.cloud.gateway.server.webflux.routes[1].uri=lb://user-service",
+        "spring.cloud.gateway.server.webflux.routes[1].predicates[0]=Path=/api/stuck/**",
+        "spring.cloud.gateway.server.webflux.routes[1].metadata.response-timeout=1000"})
+class HedgingRoutingFilterTest {
+
+    static final Duration SLOW = Duration.ofMillis(500);
+    // answered this late by every replica, past the stuck route's response timeout
+    static final String STUCK_PATH = "/api/stuck/1";
+    static final Duration STUCK = Duration.ofSeconds(5);
+    static final long MS = Duration.ofMillis(1).toNanos();
+
+    static final HttpServer FAST_REPLICA = replica("fast", Duration.ZERO);
+    static final HttpServer SLOW_REPLICA = replica("slow", SLOW);
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    HedgingRoutingFilter filter;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // the load balancer itself is round robin here, so only the filter's hedges reach these stats
+    @MockitoBean
+    PeakEwmaStats peakEwmaStats;
+
+    final PeakEwmaStats.Attempt attempt = Mockito.mock(PeakEwmaStats.Attempt.class);
+
+    final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void replicas(DynamicPropertyRegistry registry) {
+        List<HttpServer> replicas = List.of(FAST_REPLICA, SLOW_REPLICA);
+        for (int i = 0; i < replicas.size(); i++) {
+            int replicaPort = replicas.get(i).getAddress().getPort();
+            registry.add("spring.cloud.discovery.client.simple.instances.user-service[" + i + "].uri",
+                    () -> "http://localhost:" + replicaPort);
+        }
+    }
+
+    @AfterAll
+    static void stopReplicas() {
+        FAST_REPLICA.stop(0);
+        SLOW_REPLICA.stop(0);
+    }
+
+    @BeforeEach
+    void primePolicy() {
+        Mockito.when(peakEwmaStats.start(Mockito.any())).thenReturn(attempt);
+        for (String routeId : List.of("user-service", "stuck")) {
+            HedgingPolicy policy = filter.policy(routeId);
+            for (int i = 0; i < HedgingPolicy.MIN_SAMPLES; i++) {
+                policy.record(MS);
+            }
+        }
+    }
+
+    HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void When_ChosenReplicaSlow_Expect_GetAnsweredByHedgeToOtherReplica() throws Exception {
+        // TODO: Arrange
+        URI uri = URI.create("http://localhost:" + port + "/api/users/1");
+        List<HttpResponse<String>> responses = new ArrayList<>();
+        // TODO: Act
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            responses.add(send(HttpRequest.newBuilder(uri).GET()));
+        }
+        long elapsed = System.nanoTime() - start;
+        // TODO: Assert
+        assertTrue(responses.stream().allMatch(response -> response.statusCode() == 200 && response.body().equals("fast")));
+        assertEquals("text/plain", responses.get(0).headers().firstValue("Content-Type").orElseThrow());
+        assertTrue(elapsed < SLOW.toNanos(), "took " + elapsed / MS + " ms");
+        assertTrue(meterRegistry.get("hedging.wins").tag("route", "user-service").counter().count() >= 1);
+        assertEquals(1.0, meterRegistry.get("hedging.win.rate").tag("route", "user-service").gauge().value());
+    }
+
+    @Test
+    void When_HedgeAnswered_Expect_CountedInPeakEwmaStatsOfItsReplica() throws Exception {
+        // TODO: Arrange
+        URI uri = URI.create("http://localhost:" + port + "/api/users/1");
+        int fastPort = FAST_REPLICA.getAddress().getPort();
+        // TODO: Act
+        // round robin sends one of the two to the slow replica, which gets hedged
+        for (int i = 0; i < 2; i++) {
+            send(HttpRequest.newBuilder(uri).GET());
+        }
+        // TODO: Assert
+        Mockito.verify(peakEwmaStats).start(Mockito.argThat(instance -> instance.getPort() == fastPort));
+        Mockito.verify(attempt).complete(false);
+    }
+
+    @Test
+    void When_NotGet_Expect_SentOnceToChosenReplica() throws Exception {
+        // TODO: Arrange
+        URI uri = URI.create("http://localhost:" + port + "/api/users");
+        double eligible = meterRegistry.get("hedging.requests").tag("route", "user-service").counter().count();
+        List<String> bodies = new ArrayList<>();
+        // TODO: Act
+        for (int i = 0; i < 2; i++) {
+            bodies.add(send(HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.ofString("{}"))).body());
+        }
+        // TODO: Assert
+        assertTrue(bodies.contains("slow"));
+        assertEquals(eligible, meterRegistry.get("hedging.requests").tag("route", "user-service").counter().count());
+    }
+
+    @Test
+    void When_StreamingPath_Expect_NotHedged() throws Exception {
+        // TODO: Arrange
+        URI uri = URI.create("http://localhost:" + port + "/api/users/stream");
+        double eligible = meterRegistry.get("hedging.requests").tag("route", "user-service").counter().count();
+        List<String> bodies = new ArrayList<>();
+        // TODO: Act
+        for (int i = 0; i < 2; i++) {
+            bodies.add(send(HttpRequest.newBuilder(uri).GET()).body());
+        }
+        // TODO: Assert
+        assertTrue(bodies.contains("slow"));
+        assertEquals(eligible, meterRegistry.get("hedging.requests").tag("route", "user-service").counter().count());
+    }
+
+    @Test
+    void When_PrimaryAndHedgePastRouteResponseTimeout_Expect_GatewayTimeout() throws Exception {
+        // TODO: Arrange
+        URI uri = URI.create("http://localhost:" + port + STUCK_PATH);
+        // the first request through the gateway pays for its start-up; this one is not hedged, so no policy sees it
+        send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/stream")).GET());
+        // TODO: Act
+        long start = System.nanoTime();
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri).GET());
+        long elapsed = System.nanoTime() - start;
+        // TODO: Assert
+        assertEquals(504, response.statusCode());
+        assertTrue(elapsed < STUCK.toNanos(), "took " + elapsed / MS + " ms");
+        assertEquals(1.0, meterRegistry.get("hedging.hedges").tag("route", "stuck").counter().count());
+    }
+
+    private static HttpServer replica(String name, Duration latency) {
+        // headers and body are separate writes; without this, Nagle and delayed ACKs add ~40 ms to some responses
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            byte[] body = name.getBytes(StandardCharsets.UTF_8);
+            server.createContext("/", exchange -> {
+                exchange.getRequestBody().readAllBytes();
+                try {
+                    Thread.sleep(exchange.getRequestURI().getPath().equals(STUCK_PATH) ? STUCK : latency);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "text/plain");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
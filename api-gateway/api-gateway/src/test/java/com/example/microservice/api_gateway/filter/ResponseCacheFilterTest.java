@@ -0,0 +1,157 @@
+package com.example.microservice.api_gateway.filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    ResponseCacheFilter filter;
+    List<String> backendCalls;
+    HttpStatus backendStatus;
+    String backendBody;
+    // when set, the backend streams this body without a Content-Length
+    Flux<String> backendStream;
+
+    GatewayFilterChain backend = exchange -> {
+        backendCalls.add(exchange.getRequest().getMethod() + " " + exchange.getRequest().getURI().getRawPath());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(backendStatus);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        if (backendStream != null) {
+            return response.writeWith(backendStream.map(chunk -> response.bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+        }
+        byte[] bytes = backendBody.getBytes(StandardCharsets.UTF_8);
+        response.getHeaders().setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    };
+
+    @BeforeEach
+    void setUp() {
+        filter = new ResponseCacheFilter(DataSize.ofMegabytes(1), Duration.ofMinutes(1), DataSize.ofKilobytes(64),
+                new SimpleMeterRegistry());
+        backendCalls = new ArrayList<>();
+        backendStatus = HttpStatus.OK;
+        backendBody = "{\"id\":1,\"name\":\"Chi Bao TO\"}";
+    }
+
+    MockServerWebExchange send(MockServerHttpRequest request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        filter.filter(exchange, backend).block();
+        return exchange;
+    }
+
+    @Test
+    void When_SameGetTwice_Expect_SecondServedFromCacheWithSameETag() {
+        // TODO: Act
+        MockServerWebExchange first = send(MockServerHttpRequest.get("/api/users/1").build());
+        MockServerWebExchange second = send(MockServerHttpRequest.get("/api/users/1").build());
+        // TODO: Assert
+        assertEquals(1, backendCalls.size());
+        assertEquals("MISS", first.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("HIT", second.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(backendBody, first.getResponse().getBodyAsString().block());
+        assertEquals("\"" + DigestUtils.md5DigestAsHex(backendBody.getBytes(StandardCharsets.UTF_8)) + "\"",
+                second.getResponse().getHeaders().getETag());
+        assertEquals(backendBody, second.getResponse().getBodyAsString().block());
+        assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+    }
+
+    @Test
+    void When_IfNoneMatchesETag_Expect_NotModifiedWithoutBody() {
+        // TODO: Arrange
+        send(MockServerHttpRequest.get("/api/users/1").build());
+        String etag = send(MockServerHttpRequest.get("/api/users/1").build()).getResponse().getHeaders().getETag();
+        // TODO: Act
+        MockServerWebExchange cached = send(MockServerHttpRequest.get("/api/users/1").ifNoneMatch(etag).build());
+        filter.invalidate("/api/users");
+        MockServerWebExchange revalidated = send(MockServerHttpRequest.get("/api/users/1").ifNoneMatch("W/" + etag).build());
+        // TODO: Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, cached.getResponse().getStatusCode());
+        assertEquals("", cached.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        assertEquals(etag, cached.getResponse().getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        assertEquals(2, backendCalls.size());
+    }
+
+    @Test
+    void When_WriteOnResource_Expect_CollectionInvalidated() {
+        // TODO: Arrange
+        send(MockServerHttpRequest.get("/api/users").queryParam("afterId", "0").build());
+        send(MockServerHttpRequest.get("/api/users/1").build());
+        send(MockServerHttpRequest.get("/api/orders/1").build());
+        // TODO: Act
+        send(MockServerHttpRequest.put("/api/users/1").build());
+        MockServerWebExchange list = send(MockServerHttpRequest.get("/api/users").queryParam("afterId", "0").build());
+        MockServerWebExchange order = send(MockServerHttpRequest.get("/api/orders/1").build());
+        // TODO: Assert
+        assertEquals("MISS", list.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals("HIT", order.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(List.of("GET /api/users", "GET /api/users/1", "GET /api/orders/1", "PUT /api/users/1",
+                "GET /api/users"), backendCalls);
+    }
+
+    @Test
+    void When_ErrorOrNoStoreResponse_Expect_NotCached() {
+        // TODO: Arrange
+        backendStatus = HttpStatus.NOT_FOUND;
+        send(MockServerHttpRequest.get("/api/users/404").build());
+        // TODO: Act
+        send(MockServerHttpRequest.get("/api/users/404").build());
+        send(MockServerHttpRequest.get("/api/users/1").header(HttpHeaders.CACHE_CONTROL, "no-store").build());
+        // TODO: Assert
+        assertEquals(3, backendCalls.size());
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void When_StreamedBodyOverLimit_Expect_PassedThroughAsItArrivesAndNotCached() {
+        // TODO: Arrange
+        Sinks.Many<String> chunks = Sinks.many().unicast().onBackpressureBuffer();
+        backendStream = chunks.asFlux();
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users").build());
+        List<String> written = new ArrayList<>();
+        exchange.getResponse().setWriteHandler(body -> body
+                .doOnNext(buffer -> written.add(buffer.toString(StandardCharsets.UTF_8)))
+                .then());
+        String chunk = "x".repeat(40 * 1024);
+        // TODO: Act
+        filter.filter(exchange, backend).subscribe();
+        chunks.tryEmitNext(chunk);
+        int writtenBeforeEnd = written.size();
+        chunks.tryEmitNext(chunk);
+        chunks.tryEmitComplete();
+        // TODO: Assert
+        assertEquals(1, writtenBeforeEnd);
+        assertEquals(List.of(chunk, chunk), written);
+        assertNull(exchange.getResponse().getHeaders().getFirst(ResponseCacheFilter.CACHE_STATUS_HEADER));
+        assertEquals(0, filter.size());
+    }
+
+    @Test
+    void When_ResourceRoot_Expect_FirstTwoSegments() {
+        // TODO: Act & Assert
+        assertEquals("/api/users", ResponseCacheFilter.resourceRoot("/api/users/5/status"));
+        assertEquals("/api/users", ResponseCacheFilter.resourceRoot("/api/users"));
+        assertEquals("/api/orders", ResponseCacheFilter.resourceRoot("/api/orders/"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.microservice.api_gateway.filter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBucketRateLimiterTest {
+
+    static final String ROUTE = "order-service";
+
+    @Mock
+    ReactiveStringRedisTemplate redisTemplate;
+
+    @Mock
+    RedisScript<List<Long>> script;
+
+    AtomicLong nanos = new AtomicLong();
+    TokenBucketRateLimiter.Config config;
+
+    @BeforeEach
+    void setUp() {
+        config = new TokenBucketRateLimiter.Config();
+        config.setReplenishRate(10);
+        config.setBurstCapacity(20);
+    }
+
+    TokenBucketRateLimiter limiter(ReactiveStringRedisTemplate redisTemplate) {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(null, redisTemplate, script, Duration.ofMinutes(10), nanos::get);
+        limiter.getConfig().put(ROUTE, config);
+        return limiter;
+    }
+
+    long allowed(TokenBucketRateLimiter limiter, String client, int requests) {
+        long count = 0;
+        for (int i = 0; i < requests; i++) {
+            if (limiter.isAllowed(ROUTE, client).block().isAllowed()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void When_BurstExhausted_Expect_DeniedUntilRefilled() {
+        // TODO: Arrange
+        TokenBucketRateLimiter limiter = limiter(null);
+        // TODO: Act
+        long burst = allowed(limiter, "ip:10.0.0.1", 25);
+        RateLimiter.Response denied = limiter.isAllowed(ROUTE, "ip:10.0.0.1").block();
+        nanos.addAndGet(Duration.ofMillis(500).toNanos());
+        long refilled = allowed(limiter, "ip:10.0.0.1", 10);
+        // TODO: Assert
+        assertEquals(20, burst);
+        assertFalse(denied.isAllowed());
+        assertEquals("0", denied.getHeaders().get(RedisRateLimiter.REMAINING_HEADER));
+        assertEquals(5, refilled);
+    }
+
+    @Test
+    void When_DifferentClients_Expect_SeparateBuckets() {
+        // TODO: Arrange
+        TokenBucketRateLimiter limiter = limiter(null);
+        // TODO: Act & Assert
+        assertEquals(20, allowed(limiter, "client:a", 30));
+        assertEquals(20, allowed(limiter, "client:b", 30));
+    }
+
+    @Test
+    void When_Shared_Expect_RedisScriptDecides() {
+        // TODO: Arrange
+        Mockito.when(redisTemplate.execute(ArgumentMatchers.eq(script), ArgumentMatchers.anyList(), ArgumentMatchers.anyList()))
+                .thenReturn(Flux.just(List.of(0L, 0L)));
+        TokenBucketRateLimiter limiter = limiter(redisTemplate);
+        // TODO: Act
+        RateLimiter.Response response = limiter.isAllowed(ROUTE, "client:a").block();
+        // TODO: Assert
+        assertFalse(response.isAllowed());
+        Mockito.verify(redisTemplate).execute(script,
+                List.of("request_rate_limiter.{order-service.client:a}.tokens", "request_rate_limiter.{order-service.client:a}.timestamp"),
+                List.of("10", "20", "", "1"));
+    }
+
+    @Test
+    void When_RedisUnavailable_Expect_LocalBucketDecides() {
+        // TODO: Arrange
+        Mockito.when(redisTemplate.execute(ArgumentMatchers.eq(script), ArgumentMatchers.anyList(), ArgumentMatchers.anyList()))
+                .thenReturn(Flux.error(new RedisConnectionFailureException("Connection refused")));
+        TokenBucketRateLimiter limiter = limiter(redisTemplate);
+        // TODO: Act & Assert
+        assertEquals(20, allowed(limiter, "client:a", 25));
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.microservice.order_service.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of an {@link OrderPlacedEvent} from order-service into notification-service's
+ * event type. {@code outbox} is the path in use today (JSON string written to the outbox, sent
+ * with {@link StringSerializer}); {@code jsonSerializer} is Spring Kafka's {@link JsonSerializer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class OrderPlacedEventSerdeBenchmark {
+
+    private static final String TOPIC = "order-creation";
+
+    private OrderPlacedEvent event;
+    private ObjectMapper objectMapper;
+    private StringSerializer stringSerializer;
+    private JsonSerializer<OrderPlacedEvent> jsonSerializer;
+    // configured like notification-service's KafkaConsumerConfig
+    private JsonDeserializer<com.example.notification_service.event.OrderPlacedEvent> jsonDeserializer;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        event = OrderPlacedEvent.builder().orderId(42L).userId(7L).total(1200.0).build();
+        objectMapper = new ObjectMapper();
+        stringSerializer = new StringSerializer();
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(com.example.notification_service.event.OrderPlacedEvent.class, false);
+        payload = jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] jsonSerializerSerialize() {
+        return jsonSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public com.example.notification_service.event.OrderPlacedEvent jsonDeserializerDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, payload);
+    }
+
+    @Benchmark
+    public com.example.notification_service.event.OrderPlacedEvent jsonSerializerRoundTrip() {
+        return jsonDeserializer.deserialize(TOPIC, jsonSerializer.serialize(TOPIC, event));
+    }
+
+    @Benchmark
+    public com.example.notification_service.event.OrderPlacedEvent outboxRoundTrip() throws JsonProcessingException {
+        byte[] bytes = stringSerializer.serialize(TOPIC, objectMapper.writeValueAsString(event));
+        return jsonDeserializer.deserialize(TOPIC, bytes);
+    }
+}
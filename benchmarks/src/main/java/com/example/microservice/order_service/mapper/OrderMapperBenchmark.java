@@ -0,0 +1,46 @@
+package com.example.microservice.order_service.mapper;
+
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// MapStruct mapping done for every order returned by order-service
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class OrderMapperBenchmark {
+
+    private OrderMapper orderMapper;
+    private Order order;
+    private UserDto user;
+
+    @Setup
+    public void setUp() {
+        orderMapper = new OrderMapperImpl();
+        order = Order.builder()
+                .id(42L)
+                .userId(7L)
+                .product("Laptop")
+                .price(1200.0)
+                .status(Order.OrderStatus.CONFIRMED)
+                .total(1200.0)
+                .build();
+        user = UserDto.builder().id(7L).name("John Doe").email("john.doe@example.com").build();
+    }
+
+    @Benchmark
+    public OrderResponse toOrderResponse() {
+        return orderMapper.toOrderResponse(order);
+    }
+
+    @Benchmark
+    public OrderResponse toOrderResponseWithUser() {
+        return orderMapper.toOrderResponse(order, user);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.microservice.user_service.config;
+
+import com.example.microservice.user_service.cache.CacheValueFormat;
+import com.example.microservice.user_service.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// The value serializer behind the "users" cache, applied to a fully populated User,
+// in the legacy JSON format and the binary format; "bytes" is the encoded size of one entry
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RedisValueSerializerBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public CacheValueFormat format;
+
+    private RedisSerializer<Object> serializer;
+    private User user;
+    private byte[] payload;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EntrySize {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        serializer = RedisConfiguration.createValueSerializer(format, 1024);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 15, 10, 30, 0);
+        user = User.builder()
+                .id(42L)
+                .name("John Doe")
+                .email("john.doe@example.com")
+                .phoneNumber("+84901234567")
+                .address("123 Nguyen Hue, District 1, Ho Chi Minh City")
+                .age(30)
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(timestamp)
+                .updatedAt(timestamp)
+                .build();
+        payload = serializer.serialize(user);
+    }
+
+    @Benchmark
+    public byte[] serialize(EntrySize entrySize) {
+        byte[] bytes = serializer.serialize(user);
+        entrySize.bytes = bytes.length;
+        return bytes;
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(payload);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(user));
+    }
+}
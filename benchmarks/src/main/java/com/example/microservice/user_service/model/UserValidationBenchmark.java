@@ -0,0 +1,61 @@
+package com.example.microservice.user_service.model;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Bean Validation of the User constraints, as run on every @Valid create/update request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class UserValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private User validUser;
+    private User invalidUser;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        validUser = User.builder()
+                .name("John Doe")
+                .email("john.doe@example.com")
+                .phoneNumber("+84901234567")
+                .address("123 Nguyen Hue, District 1, Ho Chi Minh City")
+                .age(30)
+                .build();
+        // violates @Size, @Email and @Min, so message interpolation is included
+        invalidUser = User.builder()
+                .name("J")
+                .email("not-an-email")
+                .phoneNumber("+84 90 123 4567 890")
+                .address("x".repeat(101))
+                .age(-1)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> validUser() {
+        return validator.validate(validUser);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> invalidUser() {
+        return validator.validate(invalidUser);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.microservice.load_test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Makes one service replica look degraded: the replica registers this proxy's port in Eureka instead of its
+ * own, so the gateway and Feign callers reach it through here, and every request waits {@code delay} before
+ * it is forwarded.
+ */
+final class DelayProxy implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(DelayProxy.class);
+
+    // hop-by-hop or set by the HTTP client itself
+    private static final Set<String> SKIPPED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "transfer-encoding", "upgrade");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private DelayProxy(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    static DelayProxy start(String name, int targetPort, Duration delay, HttpClient httpClient) throws IOException {
+        // headers and body are separate writes; without this, Nagle and delayed ACKs add ~40 ms on top of delay
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> forward(exchange, targetPort, delay, httpClient));
+        server.start();
+        log.info("{} degraded by {} behind port {}", name, delay, server.getAddress().getPort());
+        return new DelayProxy(server, executor);
+    }
+
+    private static void forward(HttpExchange exchange, int targetPort, Duration delay, HttpClient httpClient) throws IOException {
+        try (exchange) {
+            Thread.sleep(delay);
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + targetPort + exchange.getRequestURI()))
+                    .method(exchange.getRequestMethod(), body.length == 0
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofByteArray(body));
+            exchange.getRequestHeaders().forEach((name, values) -> {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    values.forEach(value -> request.header(name, value));
+                }
+            });
+            HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            response.headers().map().forEach((name, values) -> {
+                if (!name.startsWith(":") && !SKIPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    exchange.getResponseHeaders().put(name, values);
+                }
+            });
+            byte[] responseBody = response.body();
+            exchange.sendResponseHeaders(response.statusCode(), responseBody.length == 0 ? -1 : responseBody.length);
+            exchange.getResponseBody().write(responseBody);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.microservice.load_test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-route latency histograms (microseconds) and error counts for one measurement window
+final class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Route, Histogram> latencies = new EnumMap<>(Route.class);
+    private final Map<Route, LongAdder> errors = new EnumMap<>(Route.class);
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    LatencyReport() {
+        for (Route route : Route.values()) {
+            latencies.put(route, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(route, new LongAdder());
+        }
+    }
+
+    void start() {
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+        startNanos = System.nanoTime();
+    }
+
+    void stop() {
+        endNanos = System.nanoTime();
+    }
+
+    void record(Route route, long latencyNanos, boolean success) {
+        latencies.get(route).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            errors.get(route).increment();
+        }
+    }
+
+    String format() {
+        double seconds = Duration.ofNanos(endNanos - startNanos).toMillis() / 1000.0;
+        StringBuilder table = new StringBuilder();
+        table.append(String.format("%-32s %9s %7s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        long total = 0;
+        for (Route route : Route.values()) {
+            Histogram histogram = latencies.get(route);
+            total += histogram.getTotalCount();
+            table.append(String.format("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    route.label(), histogram.getTotalCount(), errors.get(route).sum(), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9), histogram.getMaxValue() / 1000.0));
+        }
+        table.append(String.format("%-32s %9d %7s %9.1f%n", "total", total, "", total / seconds));
+        return table.toString();
+    }
+
+    void writeJson(Path file, Map<String, Object> context) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode root = objectMapper.createObjectNode();
+        context.forEach((key, value) -> root.putPOJO(key, value));
+        root.put("durationSeconds", Duration.ofNanos(endNanos - startNanos).toMillis() / 1000.0);
+        ArrayNode routes = root.putArray("routes");
+        for (Route route : Route.values()) {
+            Histogram histogram = latencies.get(route);
+            routes.addObject()
+                    .put("route", route.label())
+                    .put("requests", histogram.getTotalCount())
+                    .put("errors", errors.get(route).sum())
+                    .put("p50Millis", millis(histogram, 50.0))
+                    .put("p99Millis", millis(histogram, 99.0))
+                    .put("p999Millis", millis(histogram, 99.9))
+                    .put("maxMillis", histogram.getMaxValue() / 1000.0);
+        }
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), root);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,371 @@
+package com.example.microservice.load_test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.h2.tools.Server;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Boots discovery-server, user-service, order-service, notification-service and api-gateway from
+ * their built jars against an embedded Redis and an embedded KRaft Kafka broker, then drives the
+ * {@link Route} traffic mix through the gateway with a fixed number of concurrent clients and
+ * reports throughput and p50/p99/p999 latency per route.
+ * <p>
+ * Build the services first ({@code mvn -B package -DskipTests} in each module), then run
+ * {@code mvn -B compile exec:java} in this module. Settings are system properties, see
+ * {@link Settings}.
+ * <p>
+ * With {@code load-test.user-service-replicas} above one, the extra user-service replicas share an H2
+ * database served over TCP by the harness, and {@code load-test.degraded-delay} puts the last of them
+ * behind a {@link DelayProxy} to show how the gateway's and order-service's load balancers cope with
+ * one slow instance.
+ */
+public final class LoadTestHarness {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private static final String ORDER_TOPIC = "order-creation";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    // the gateway's rate limits are per client, and every request here comes from the same address
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private LoadTestHarness() {
+    }
+
+    /**
+     * @param root         directory containing the service modules
+     * @param concurrency  concurrent closed-loop clients
+     * @param warmup       traffic before measuring starts
+     * @param duration     measured traffic
+     * @param users        users created (with one order each) before the run
+     * @param heap         -Xms/-Xmx of every service JVM
+     * @param seed         base seed of the per-client random generators
+     * @param userServiceReplicas user-service instances registered in Eureka
+     * @param degradedDelay       delay added to every request to the last user-service replica, zero for none
+     * @param peakEwma            peak-EWMA instead of round robin in the gateway's and order-service's load balancers
+     */
+    record Settings(Path root, int concurrency, Duration warmup, Duration duration, int users, String heap, long seed,
+                    int userServiceReplicas, Duration degradedDelay, boolean peakEwma) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Path.of(System.getProperty("load-test.root", "..")).toAbsolutePath().normalize(),
+                    Integer.getInteger("load-test.concurrency", 64),
+                    Duration.parse(System.getProperty("load-test.warmup", "PT30S")),
+                    Duration.parse(System.getProperty("load-test.duration", "PT60S")),
+                    Integer.getInteger("load-test.users", 500),
+                    System.getProperty("load-test.heap", "384m"),
+                    Long.getLong("load-test.seed", 42L),
+                    Integer.getInteger("load-test.user-service-replicas", 1),
+                    Duration.parse(System.getProperty("load-test.degraded-delay", "PT0S")),
+                    Boolean.parseBoolean(System.getProperty("load-test.peak-ewma", "true")));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        Path outputDir = Path.of("target", "load-test");
+        log.info("Load test settings: {}", settings);
+
+        List<AutoCloseable> resources = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean closed = new AtomicBoolean();
+        Runnable cleanup = () -> {
+            if (closed.compareAndSet(false, true)) {
+                List<AutoCloseable> reversed = new ArrayList<>(resources);
+                Collections.reverse(reversed);
+                for (AutoCloseable resource : reversed) {
+                    try {
+                        resource.close();
+                    } catch (Exception ex) {
+                        log.warn("Failed to stop {}: {}", resource, ex.getMessage());
+                    }
+                }
+            }
+        };
+        Runtime.getRuntime().addShutdownHook(new Thread(cleanup, "load-test-cleanup"));
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+
+            int redisPort = freePort();
+            RedisServer redis = new RedisServer(redisPort);
+            redis.start();
+            resources.add(redis::stop);
+            log.info("Embedded Redis on port {}", redisPort);
+
+            EmbeddedKafkaKraftBroker kafka = new EmbeddedKafkaKraftBroker(1, 3, ORDER_TOPIC);
+            kafka.afterPropertiesSet();
+            resources.add(kafka::destroy);
+            log.info("Embedded Kafka at {}", kafka.getBrokersAsString());
+
+            int eurekaPort = freePort();
+            List<String> common = List.of(
+                    "--eureka.client.service-url.defaultZone=http://localhost:" + eurekaPort + "/eureka/",
+                    // the compose hostnames (user-service, order-service, ...) do not resolve outside Docker
+                    "--eureka.instance.hostname=localhost",
+                    "--eureka.instance.lease-renewal-interval-in-seconds=1",
+                    "--eureka.client.registry-fetch-interval-seconds=1",
+                    "--eureka.client.initial-instance-info-replication-interval-seconds=1",
+                    "--spring.cloud.loadbalancer.cache.ttl=2s",
+                    "--load-balancer.peak-ewma.enabled=" + settings.peakEwma(),
+                    // request-level DEBUG logging and SQL echo would dominate the measured latency
+                    "--logging.level.org.springframework.web=INFO",
+                    "--spring.jpa.show-sql=false");
+
+            ServiceProcess discovery = start(resources, settings, outputDir, "discovery-server", "discovery-server/discovery-server", eurekaPort,
+                    List.of("--eureka.server.response-cache-update-interval-ms=1000",
+                            "--eureka.server.enable-self-preservation=false",
+                            "--eureka.server.wait-time-in-ms-when-sync-empty=0"));
+            discovery.awaitHealthy(httpClient, STARTUP_TIMEOUT);
+
+            List<String> userService = concat(common, "--spring.data.redis.host=localhost", "--spring.data.redis.port=" + redisPort);
+            if (settings.userServiceReplicas() > 1) {
+                // each replica would otherwise get its own in-memory database
+                int h2Port = freePort();
+                Server h2 = Server.createTcpServer("-tcpPort", String.valueOf(h2Port), "-ifNotExists").start();
+                resources.add(h2::stop);
+                log.info("H2 TCP server on port {} for {} user-service replicas", h2Port, settings.userServiceReplicas());
+                userService = concat(userService, "--spring.datasource.url=jdbc:h2:tcp://localhost:" + h2Port + "/mem:userdb;DB_CLOSE_DELAY=-1");
+            }
+
+            List<ServiceProcess> services = new ArrayList<>();
+            services.add(start(resources, settings, outputDir, "user-service", "user-service/user-service", freePort(), userService));
+            services.add(start(resources, settings, outputDir, "order-service", "order-service/order-service", freePort(),
+                    concat(common, "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString())));
+            ServiceProcess notification = start(resources, settings, outputDir, "notification-service", "notification-service", freePort(),
+                    concat(common, "--spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString()));
+            services.add(notification);
+            // every client connects from localhost, so the gateway has to trust its X-Client-Id there
+            ServiceProcess gateway = start(resources, settings, outputDir, "api-gateway", "api-gateway/api-gateway", freePort(),
+                    concat(common, "--gateway-rate-limit.trusted-client-id-sources=127.0.0.1,0:0:0:0:0:0:0:1"));
+            services.add(gateway);
+            for (ServiceProcess service : services) {
+                service.awaitHealthy(httpClient, STARTUP_TIMEOUT);
+            }
+            // started once the first replica has created the schema, so their DDL updates find nothing to do
+            for (int replica = 2; replica <= settings.userServiceReplicas(); replica++) {
+                String name = "user-service-" + replica;
+                int port = freePort();
+                List<String> arguments = userService;
+                if (replica == settings.userServiceReplicas() && settings.degradedDelay().isPositive()) {
+                    DelayProxy proxy = DelayProxy.start(name, port, settings.degradedDelay(), httpClient);
+                    resources.add(proxy);
+                    arguments = concat(userService, "--eureka.instance.non-secure-port=" + proxy.port());
+                }
+                start(resources, settings, outputDir, name, "user-service/user-service", port, arguments)
+                        .awaitHealthy(httpClient, STARTUP_TIMEOUT);
+            }
+            awaitRoutes(httpClient, gateway.baseUrl());
+
+            TrafficState state = seed(httpClient, gateway.baseUrl(), settings);
+            long seededOrders = state.ordersCreated();
+            LatencyReport report = new LatencyReport();
+            run(httpClient, gateway.baseUrl(), settings, state, report);
+
+            long expectedEvents = state.ordersCreated();
+            long consumedEvents = awaitEvents(httpClient, notification.baseUrl(), expectedEvents);
+
+            System.out.printf("%n== %d clients, %s measured after %s warm-up ==%n%s", settings.concurrency(),
+                    settings.duration(), settings.warmup(), report.format());
+            System.out.printf("order events consumed by notification-service: %d of %d%n", consumedEvents, expectedEvents);
+
+            Map<String, Object> context = new LinkedHashMap<>();
+            context.put("concurrency", settings.concurrency());
+            context.put("warmupSeconds", settings.warmup().toSeconds());
+            context.put("users", settings.users());
+            context.put("userServiceReplicas", settings.userServiceReplicas());
+            context.put("degradedDelayMillis", settings.degradedDelay().toMillis());
+            context.put("peakEwma", settings.peakEwma());
+            context.put("seededOrders", seededOrders);
+            context.put("ordersCreated", expectedEvents);
+            context.put("orderEventsConsumed", consumedEvents);
+            Path reportFile = outputDir.resolve("report.json");
+            report.writeJson(reportFile, context);
+            log.info("Report written to {}", reportFile.toAbsolutePath());
+        } finally {
+            cleanup.run();
+        }
+    }
+
+    private static ServiceProcess start(List<AutoCloseable> resources, Settings settings, Path outputDir, String name,
+                                        String module, int port, List<String> arguments) throws IOException {
+        ServiceProcess service = ServiceProcess.start(name, settings.root().resolve(module), port, settings.heap(),
+                outputDir.resolve("logs"), arguments);
+        resources.add(service);
+        return service;
+    }
+
+    // Eureka registration and the gateway's load-balancer cache lag behind the health checks
+    private static void awaitRoutes(HttpClient httpClient, String gateway) throws Exception {
+        List<URI> probes = List.of(URI.create(gateway + "/api/users?size=1"), URI.create(gateway + "/api/orders/user/0"));
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        for (URI probe : probes) {
+            while (true) {
+                HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(probe).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    break;
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Gateway does not route " + probe + " (last status " + response.statusCode() + ")");
+                }
+                Thread.sleep(1000);
+            }
+        }
+        log.info("Gateway routes to user-service and order-service");
+    }
+
+    private static TrafficState seed(HttpClient httpClient, String gateway, Settings settings) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Long> userIds = Collections.synchronizedList(new ArrayList<>());
+        List<Long> orderIds = Collections.synchronizedList(new ArrayList<>());
+        Semaphore permits = new Semaphore(settings.concurrency());
+        try (ExecutorService seeders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.users(); i++) {
+                int index = i;
+                permits.acquire();
+                seeders.submit(() -> {
+                    try {
+                        String clientId = "load-test-seed-" + index;
+                        HttpResponse<String> user = httpClient.send(post(gateway + "/api/users", clientId,
+                                "{\"name\":\"Load User " + index + "\",\"email\":\"load-user-" + index + "@example.com\",\"age\":30}"),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (user.statusCode() != 201) {
+                            throw new IllegalStateException("Creating user " + index + " failed: " + user.statusCode() + " " + user.body());
+                        }
+                        JsonNode created = objectMapper.readTree(user.body());
+                        long userId = created.get("id").asLong();
+                        userIds.add(userId);
+                        HttpResponse<String> order = httpClient.send(post(gateway + "/api/orders", clientId,
+                                "{\"userId\":" + userId + ",\"product\":\"Seed\",\"price\":100.0,\"total\":100.0}"),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (order.statusCode() == 201) {
+                            orderIds.add(objectMapper.readTree(order.body()).get("orderId").asLong());
+                        }
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+        log.info("Seeded {} users and {} orders", userIds.size(), orderIds.size());
+        return new TrafficState(userIds, orderIds);
+    }
+
+    private static void run(HttpClient httpClient, String gateway, Settings settings, TrafficState state,
+                            LatencyReport report) throws InterruptedException {
+        long measureFrom = System.nanoTime() + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        AtomicBoolean measuring = new AtomicBoolean();
+        ObjectMapper objectMapper = new ObjectMapper();
+        log.info("Warming up for {}, then measuring for {} with {} clients", settings.warmup(), settings.duration(),
+                settings.concurrency());
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < settings.concurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(settings.seed() + i);
+                String clientId = "load-test-" + i;
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        Route route = Route.pick(random);
+                        HttpRequest request = route.request(gateway, random, state)
+                                .header(CLIENT_ID_HEADER, clientId)
+                                .timeout(REQUEST_TIMEOUT)
+                                .build();
+                        long start = System.nanoTime();
+                        boolean success;
+                        try {
+                            if (route == Route.CREATE_ORDER) {
+                                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                                success = response.statusCode() < 400;
+                                if (response.statusCode() == 201) {
+                                    state.orderCreated(objectMapper.readTree(response.body()).get("orderId").asLong());
+                                }
+                            } else {
+                                success = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                            }
+                        } catch (IOException ex) {
+                            success = false;
+                        }
+                        long latency = System.nanoTime() - start;
+                        if (measuring.get()) {
+                            report.record(route, latency, success);
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(Duration.ofNanos(Math.max(0, measureFrom - System.nanoTime())));
+            report.start();
+            measuring.set(true);
+        }
+        report.stop();
+    }
+
+    // the outbox relay and the batch listener are asynchronous, give them time to drain
+    private static long awaitEvents(HttpClient httpClient, String notification, long expected) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(notification + "/actuator/metrics/notification.events.processed"))
+                .GET().build();
+        long consumed = 0;
+        long deadline = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+        while (consumed < expected && System.nanoTime() < deadline) {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                consumed = objectMapper.readTree(response.body()).at("/measurements/0/value").asLong();
+            }
+            if (consumed < expected) {
+                Thread.sleep(1000);
+            }
+        }
+        return consumed;
+    }
+
+    private static HttpRequest post(String uri, String clientId, String body) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .header(CLIENT_ID_HEADER, clientId)
+                .timeout(REQUEST_TIMEOUT)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static List<String> concat(List<String> common, String... arguments) {
+        List<String> all = new ArrayList<>(common);
+        all.addAll(List.of(arguments));
+        return all;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.microservice.load_test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Gateway routes exercised by the load test and their share of the traffic mix. The mix is read
+ * heavy, like the front-end: user and order lookups dominate, one request in five places an order.
+ */
+enum Route {
+
+    GET_USER("GET /api/users/{id}", 30) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            return HttpRequest.newBuilder(URI.create(gateway + "/api/users/" + state.randomUserId(random))).GET();
+        }
+    },
+    GET_USERS_BATCH("POST /api/users/batch", 5) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            String ids = IntStream.range(0, 20)
+                    .mapToObj(i -> String.valueOf(state.randomUserId(random)))
+                    .collect(Collectors.joining(","));
+            return json(HttpRequest.newBuilder(URI.create(gateway + "/api/users/batch")), "{\"ids\":[" + ids + "]}");
+        }
+    },
+    LIST_USERS("GET /api/users?afterId&size", 5) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            return HttpRequest.newBuilder(URI.create(gateway + "/api/users?size=50&afterId=" + (state.randomUserId(random) - 1))).GET();
+        }
+    },
+    CREATE_ORDER("POST /api/orders", 20) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            double price = 10 + random.nextInt(990);
+            return json(HttpRequest.newBuilder(URI.create(gateway + "/api/orders")),
+                    "{\"userId\":" + state.randomUserId(random) + ",\"product\":\"Product " + random.nextInt(100)
+                            + "\",\"price\":" + price + ",\"total\":" + price + "}");
+        }
+    },
+    GET_ORDER("GET /api/orders/{id}", 20) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            return HttpRequest.newBuilder(URI.create(gateway + "/api/orders/" + state.randomOrderId(random))).GET();
+        }
+    },
+    GET_ORDERS_BY_USER("GET /api/orders/user/{userId}", 20) {
+        @Override
+        HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state) {
+            return HttpRequest.newBuilder(URI.create(gateway + "/api/orders/user/" + state.randomUserId(random))).GET();
+        }
+    };
+
+    private static final int TOTAL_WEIGHT = java.util.Arrays.stream(values()).mapToInt(route -> route.weight).sum();
+
+    private final String label;
+    private final int weight;
+
+    Route(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    abstract HttpRequest.Builder request(String gateway, SplittableRandom random, TrafficState state);
+
+    String label() {
+        return label;
+    }
+
+    static Route pick(SplittableRandom random) {
+        int ticket = random.nextInt(TOTAL_WEIGHT);
+        for (Route route : values()) {
+            ticket -= route.weight;
+            if (ticket < 0) {
+                return route;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + TOTAL_WEIGHT);
+    }
+
+    private static HttpRequest.Builder json(HttpRequest.Builder builder, String body) {
+        return builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+}
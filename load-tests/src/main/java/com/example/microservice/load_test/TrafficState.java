@@ -0,0 +1,41 @@
+package com.example.microservice.load_test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Ids the generated requests refer to, as returned by the create calls; order reads only target those
+final class TrafficState {
+
+    private final List<Long> userIds;
+    // guarded by itself, appended to by the CREATE_ORDER clients
+    private final List<Long> orderIds;
+
+    TrafficState(List<Long> userIds, List<Long> orderIds) {
+        this.userIds = List.copyOf(userIds);
+        this.orderIds = new ArrayList<>(orderIds);
+    }
+
+    long randomUserId(SplittableRandom random) {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+
+    // ids come from pooled sequences shared by concurrent writers, so they are neither dense nor 1-based
+    long randomOrderId(SplittableRandom random) {
+        synchronized (orderIds) {
+            return orderIds.get(random.nextInt(orderIds.size()));
+        }
+    }
+
+    void orderCreated(long orderId) {
+        synchronized (orderIds) {
+            orderIds.add(orderId);
+        }
+    }
+
+    long ordersCreated() {
+        synchronized (orderIds) {
+            return orderIds.size();
+        }
+    }
+}
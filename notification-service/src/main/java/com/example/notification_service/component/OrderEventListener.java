@@ -1,18 +1,95 @@
 package com.example.notification_service.component;
 
 import com.example.notification_service.event.OrderPlacedEvent;
+import com.example.notification_service.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @Slf4j
 public class OrderEventListener {
 
+    private final Counter processed;
+    private final Counter failed;
+    private final DistributionSummary batchSize;
+    private final Counter statusProcessed;
+    private final Counter statusFailed;
+    private final DistributionSummary statusBatchSize;
+
+    public OrderEventListener(MeterRegistry meterRegistry) {
+        this.processed = processedCounter(meterRegistry, TopicConfig.TOPIC_CREATE_ORDER);
+        this.failed = failedCounter(meterRegistry, TopicConfig.TOPIC_CREATE_ORDER);
+        this.batchSize = batchSizeSummary(meterRegistry, TopicConfig.TOPIC_CREATE_ORDER);
+        this.statusProcessed = processedCounter(meterRegistry, TopicConfig.TOPIC_ORDER_STATUS_CHANGED);
+        this.statusFailed = failedCounter(meterRegistry, TopicConfig.TOPIC_ORDER_STATUS_CHANGED);
+        this.statusBatchSize = batchSizeSummary(meterRegistry, TopicConfig.TOPIC_ORDER_STATUS_CHANGED);
+    }
 
     @KafkaListener(topics = TopicConfig.TOPIC_CREATE_ORDER, groupId = "notification-group", containerFactory = "orderPlacedEventListenerFactory")
-    public void handleOrderEvent(OrderPlacedEvent event) {
-        log.info("📨 Nhận được event từ Kafka: {}" , event);
+    public void handleOrderEvents(List<OrderPlacedEvent> events) {
+        log.info("📨 Nhận được {} event từ Kafka", events.size());
+        int skipped = 0;
+        for (OrderPlacedEvent event : events) {
+            // null when the record could not be deserialized; it is skipped and acknowledged with the batch
+            if (event == null) {
+                skipped++;
+                continue;
+            }
+            log.debug("📨 Event: {}", event);
+        }
+        logSkipped(skipped, TopicConfig.TOPIC_CREATE_ORDER);
+        batchSize.record(events.size());
+        processed.increment(events.size() - skipped);
+        failed.increment(skipped);
+    }
+
+    @KafkaListener(topics = TopicConfig.TOPIC_ORDER_STATUS_CHANGED, groupId = "notification-group", containerFactory = "orderStatusChangedEventListenerFactory")
+    public void handleOrderStatusEvents(List<OrderStatusChangedEvent> events) {
+        log.info("📨 Nhận được {} status event từ Kafka", events.size());
+        int skipped = 0;
+        for (OrderStatusChangedEvent event : events) {
+            if (event == null) {
+                skipped++;
+                continue;
+            }
+            log.debug("📨 Order {} của user {}: {} -> {}", event.getOrderId(), event.getUserId(), event.getFrom(), event.getTo());
+        }
+        logSkipped(skipped, TopicConfig.TOPIC_ORDER_STATUS_CHANGED);
+        statusBatchSize.record(events.size());
+        statusProcessed.increment(events.size() - skipped);
+        statusFailed.increment(skipped);
+    }
+
+    private static void logSkipped(int skipped, String topic) {
+        if (skipped > 0) {
+            log.warn("Skipped {} undeserializable record(s) from {}", skipped, topic);
+        }
+    }
+
+    private static Counter processedCounter(MeterRegistry meterRegistry, String topic) {
+        return Counter.builder("notification.events.processed")
+                .tag("topic", topic)
+                .description("Order events handled by the notification listener")
+                .register(meterRegistry);
+    }
+
+    private static Counter failedCounter(MeterRegistry meterRegistry, String topic) {
+        return Counter.builder("notification.events.failed")
+                .tag("topic", topic)
+                .description("Order events skipped because they could not be deserialized")
+                .register(meterRegistry);
+    }
 
+    private static DistributionSummary batchSizeSummary(MeterRegistry meterRegistry, String topic) {
+        return DistributionSummary.builder("notification.batch.size")
+                .tag("topic", topic)
+                .description("Records delivered per listener invocation")
+                .register(meterRegistry);
     }
 }
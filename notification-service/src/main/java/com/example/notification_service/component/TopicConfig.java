@@ -3,4 +3,5 @@ package com.example.notification_service.component;
 
 public class TopicConfig {
     public static final String TOPIC_CREATE_ORDER = "order-creation";
+    public static final String TOPIC_ORDER_STATUS_CHANGED = "order-status-changed";
 }
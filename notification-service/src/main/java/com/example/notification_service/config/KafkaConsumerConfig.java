@@ -1,40 +1,115 @@
 package com.example.notification_service.config;
 
+import com.example.notification_service.component.TopicConfig;
 import com.example.notification_service.event.OrderPlacedEvent;
+import com.example.notification_service.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConsumerConfig {
 
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String BOOTSTRAP_SERVERS;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String GROUP_ID;
+
+    @Value("${notification.consumer.partitions:3}")
+    private int PARTITIONS;
+
+    @Value("${notification.consumer.max-poll-records:500}")
+    private int MAX_POLL_RECORDS;
+
+    @Value("${notification.consumer.fetch-min-bytes:1024}")
+    private int FETCH_MIN_BYTES;
+
+    @Value("${notification.consumer.fetch-max-wait:100ms}")
+    private Duration FETCH_MAX_WAIT;
+
+    // One listener thread per partition; extra threads would sit idle
     @Bean
-    public ConsumerFactory<String, OrderPlacedEvent> orderPlaceEventConsumerFactory() {
+    public NewTopic orderCreationTopic() {
+        return TopicBuilder.name(TopicConfig.TOPIC_CREATE_ORDER)
+                .partitions(PARTITIONS)
+                .build();
+    }
+
+    // Keyed by order id, so each order's transitions arrive in order on one listener thread
+    @Bean
+    public NewTopic orderStatusChangedTopic() {
+        return TopicBuilder.name(TopicConfig.TOPIC_ORDER_STATUS_CHANGED)
+                .partitions(PARTITIONS)
+                .build();
+    }
+
+    private Map<String, Object> consumerProps() {
         Map<String, Object> props = new HashMap<>();
 
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, "kafka:9092");
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "notification-group");
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, GROUP_ID);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, FETCH_MIN_BYTES);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) FETCH_MAX_WAIT.toMillis());
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
+        return props;
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
-                new JsonDeserializer<>(OrderPlacedEvent.class, false));
+    @Bean
+    public ConsumerFactory<String, OrderPlacedEvent> orderPlaceEventConsumerFactory(MeterRegistry meterRegistry) {
+        // a record that is not valid JSON reaches the listener as null instead of failing every poll of its partition
+        DefaultKafkaConsumerFactory<String, OrderPlacedEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps(),
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(new JsonDeserializer<>(OrderPlacedEvent.class, false)));
+        // exposes kafka.consumer.* client metrics, including records-lag-max and records-consumed-rate
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> orderPlacedEventListenerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> orderPlacedEventListenerFactory(
+            ConsumerFactory<String, OrderPlacedEvent> orderPlaceEventConsumerFactory) {
         ConcurrentKafkaListenerContainerFactory<String, OrderPlacedEvent> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(orderPlaceEventConsumerFactory());
+        factory.setConsumerFactory(orderPlaceEventConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(PARTITIONS);
+        return factory;
+    }
+
+    @Bean
+    public ConsumerFactory<String, OrderStatusChangedEvent> orderStatusChangedEventConsumerFactory(MeterRegistry meterRegistry) {
+        DefaultKafkaConsumerFactory<String, OrderStatusChangedEvent> consumerFactory = new DefaultKafkaConsumerFactory<>(consumerProps(),
+                new StringDeserializer(), new ErrorHandlingDeserializer<>(new JsonDeserializer<>(OrderStatusChangedEvent.class, false)));
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, OrderStatusChangedEvent> orderStatusChangedEventListenerFactory(
+            ConsumerFactory<String, OrderStatusChangedEvent> orderStatusChangedEventConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, OrderStatusChangedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderStatusChangedEventConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(PARTITIONS);
         return factory;
     }
 }
@@ -0,0 +1,17 @@
+package com.example.notification_service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusChangedEvent {
+    private Long orderId;
+    private Long userId;
+    private String from;
+    private String to;
+}
@@ -0,0 +1,112 @@
+package com.example.notification_service.component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "notification.consumer.partitions=1"
+})
+@EmbeddedKafka(kraft = true)
+class OrderEventListenerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Value("${spring.kafka.consumer.group-id}")
+    private String groupId;
+
+    @Test
+    void When_BatchWithUndeserializableRecord_Expect_GoodRecordsProcessedAndWholeBatchAcknowledged() throws Exception {
+        // TODO: Arrange
+        KafkaTemplate<String, String> kafkaTemplate = kafkaTemplate();
+
+        // TODO: Act
+        kafkaTemplate.send(TopicConfig.TOPIC_CREATE_ORDER, "1", "{\"orderId\":1,\"userId\":100,\"total\":10.0}");
+        kafkaTemplate.send(TopicConfig.TOPIC_CREATE_ORDER, "2", "not json");
+        kafkaTemplate.send(TopicConfig.TOPIC_CREATE_ORDER, "3", "{\"orderId\":3,\"userId\":100,\"total\":30.0}");
+        kafkaTemplate.send(TopicConfig.TOPIC_CREATE_ORDER, "4", "{\"orderId\":4,\"userId\":101,\"total\":40.0}");
+        kafkaTemplate.flush();
+
+        // TODO: Assert
+        awaitUntil(() -> count("notification.events.processed", TopicConfig.TOPIC_CREATE_ORDER) == 3
+                && count("notification.events.failed", TopicConfig.TOPIC_CREATE_ORDER) == 1);
+        awaitUntil(() -> committedOffset(TopicConfig.TOPIC_CREATE_ORDER) == 4);
+        assertEquals(3.0, count("notification.events.processed", TopicConfig.TOPIC_CREATE_ORDER));
+        assertTrue(meterRegistry.get("notification.batch.size").tag("topic", TopicConfig.TOPIC_CREATE_ORDER)
+                .summary().count() >= 1);
+        kafkaTemplate.destroy();
+    }
+
+    @Test
+    void When_StatusChangedBatch_Expect_EveryEventProcessedAndOffsetsCommitted() throws Exception {
+        // TODO: Arrange
+        KafkaTemplate<String, String> kafkaTemplate = kafkaTemplate();
+
+        // TODO: Act
+        for (long orderId = 1; orderId <= 5; orderId++) {
+            kafkaTemplate.send(TopicConfig.TOPIC_ORDER_STATUS_CHANGED, String.valueOf(orderId),
+                    "{\"orderId\":" + orderId + ",\"userId\":100,\"from\":\"PENDING\",\"to\":\"CONFIRMED\"}");
+        }
+        kafkaTemplate.flush();
+
+        // TODO: Assert
+        awaitUntil(() -> committedOffset(TopicConfig.TOPIC_ORDER_STATUS_CHANGED) == 5);
+        assertEquals(5.0, count("notification.events.processed", TopicConfig.TOPIC_ORDER_STATUS_CHANGED));
+        assertEquals(0.0, count("notification.events.failed", TopicConfig.TOPIC_ORDER_STATUS_CHANGED));
+        kafkaTemplate.destroy();
+    }
+
+    private KafkaTemplate<String, String> kafkaTemplate() {
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 50)));
+    }
+
+    private double count(String name, String topic) {
+        return meterRegistry.get(name).tag("topic", topic).counter().count();
+    }
+
+    private long committedOffset(String topic) {
+        try (AdminClient admin = AdminClient.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, brokers))) {
+            return admin.listConsumerGroupOffsets(groupId).partitionsToOffsetAndMetadata().get().entrySet().stream()
+                    .filter(entry -> entry.getKey().topic().equals(topic))
+                    .mapToLong(entry -> entry.getValue() != null ? entry.getValue().offset() : 0)
+                    .sum();
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within " + TIMEOUT);
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.microservice.order_service.analytics;
+
+import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OutboxRelay;
+import com.example.microservice.order_service.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory read model of orders, built from order events instead of scanning {@code orders}: overall
+ * totals, order count per {@link Order.OrderStatus}, totals per user and per UTC day. Every query is a
+ * map lookup, independent of the number of orders.
+ * <p>
+ * The outbox delivers at least once and a re-published row gets a new offset, so besides offsets duplicates
+ * are detected by the outbox row id the relay sends as the {@link OutboxRelay#EVENT_ID_HEADER} header. A row is
+ * re-published within a few relay batches of the first send, so only the last {@code dedupWindow} ids are kept,
+ * in memory and in the snapshot, however many orders there are.
+ * Days are the UTC day of the record timestamp, which the outbox relay sets to the time the event was
+ * enqueued in the order's transaction.
+ * <p>
+ * The state is written to {@code snapshotPath} together with the last applied offsets and reloaded on
+ * startup; {@link OrderAnalyticsListener} then resumes right after the snapshot.
+ */
+@Component
+@Slf4j
+public class OrderAnalytics {
+
+    private static final int MAX_DAYS = 366;
+
+    private final ObjectMapper objectMapper;
+    private final Path snapshotPath;
+    private final int dedupWindow;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // guarded by lock
+    private final Map<String, Long> appliedOffsets = new HashMap<>();
+    private OrderTotals totals = OrderTotals.ZERO;
+    private final Map<Order.OrderStatus, Long> ordersByStatus = new EnumMap<>(Order.OrderStatus.class);
+    private final Map<Long, OrderTotals> users = new HashMap<>();
+    private final Map<LocalDate, OrderTotals> days = new HashMap<>();
+    // oldest first
+    private final LinkedHashSet<Long> recentEvents = new LinkedHashSet<>();
+    private boolean dirty;
+
+    public OrderAnalytics(ObjectMapper objectMapper,
+                          @Value("${order-analytics.snapshot-path:data/order-analytics.json}") Path snapshotPath,
+                          @Value("${order-analytics.dedup-window:10000}") int dedupWindow) {
+        this.objectMapper = objectMapper;
+        this.snapshotPath = snapshotPath;
+        this.dedupWindow = dedupWindow;
+    }
+
+    /**
+     * @param eventId outbox row id, {@code null} for records published without one
+     * @return {@code false} if the event at this position or with this id was already applied
+     */
+    public boolean applyPlaced(String topicPartition, long offset, Long eventId, OrderPlacedEvent event, Instant placedAt) {
+        lock.writeLock().lock();
+        try {
+            if (!advance(topicPartition, offset) || !firstSeen(eventId)) {
+                return false;
+            }
+            double total = event.getTotal() != null ? event.getTotal() : 0.0;
+            totals = totals.plus(total);
+            ordersByStatus.merge(Order.OrderStatus.PENDING, 1L, Long::sum);
+            if (event.getUserId() != null) {
+                users.merge(event.getUserId(), OrderTotals.ZERO.plus(total), (a, b) -> a.plus(total));
+            }
+            days.merge(LocalDate.ofInstant(placedAt, ZoneOffset.UTC), OrderTotals.ZERO.plus(total), (a, b) -> a.plus(total));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves one order between status counts. Revenue is not adjusted: it sums every placed order.
+     *
+     * @param eventId outbox row id, {@code null} for records published without one
+     * @return {@code false} if the event at this position or with this id was already applied
+     */
+    public boolean applyStatusChange(String topicPartition, long offset, Long eventId,
+                                     Order.OrderStatus from, Order.OrderStatus to) {
+        lock.writeLock().lock();
+        try {
+            if (!advance(topicPartition, offset) || !firstSeen(eventId)) {
+                return false;
+            }
+            if (from != null) {
+                ordersByStatus.merge(from, -1L, Long::sum);
+            }
+            ordersByStatus.merge(to, 1L, Long::sum);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean advance(String topicPartition, long offset) {
+        Long applied = appliedOffsets.get(topicPartition);
+        if (applied != null && offset <= applied) {
+            return false;
+        }
+        appliedOffsets.put(topicPartition, offset);
+        dirty = true;
+        return true;
+    }
+
+    private boolean firstSeen(Long eventId) {
+        if (eventId == null) {
+            return true;
+        }
+        if (!recentEvents.add(eventId)) {
+            return false;
+        }
+        if (recentEvents.size() > dedupWindow) {
+            Iterator<Long> oldest = recentEvents.iterator();
+            oldest.next();
+            oldest.remove();
+        }
+        return true;
+    }
+
+    int trackedEvents() {
+        lock.readLock().lock();
+        try {
+            return recentEvents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Long> appliedOffsets() {
+        lock.readLock().lock();
+        try {
+            return Map.copyOf(appliedOffsets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public OrderAnalyticsSummary summary() {
+        lock.readLock().lock();
+        try {
+            Map<Order.OrderStatus, Long> byStatus = new EnumMap<>(Order.OrderStatus.class);
+            for (Order.OrderStatus status : Order.OrderStatus.values()) {
+                byStatus.put(status, ordersByStatus.getOrDefault(status, 0L));
+            }
+            return new OrderAnalyticsSummary(totals.orders(), totals.revenue(), byStatus);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public OrderTotals user(Long userId) {
+        lock.readLock().lock();
+        try {
+            return users.getOrDefault(userId, OrderTotals.ZERO);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Days without orders are left out
+    public Map<LocalDate, OrderTotals> daily(LocalDate from, LocalDate to) {
+        if (to.isBefore(from) || from.plusDays(MAX_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Day range must be ordered and at most " + MAX_DAYS + " days");
+        }
+        lock.readLock().lock();
+        try {
+            Map<LocalDate, OrderTotals> result = new TreeMap<>();
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                OrderTotals dayTotals = days.get(day);
+                if (dayTotals != null) {
+                    result.put(day, dayTotals);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order-analytics.snapshot-interval:30s}")
+    @PreDestroy
+    public void snapshot() {
+        OrderAnalyticsSnapshot snapshot;
+        lock.writeLock().lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            snapshot = new OrderAnalyticsSnapshot(Map.copyOf(appliedOffsets), totals, new EnumMap<>(ordersByStatus),
+                    Map.copyOf(users), Map.copyOf(days), List.copyOf(recentEvents));
+            dirty = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, snapshotPath.getFileName().toString(), ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            log.warn("Cannot write order analytics snapshot to {}: {}", snapshotPath, ex.getMessage());
+            lock.writeLock().lock();
+            dirty = true;
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try {
+            OrderAnalyticsSnapshot snapshot = objectMapper.readValue(snapshotPath.toFile(), OrderAnalyticsSnapshot.class);
+            lock.writeLock().lock();
+            try {
+                appliedOffsets.putAll(snapshot.offsets());
+                totals = snapshot.totals();
+                ordersByStatus.putAll(snapshot.ordersByStatus());
+                users.putAll(snapshot.users());
+                days.putAll(snapshot.days());
+                // absent from snapshots of earlier releases, whose events are then only deduplicated by offset
+                if (snapshot.recentEvents() != null) {
+                    snapshot.recentEvents().forEach(this::firstSeen);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Restored order analytics at offsets {} from {}", snapshot.offsets(), snapshotPath);
+        } catch (IOException ex) {
+            // rebuilt from the start of the topics instead
+            log.warn("Cannot read order analytics snapshot {}, rebuilding: {}", snapshotPath, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.microservice.order_service.analytics;
+
+import com.example.microservice.order_service.config.TopicConfig;
+import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OrderStatusChangedEvent;
+import com.example.microservice.order_service.event.OutboxRelay;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds {@link OrderAnalytics} from the order topics. Each instance uses its own consumer group, so every
+ * replica reads all partitions and keeps a complete read model, and on assignment it seeks to the position
+ * of the restored snapshot (or the beginning) rather than to committed offsets.
+ */
+@Component
+@Slf4j
+public class OrderAnalyticsListener implements ConsumerSeekAware {
+
+    private final OrderAnalytics orderAnalytics;
+
+    public OrderAnalyticsListener(OrderAnalytics orderAnalytics) {
+        this.orderAnalytics = orderAnalytics;
+    }
+
+    @KafkaListener(topics = {TopicConfig.TOPIC_CREATE_ORDER, TopicConfig.TOPIC_ORDER_STATUS_CHANGED},
+            groupId = "${order-analytics.group-id}",
+            containerFactory = "orderAnalyticsListenerFactory",
+            autoStartup = "${order-analytics.enabled:true}")
+    public void onOrderEvents(List<ConsumerRecord<String, Object>> records) {
+        int applied = 0;
+        for (ConsumerRecord<String, Object> record : records) {
+            String topicPartition = topicPartition(record.topic(), record.partition());
+            boolean changed = switch (record.value()) {
+                case OrderPlacedEvent placed ->
+                        orderAnalytics.applyPlaced(topicPartition, record.offset(), eventId(record), placed,
+                                Instant.ofEpochMilli(record.timestamp()));
+                case OrderStatusChangedEvent statusChanged ->
+                        orderAnalytics.applyStatusChange(topicPartition, record.offset(), eventId(record),
+                                statusChanged.getFrom(), statusChanged.getTo());
+                case null, default -> false;
+            };
+            if (changed) {
+                applied++;
+            }
+        }
+        log.debug("Applied {} of {} order events to analytics", applied, records.size());
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Map<String, Long> appliedOffsets = orderAnalytics.appliedOffsets();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long applied = appliedOffsets.get(topicPartition(partition.topic(), partition.partition()));
+            if (applied != null) {
+                callback.seek(partition.topic(), partition.partition(), applied + 1);
+            } else {
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            }
+        }
+    }
+
+    // Records published before the relay sent ids have none
+    static Long eventId(ConsumerRecord<String, Object> record) {
+        Header header = record.headers().lastHeader(OutboxRelay.EVENT_ID_HEADER);
+        return header != null ? Long.valueOf(new String(header.value(), StandardCharsets.UTF_8)) : null;
+    }
+
+    static String topicPartition(String topic, int partition) {
+        return topic + "-" + partition;
+    }
+}
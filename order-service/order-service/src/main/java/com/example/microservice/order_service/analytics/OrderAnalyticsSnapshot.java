@@ -0,0 +1,20 @@
+package com.example.microservice.order_service.analytics;
+
+import com.example.microservice.order_service.model.Order;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk form of {@link OrderAnalytics}. {@code offsets} is the last applied offset per
+ * {@code topic-partition}, so the state and the position it corresponds to are always saved together;
+ * {@code recentEvents} are the outbox ids duplicates are detected against, oldest first.
+ */
+record OrderAnalyticsSnapshot(Map<String, Long> offsets,
+                              OrderTotals totals,
+                              Map<Order.OrderStatus, Long> ordersByStatus,
+                              Map<Long, OrderTotals> users,
+                              Map<LocalDate, OrderTotals> days,
+                              List<Long> recentEvents) {
+}
@@ -0,0 +1,8 @@
+package com.example.microservice.order_service.analytics;
+
+import com.example.microservice.order_service.model.Order;
+
+import java.util.Map;
+
+public record OrderAnalyticsSummary(long orders, double revenue, Map<Order.OrderStatus, Long> ordersByStatus) {
+}
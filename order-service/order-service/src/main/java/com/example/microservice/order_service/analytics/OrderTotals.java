@@ -0,0 +1,13 @@
+package com.example.microservice.order_service.analytics;
+
+/**
+ * Number of placed orders and the sum of their totals.
+ */
+public record OrderTotals(long orders, double revenue) {
+
+    public static final OrderTotals ZERO = new OrderTotals(0, 0.0);
+
+    OrderTotals plus(double total) {
+        return new OrderTotals(orders + 1, revenue + total);
+    }
+}
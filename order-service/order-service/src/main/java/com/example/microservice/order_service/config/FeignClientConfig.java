@@ -0,0 +1,61 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.order_service.open_feign.HedgingFeignClient;
+import com.example.microservice.shared.hedging.HedgingPolicy;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import feign.Client;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Replaces OpenFeign's load-balanced client with one that hedges GETs once the load balancer has picked an instance
+@Configuration
+@ConditionalOnProperty(name = "user-client.hedging.enabled", havingValue = "true")
+public class FeignClientConfig {
+
+    @Bean
+    public Client feignClient(LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              List<LoadBalancerFeignRequestTransformer> transformers,
+                              ObjectProvider<org.apache.hc.client5.http.classic.HttpClient> httpClient5,
+                              ObjectProvider<java.net.http.HttpClient> http2Client,
+                              MeterRegistry meterRegistry,
+                              ObjectProvider<PeakEwmaStats> peakEwmaStats,
+                              @Value("${user-client.hedging.percentile:0.95}") double percentile,
+                              @Value("${user-client.hedging.min-delay:5ms}") Duration minDelay,
+                              @Value("${user-client.hedging.budget-ratio:0.1}") double budgetRatio) {
+        Map<String, HedgingPolicy> policies = new ConcurrentHashMap<>();
+        Client transport = transport(httpClient5.getIfAvailable(), http2Client.getIfAvailable());
+        Client hedging = new HedgingFeignClient(transport, loadBalancerClientFactory,
+                serviceId -> policies.computeIfAbsent(serviceId,
+                        id -> new HedgingPolicy(Tags.of("client", id), meterRegistry, percentile, minDelay, budgetRatio)),
+                peakEwmaStats.getIfAvailable());
+        return new FeignBlockingLoadBalancerClient(hedging, loadBalancerClient, loadBalancerClientFactory, transformers);
+    }
+
+    // the transport OpenFeign would have used without hedging, in the same order of preference
+    private static Client transport(org.apache.hc.client5.http.classic.HttpClient httpClient5, java.net.http.HttpClient http2Client) {
+        if (httpClient5 != null) {
+            return new ApacheHttp5Client(httpClient5);
+        }
+        if (http2Client != null) {
+            return new Http2Client(http2Client);
+        }
+        return new Client.Default(null, null);
+    }
+}
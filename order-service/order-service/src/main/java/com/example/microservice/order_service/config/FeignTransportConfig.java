@@ -0,0 +1,64 @@
+package com.example.microservice.order_service.config;
+
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.EndpointDetails;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration.HttpClientBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Adds idle eviction and Micrometer metrics to the pooled Apache HttpClient 5 that Spring Cloud OpenFeign
+// builds from spring.cloud.openfeign.httpclient.*
+@Configuration
+@ConditionalOnClass(ApacheHttp5Client.class)
+@ConditionalOnProperty(name = "spring.cloud.openfeign.httpclient.hc5.enabled", havingValue = "true", matchIfMissing = true)
+public class FeignTransportConfig {
+
+    static final String POOL_NAME = "feign";
+
+    @Bean
+    public HttpClientBuilderCustomizer feignConnectionPoolCustomizer(MeterRegistry meterRegistry,
+                                                                     @Value("${feign-connection-pool.max-idle-time:30s}") Duration maxIdleTime) {
+        Counter opened = requests(meterRegistry, "new");
+        Counter reused = requests(meterRegistry, "reused");
+        return builder -> builder
+                // close idle connections before user-service's keep-alive timeout does, so a request never picks a half-closed one
+                .evictIdleConnections(TimeValue.of(maxIdleTime))
+                .addResponseInterceptorLast((response, entity, context) -> {
+                    EndpointDetails endpoint = HttpClientContext.castOrCreate(context).getEndpointDetails();
+                    if (endpoint != null) {
+                        (endpoint.getRequestCount() > 1 ? reused : opened).increment();
+                    }
+                });
+    }
+
+    // httpcomponents.httpclient.pool.* gauges: leased, available and pending connections, and the limits
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(HttpClientConnectionManager connectionManager) {
+        return registry -> {
+            if (connectionManager instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, POOL_NAME).bindTo(registry);
+            }
+        };
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String connection) {
+        return Counter.builder("feign.client.requests")
+                .description("Feign requests by whether they opened a new connection or reused a pooled one")
+                .tag("httpclient", POOL_NAME)
+                .tag("connection", connection)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OrderStatusChangedEvent;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String BOOTSTRAP_SERVERS;
+
+    @Value("${order-analytics.consumer.max-poll-records:500}")
+    private int MAX_POLL_RECORDS;
+
+    private static final Map<String, JavaType> ANALYTICS_EVENT_TYPES = Map.of(
+            TopicConfig.TOPIC_CREATE_ORDER, TypeFactory.defaultInstance().constructType(OrderPlacedEvent.class),
+            TopicConfig.TOPIC_ORDER_STATUS_CHANGED, TypeFactory.defaultInstance().constructType(OrderStatusChangedEvent.class));
+
+    // Offsets come from the analytics snapshot, so the group's committed offsets are never used
+    @Bean
+    public ConsumerFactory<String, Object> orderAnalyticsConsumerFactory(MeterRegistry meterRegistry) {
+        Map<String, Object> props = new HashMap<>();
+
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, MAX_POLL_RECORDS);
+
+        // the relay sends plain JSON without type headers, so the payload type follows from the topic
+        JsonDeserializer<Object> valueDeserializer = new JsonDeserializer<>()
+                .typeResolver((topic, data, headers) -> ANALYTICS_EVENT_TYPES.get(topic));
+        DefaultKafkaConsumerFactory<String, Object> consumerFactory = new DefaultKafkaConsumerFactory<>(props,
+                new StringDeserializer(), valueDeserializer);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
+    }
+
+    // One thread applies every partition of both topics, in order, to the single in-memory read model
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> orderAnalyticsListenerFactory(
+            ConsumerFactory<String, Object> orderAnalyticsConsumerFactory) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(orderAnalyticsConsumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(1);
+        return factory;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.shared.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// Feign clients pick user-service instances with PeakEwmaLoadBalancer instead of round robin
+@Configuration
+@ConditionalOnProperty(name = "load-balancer.peak-ewma.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+    @Bean
+    public PeakEwmaStats peakEwmaStats(@Value("${load-balancer.peak-ewma.decay-time:10s}") Duration decayTime,
+                                       @Value("${load-balancer.peak-ewma.failure-penalty:1s}") Duration failurePenalty) {
+        return new PeakEwmaStats(decayTime, failurePenalty);
+    }
+}
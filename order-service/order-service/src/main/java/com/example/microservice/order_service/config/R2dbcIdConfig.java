@@ -0,0 +1,67 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.order_service.model.Order;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+// Order ids come from a pooled sequence rather than an IDENTITY column, so orders inserted through R2DBC
+// take their ids from the same sequence as Hibernate does
+@Configuration
+@Profile("reactive")
+public class R2dbcIdConfig {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Bean
+    public BeforeConvertCallback<Order> orderIdCallback(DatabaseClient databaseClient) {
+        PooledSequence sequence = new PooledSequence(databaseClient, Order.ID_SEQUENCE, ALLOCATION_SIZE);
+        return (order, table) -> order.getId() != null
+                ? Mono.just(order)
+                : sequence.next().map(id -> {
+                    order.setId(id);
+                    return order;
+                });
+    }
+
+    /**
+     * Hands out ids the way Hibernate's pooled optimizer does: a sequence value {@code v} reserves
+     * {@code (v - allocationSize, v]}, floored at 1. Every value owns a disjoint range, so this can share
+     * a sequence with Hibernate. When two fetches race, the range of one of them is abandoned, never reused.
+     */
+    static class PooledSequence {
+
+        private final DatabaseClient databaseClient;
+        private final String sequence;
+        private final int allocationSize;
+        private long next = 1;
+        private long hi = 0;
+
+        PooledSequence(DatabaseClient databaseClient, String sequence, int allocationSize) {
+            this.databaseClient = databaseClient;
+            this.sequence = sequence;
+            this.allocationSize = allocationSize;
+        }
+
+        Mono<Long> next() {
+            synchronized (this) {
+                if (next <= hi) {
+                    return Mono.just(next++);
+                }
+            }
+            return databaseClient.sql("SELECT NEXT VALUE FOR " + sequence)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(value -> {
+                        synchronized (this) {
+                            hi = value;
+                            next = Math.max(1, value - allocationSize + 1);
+                            return next++;
+                        }
+                    });
+        }
+    }
+}
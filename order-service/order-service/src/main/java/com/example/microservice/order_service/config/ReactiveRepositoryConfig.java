@@ -0,0 +1,17 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.order_service.repository.OrderRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+// R2DBC repositories exist only where R2DBC is auto-configured, i.e. in the reactive profile
+@Configuration
+@Profile("reactive")
+@EnableR2dbcRepositories(basePackageClasses = OrderRepository.class,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class ReactiveRepositoryConfig {
+}
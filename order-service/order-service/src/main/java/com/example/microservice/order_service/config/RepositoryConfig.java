@@ -0,0 +1,16 @@
+package com.example.microservice.order_service.config;
+
+import com.example.microservice.order_service.repository.OrderRepository;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+// Order is both a JPA entity and an R2DBC row, so split the repositories by interface type;
+// the R2DBC ones are enabled by ReactiveRepositoryConfig in the reactive profile only
+@Configuration
+@EnableJpaRepositories(basePackageClasses = OrderRepository.class,
+        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ReactiveCrudRepository.class))
+public class RepositoryConfig {
+}
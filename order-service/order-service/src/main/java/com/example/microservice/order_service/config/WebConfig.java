@@ -0,0 +1,18 @@
+package com.example.microservice.order_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// Buffers each JSON response to add ETag and Content-Length, which the api-gateway needs to cache it.
+// WebFlux (reactive profile) already sets Content-Length on single-value bodies
+@Configuration
+@Profile("!reactive")
+public class WebConfig {
+
+    @Bean
+    public ShallowEtagHeaderFilter shallowEtagHeaderFilter() {
+        return new ShallowEtagHeaderFilter();
+    }
+}
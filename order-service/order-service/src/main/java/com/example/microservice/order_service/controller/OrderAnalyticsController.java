@@ -0,0 +1,47 @@
+package com.example.microservice.order_service.controller;
+
+import com.example.microservice.order_service.analytics.OrderAnalytics;
+import com.example.microservice.order_service.analytics.OrderAnalyticsSummary;
+import com.example.microservice.order_service.analytics.OrderTotals;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+// Served from the OrderAnalytics read model; numbers trail the orders table by the Kafka consumer lag
+@RestController
+@RequestMapping("/api/orders/analytics")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class OrderAnalyticsController {
+    OrderAnalytics orderAnalytics;
+
+    // Order count, revenue and count per status over all orders
+    @GetMapping("/summary")
+    public ResponseEntity<OrderAnalyticsSummary> getSummary() {
+        return ResponseEntity.ok(orderAnalytics.summary());
+    }
+
+    // Order count and revenue of one user
+    @GetMapping("/users/{userId}")
+    public ResponseEntity<OrderTotals> getUserTotals(@PathVariable Long userId) {
+        return ResponseEntity.ok(orderAnalytics.user(userId));
+    }
+
+    // Order count and revenue per UTC day, both ends inclusive
+    @GetMapping("/daily")
+    public ResponseEntity<Map<LocalDate, OrderTotals>> getDailyTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(orderAnalytics.daily(from, to));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -5,20 +5,39 @@ import com.example.microservice.order_service.model.OrderResponse;
 import com.example.microservice.order_service.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.AccessLevel;
-import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
-@RequiredArgsConstructor
+@Profile("!reactive")
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class OrderController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String DEPRECATION_HEADER = "Deprecation";
+    private static final Set<String> SORTABLE = Set.of("id", "product", "price", "total", "status");
+
     OrderService orderService;
+    int maxBulkSize;
+
+    public OrderController(OrderService orderService, @Value("${order-bulk.max-size:5000}") int maxBulkSize) {
+        this.orderService = orderService;
+        this.maxBulkSize = maxBulkSize;
+    }
 
     // Create Order
     @PostMapping
@@ -27,6 +46,15 @@ public class OrderController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    // Create Orders in bulk: every user must exist, otherwise nothing is created
+    @PostMapping("/bulk")
+    public ResponseEntity<List<OrderResponse>> createOrders(@Valid @RequestBody List<Order> orders) {
+        if (orders.isEmpty() || orders.size() > maxBulkSize || orders.stream().anyMatch(order -> order.getUserId() == null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return new ResponseEntity<>(orderService.createOrders(orders), HttpStatus.CREATED);
+    }
+
     // Get Order by ID with User Details
     @GetMapping("/{id}")
     public ResponseEntity<OrderResponse> getOrderById(@PathVariable Long id) {
@@ -34,10 +62,60 @@ public class OrderController {
         return ResponseEntity.ok(orderResponse);
     }
 
+    // Get Orders of a User by keyset pagination, DEFAULT_PAGE_SIZE at a time unless size is given: while a page is
+    // full, X-Next-Cursor holds the afterId of the next one.
+    // Passing page or sort (e.g. sort=total,desc) switches to offset pagination and adds X-Total-Count.
+    // all=true returns every order after afterId in one response, for callers that do not page yet. Deprecated, as the
+    // response grows with the user's order history; it is answered with a Deprecation header
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable Long userId) {
-        List<OrderResponse> orders = orderService.getOrdersByUserId(userId);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<OrderResponse>> getOrdersByUserId(@PathVariable Long userId,
+                                                                 @RequestParam(defaultValue = "0") Long afterId,
+                                                                 @RequestParam(required = false) Integer page,
+                                                                 @RequestParam(required = false) Integer size,
+                                                                 @RequestParam(defaultValue = "false") boolean all,
+                                                                 Sort sort) {
+        if (all) {
+            if (page != null || size != null || sort.isSorted()) {
+                return ResponseEntity.badRequest().build();
+            }
+            return ResponseEntity.ok()
+                    .header(DEPRECATION_HEADER, "true")
+                    .body(getAllOrdersByUserIdAfter(userId, afterId));
+        }
+        int pageSize = Math.clamp(size != null ? size : DEFAULT_PAGE_SIZE, 1, MAX_PAGE_SIZE);
+        if (page == null && sort.isUnsorted()) {
+            List<OrderResponse> orders = orderService.getOrdersByUserIdAfter(userId, afterId, pageSize);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (orders.size() == pageSize) {
+                response.header(NEXT_CURSOR_HEADER, String.valueOf(orders.get(orders.size() - 1).getOrderId()));
+            }
+            return response.body(orders);
+        }
+        if (page != null && page < 0 || sort.stream().anyMatch(order -> !SORTABLE.contains(order.getProperty()))) {
+            return ResponseEntity.badRequest().build();
+        }
+        // id breaks ties so rows with equal sort keys do not move between pages
+        Sort stableSort = sort.getOrderFor("id") != null ? sort : sort.and(Sort.by("id"));
+        Page<OrderResponse> orders = orderService.getOrdersByUserId(userId,
+                PageRequest.of(page != null ? page : 0, pageSize, stableSort));
+        return ResponseEntity.ok()
+                .header(TOTAL_COUNT_HEADER, String.valueOf(orders.getTotalElements()))
+                .body(orders.getContent());
+    }
+
+    // all=true: reads keyset pages of MAX_PAGE_SIZE until a short one
+    private List<OrderResponse> getAllOrdersByUserIdAfter(Long userId, Long afterId) {
+        List<OrderResponse> orders = new ArrayList<>();
+        List<OrderResponse> page;
+        Long cursor = afterId;
+        do {
+            page = orderService.getOrdersByUserIdAfter(userId, cursor, MAX_PAGE_SIZE);
+            orders.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getOrderId();
+            }
+        } while (page.size() == MAX_PAGE_SIZE);
+        return orders;
     }
 
     // Update Order Status
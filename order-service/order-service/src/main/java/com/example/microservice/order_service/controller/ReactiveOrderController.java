@@ -0,0 +1,95 @@
+package com.example.microservice.order_service.controller;
+
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import com.example.microservice.order_service.service.ReactiveOrderService;
+import jakarta.validation.Valid;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// WebFlux variant of OrderController, active with the reactive profile
+@RestController
+@RequestMapping("/api/orders")
+@Profile("reactive")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class ReactiveOrderController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEPRECATION_HEADER = "Deprecation";
+
+    ReactiveOrderService orderService;
+
+    // Create Order
+    @PostMapping
+    public Mono<ResponseEntity<OrderResponse>> createOrder(@Valid @RequestBody Order order) {
+        return orderService.createOrder(order)
+                .map(response -> new ResponseEntity<>(response, HttpStatus.CREATED));
+    }
+
+    // Get Order by ID with User Details
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<OrderResponse>> getOrderById(@PathVariable Long id) {
+        return orderService.getOrderById(id).map(ResponseEntity::ok);
+    }
+
+    // Get Orders of a User by keyset pagination, DEFAULT_PAGE_SIZE at a time unless size is given: while a page is
+    // full, X-Next-Cursor holds the afterId of the next one.
+    // all=true is the deprecated unpaged form, as in OrderController
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<List<OrderResponse>>> getOrdersByUserId(@PathVariable Long userId,
+                                                                       @RequestParam(defaultValue = "0") Long afterId,
+                                                                       @RequestParam(required = false) Integer size,
+                                                                       @RequestParam(defaultValue = "false") boolean all) {
+        if (all) {
+            if (size != null) {
+                return Mono.just(ResponseEntity.badRequest().build());
+            }
+            // keyset pages of MAX_PAGE_SIZE until a short one
+            return page(userId, afterId)
+                    .expand(orders -> orders.size() == MAX_PAGE_SIZE
+                            ? page(userId, orders.get(orders.size() - 1).getOrderId())
+                            : Mono.empty())
+                    .flatMapIterable(orders -> orders)
+                    .collectList()
+                    .map(orders -> ResponseEntity.ok().header(DEPRECATION_HEADER, "true").body(orders));
+        }
+        int pageSize = Math.clamp(size != null ? size : DEFAULT_PAGE_SIZE, 1, MAX_PAGE_SIZE);
+        return orderService.getOrdersByUserIdAfter(userId, afterId, pageSize)
+                .collectList()
+                .map(orders -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+                    if (orders.size() == pageSize) {
+                        response.header(NEXT_CURSOR_HEADER, String.valueOf(orders.get(orders.size() - 1).getOrderId()));
+                    }
+                    return response.body(orders);
+                });
+    }
+
+    private Mono<List<OrderResponse>> page(Long userId, Long afterId) {
+        return orderService.getOrdersByUserIdAfter(userId, afterId, MAX_PAGE_SIZE).collectList();
+    }
+
+    // Update Order Status
+    @PatchMapping("/{id}/status")
+    public Mono<ResponseEntity<OrderResponse>> updateOrderStatus(
+            @PathVariable Long id,
+            @RequestParam Order.OrderStatus status) {
+        return orderService.updateOrderStatus(id, status).map(ResponseEntity::ok);
+    }
+
+    // Delete Order
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteOrder(@PathVariable Long id) {
+        return orderService.deleteOrder(id).then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
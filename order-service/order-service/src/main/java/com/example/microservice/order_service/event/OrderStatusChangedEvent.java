@@ -0,0 +1,19 @@
+package com.example.microservice.order_service.event;
+
+import com.example.microservice.order_service.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Published keyed by order id, so the transitions of one order stay ordered within their partition
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusChangedEvent {
+    private Long orderId;
+    private Long userId;
+    private Order.OrderStatus from;
+    private Order.OrderStatus to;
+}
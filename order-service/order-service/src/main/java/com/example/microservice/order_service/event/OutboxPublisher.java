@@ -0,0 +1,65 @@
+package com.example.microservice.order_service.event;
+
+import com.example.microservice.order_service.model.OutboxEvent;
+import com.example.microservice.order_service.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records an event in the outbox table as part of the caller's transaction; {@link OutboxRelay}
+ * publishes it to Kafka after commit.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    OutboxEventRepository outboxEventRepository;
+    JdbcTemplate jdbcTemplate;
+    ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, String key, Object event) {
+        outboxEventRepository.save(toOutboxEvent(topic, key, event, LocalDateTime.now()));
+    }
+
+    // One row per entry, in iteration order. Hibernate does not batch inserts into the IDENTITY id column,
+    // so they are sent as one JDBC batch on the transaction's connection instead
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(String topic, Map<String, ?> eventsByKey) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(eventsByKey.size());
+        eventsByKey.forEach((key, event) -> rows.add(new Object[]{topic, key, serialize(event), now}));
+        jdbcTemplate.batchUpdate("INSERT INTO order_outbox (topic, message_key, payload, created_at) VALUES (?, ?, ?, ?)", rows);
+    }
+
+    private OutboxEvent toOutboxEvent(String topic, String key, Object event, LocalDateTime createdAt) {
+        return OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(key)
+                .payload(serialize(event))
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize event " + event, ex);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.microservice.order_service.event;
+
+import com.example.microservice.order_service.model.OutboxEvent;
+import com.example.microservice.order_service.model.OutboxRelayLease;
+import com.example.microservice.order_service.repository.OutboxEventRepository;
+import com.example.microservice.order_service.repository.OutboxRelayLeaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the outbox table to Kafka in id order. A row is deleted only once the broker acknowledged
+ * it and every row before it, so delivery is at-least-once: a crash between send and delete, or a failed
+ * earlier row, re-publishes the row.
+ * <p>
+ * Every replica runs a relay, but each batch is read, published and deleted in one transaction that first
+ * locks the {@link OutboxRelayLease} row with {@code SKIP LOCKED}. While one relay holds it the others skip
+ * their tick, so no row is published twice by concurrent relays and rows still go out in id order.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    static final String LEASE = "outbox-relay";
+    // outbox row id as a decimal string; the same on every re-publish of the row, so consumers can drop duplicates
+    public static final String EVENT_ID_HEADER = "outbox-id";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxRelayLeaseRepository leaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxRelayLeaseRepository leaseRepository,
+                       PlatformTransactionManager transactionManager,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.send-timeout:10s}") Duration sendTimeout) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.leaseRepository = leaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.kafkaTemplate = kafkaTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+        this.published = Counter.builder("outbox.relay.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failed = Counter.builder("outbox.relay.failed")
+                .description("Outbox events that failed to publish and will be retried")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void createLease() {
+        if (leaseRepository.existsById(LEASE)) {
+            return;
+        }
+        try {
+            leaseRepository.saveAndFlush(new OutboxRelayLease(LEASE));
+        } catch (DataIntegrityViolationException ex) {
+            // another replica created it first
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval:200ms}")
+    public void relay() {
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> relayBatch()))) {
+            // a full batch was published, more rows may be waiting
+        }
+    }
+
+    // Returns true when a full batch was published; false when another relay holds the lease,
+    // the outbox is drained or part of the batch failed
+    private boolean relayBatch() {
+        if (leaseRepository.tryLock(LEASE).isEmpty()) {
+            return false;
+        }
+        List<OutboxEvent> batch = outboxEventRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+        return !batch.isEmpty() && publish(batch) && batch.size() == batchSize;
+    }
+
+    // Returns false when part of the batch failed. Only the rows before the first failure are deleted: the failed
+    // row and every later one wait for the next tick, so no event overtakes an earlier one with the same key
+    private boolean publish(List<OutboxEvent> batch) {
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            ProducerRecord<String, String> record = new ProducerRecord<>(event.getTopic(), null, timestamp(event),
+                    event.getMessageKey(), event.getPayload());
+            record.headers().add(EVENT_ID_HEADER, String.valueOf(event.getId()).getBytes(StandardCharsets.UTF_8));
+            futures.add(kafkaTemplate.send(record));
+        }
+        kafkaTemplate.flush();
+
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                sentIds.add(batch.get(i).getId());
+            } catch (ExecutionException | TimeoutException ex) {
+                log.warn("Cannot publish outbox event {} to {}: {}", batch.get(i).getId(), batch.get(i).getTopic(), ex.getMessage());
+                break;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(sentIds);
+        }
+        published.increment(sentIds.size());
+        failed.increment(batch.size() - sentIds.size());
+        return sentIds.size() == batch.size();
+    }
+
+    // Stamped with the time the event was enqueued, in the order's transaction, rather than the relay's send time
+    private static Long timestamp(OutboxEvent event) {
+        return event.getCreatedAt() != null
+                ? event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : null;
+    }
+}
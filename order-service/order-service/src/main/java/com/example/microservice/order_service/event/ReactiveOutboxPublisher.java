@@ -0,0 +1,47 @@
+package com.example.microservice.order_service.event;
+
+import com.example.microservice.order_service.model.OutboxEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC counterpart of {@link OutboxPublisher}; subscribe to it inside the caller's reactive
+ * transaction so the outbox row commits together with the business change.
+ */
+@Component
+@Profile("reactive")
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@RequiredArgsConstructor
+public class ReactiveOutboxPublisher {
+
+    R2dbcEntityTemplate r2dbcEntityTemplate;
+    ObjectMapper objectMapper;
+
+    public Mono<Void> enqueue(String topic, String key, Object event) {
+        return Mono.fromCallable(() -> OutboxEvent.builder()
+                        .topic(topic)
+                        .messageKey(key)
+                        .payload(serialize(event))
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .flatMap(r2dbcEntityTemplate::insert)
+                .then();
+    }
+
+    private String serialize(Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize event " + event, ex);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.microservice.order_service.exception;
+
+import com.example.microservice.order_service.dto.UserDto;
+
+import java.util.Collection;
+import java.util.Map;
+
+// user-service failed or was not called, and some of the users were never seen before; carries the ones that were
+public class UserServiceUnavailableException extends RuntimeException {
+
+    private final transient Map<Long, UserDto> lastKnown;
+
+    public UserServiceUnavailableException(Collection<Long> unknownIds, Map<Long, UserDto> lastKnown, Throwable cause) {
+        super("User service unavailable and no last known copy of users " + unknownIds, cause);
+        this.lastKnown = Map.copyOf(lastKnown);
+    }
+
+    public Map<Long, UserDto> getLastKnown() {
+        return lastKnown;
+    }
+}
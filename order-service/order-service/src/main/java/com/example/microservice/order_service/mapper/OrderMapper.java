@@ -1,10 +1,17 @@
 package com.example.microservice.order_service.mapper;
 
+import com.example.microservice.order_service.dto.UserDto;
 import com.example.microservice.order_service.model.Order;
 import com.example.microservice.order_service.model.OrderResponse;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface OrderMapper {
+    @Mapping(target = "orderId", source = "id")
     OrderResponse toOrderResponse(Order order);
+
+    @Mapping(target = "orderId", source = "order.id")
+    @Mapping(target = "user", source = "user")
+    OrderResponse toOrderResponse(Order order, UserDto user);
 }
@@ -2,24 +2,36 @@ package com.example.microservice.order_service.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "orders")
+// (user_id, id) lets the per-user keyset query seek straight to afterId and read rows already in id order
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_id_id", columnList = "user_id, id"))
+// also mapped for ReactiveOrderRepository (reactive profile)
+@org.springframework.data.relational.core.mapping.Table("orders")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
+    public static final String ID_SEQUENCE = "orders_seq";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @org.springframework.data.annotation.Id
+    // pooled sequence instead of IDENTITY, so Hibernate can batch inserts; R2DBC inserts draw from it too
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = 50)
     private Long id;
     private Long userId;
     private String product;
     private Double price;
     @Enumerated(EnumType.STRING)
+    // plain VARCHAR instead of H2's native ENUM, which R2DBC cannot bind a String to
+    @JdbcTypeCode(SqlTypes.VARCHAR)
     @Builder.Default
     private OrderStatus status = OrderStatus.PENDING;
     private Double total;
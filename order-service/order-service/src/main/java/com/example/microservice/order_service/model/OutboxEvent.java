@@ -0,0 +1,30 @@
+package com.example.microservice.order_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_outbox")
+@org.springframework.data.relational.core.mapping.Table("order_outbox")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @org.springframework.data.annotation.Id
+    // IDENTITY rather than a pooled sequence: one counter shared by every replica, so a later change to the
+    // same order, which waits on the order's row lock, always gets a higher id and OutboxRelay keeps their order
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(nullable = false)
+    private String topic;
+    private String messageKey;
+    @Column(nullable = false, length = 4000)
+    private String payload;
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
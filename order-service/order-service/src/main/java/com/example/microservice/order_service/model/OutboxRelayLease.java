@@ -0,0 +1,21 @@
+package com.example.microservice.order_service.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row per relay name; the relay instance holding its row lock is the only one draining the outbox.
+ */
+@Entity
+@Table(name = "order_outbox_relay_lease")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxRelayLease {
+    @Id
+    private String name;
+}
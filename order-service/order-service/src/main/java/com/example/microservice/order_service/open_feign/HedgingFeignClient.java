@@ -0,0 +1,185 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.shared.hedging.HedgingPolicy;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerUriTools;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Hedges GET requests. It sits between {@code FeignBlockingLoadBalancerClient} and the HTTP client, so
+ * the request already points at the instance the load balancer chose. When that instance has not
+ * answered within the {@link HedgingPolicy} delay, the same request goes to another instance of the
+ * service and whichever answers first is returned; the other response is closed when it arrives.
+ * Other methods, and GETs before the policy has a delay, go straight to the delegate. Hedges do not pass
+ * through the load balancer, so they are counted in {@link PeakEwmaStats} here.
+ */
+@Slf4j
+public class HedgingFeignClient implements Client {
+
+    private final Client delegate;
+    private final LoadBalancerClientFactory loadBalancerClientFactory;
+    private final Function<String, HedgingPolicy> policies;
+    // null when the peak-EWMA load balancer is disabled
+    private final PeakEwmaStats peakEwmaStats;
+    // both attempts block on HTTP, so each runs on its own virtual thread
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("feign-hedge-", 0).factory());
+
+    public HedgingFeignClient(Client delegate, LoadBalancerClientFactory loadBalancerClientFactory,
+                              Function<String, HedgingPolicy> policies, PeakEwmaStats peakEwmaStats) {
+        this.delegate = delegate;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        this.policies = policies;
+        this.peakEwmaStats = peakEwmaStats;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        if (request.httpMethod() != Request.HttpMethod.GET || request.requestTemplate() == null) {
+            return delegate.execute(request, options);
+        }
+        String serviceId = request.requestTemplate().feignTarget().name();
+        HedgingPolicy policy = policies.apply(serviceId);
+        long delay = policy.begin();
+        long start = System.nanoTime();
+        if (delay < 0) {
+            Response response = delegate.execute(request, options);
+            policy.record(System.nanoTime() - start);
+            return response;
+        }
+
+        CompletableFuture<Response> primary = CompletableFuture.supplyAsync(() -> send(request, options), executor);
+        try {
+            Response response = primary.get(delay, TimeUnit.NANOSECONDS);
+            policy.record(System.nanoTime() - start);
+            return response;
+        } catch (TimeoutException ex) {
+            // fall through to the hedge
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            primary.thenAccept(HedgingFeignClient::close);
+            throw new InterruptedIOException("Interrupted while waiting for " + request.url());
+        }
+
+        URI chosen = URI.create(request.url());
+        Optional<ServiceInstance> alternative = alternative(serviceId, chosen);
+        if (alternative.isEmpty() || !policy.tryHedge()) {
+            return await(primary, policy, start);
+        }
+        Request hedgeRequest = Request.create(request.httpMethod(),
+                LoadBalancerUriTools.reconstructURI(alternative.get(), chosen).toString(), request.headers(),
+                request.body(), request.charset(), request.requestTemplate());
+        PeakEwmaStats.Attempt attempt = peakEwmaStats != null ? peakEwmaStats.start(alternative.get()) : null;
+        CompletableFuture<Response> hedge = CompletableFuture.supplyAsync(() -> send(hedgeRequest, options), executor);
+        if (attempt != null) {
+            hedge.whenComplete((response, ex) -> attempt.complete(ex != null || response.status() >= 500));
+        }
+        CompletableFuture<Response> first = firstAnswer(primary, hedge);
+        Response response = await(first, policy, start);
+        if (hedge.isDone() && !hedge.isCompletedExceptionally() && hedge.join() == response) {
+            policy.hedgeWon();
+        }
+        return response;
+    }
+
+    private Response send(Request request, Request.Options options) {
+        try {
+            return delegate.execute(request, options);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // another instance of the service than the one in the request, if there is one
+    private Optional<ServiceInstance> alternative(String serviceId, URI chosen) {
+        ServiceInstanceListSupplier supplier = loadBalancerClientFactory.getInstance(serviceId, ServiceInstanceListSupplier.class);
+        if (supplier == null) {
+            return Optional.empty();
+        }
+        List<ServiceInstance> instances = supplier.get().blockFirst();
+        if (instances == null) {
+            return Optional.empty();
+        }
+        List<ServiceInstance> others = instances.stream()
+                .filter(instance -> !(instance.getHost().equals(chosen.getHost()) && instance.getPort() == chosen.getPort()))
+                .toList();
+        if (others.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(others.get(ThreadLocalRandom.current().nextInt(others.size())));
+    }
+
+    // the first response of either attempt; fails only when both do
+    private static CompletableFuture<Response> firstAnswer(CompletableFuture<Response> primary, CompletableFuture<Response> hedge) {
+        CompletableFuture<Response> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<Response> attempt : List.of(primary, hedge)) {
+            attempt.whenComplete((response, ex) -> {
+                if (ex == null) {
+                    if (!first.complete(response)) {
+                        close(response);
+                    }
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(ex);
+                }
+            });
+        }
+        return first;
+    }
+
+    private static Response await(CompletableFuture<Response> answer, HedgingPolicy policy, long start) throws IOException {
+        try {
+            Response response = answer.get();
+            policy.record(System.nanoTime() - start);
+            return response;
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            answer.thenAccept(HedgingFeignClient::close);
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        }
+    }
+
+    private static IOException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof UncheckedIOException io) {
+            return io.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(cause);
+    }
+
+    private static void close(Response response) {
+        try {
+            response.close();
+        } catch (RuntimeException ex) {
+            log.debug("Closing the slower hedged response failed: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking replacement for {@link UserClient} used by the reactive profile. Calls go through
+ * the same Eureka/LoadBalancer service id as the Feign client.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveUserClient {
+
+    private final WebClient webClient;
+
+    public ReactiveUserClient(WebClient.Builder webClientBuilder,
+                              ReactorLoadBalancerExchangeFilterFunction loadBalancer) {
+        this.webClient = webClientBuilder
+                .baseUrl("http://user-service")
+                .filter(loadBalancer)
+                .build();
+    }
+
+    public Mono<UserDto> getUserById(Long id) {
+        return webClient.get()
+                .uri("/api/users/{id}", id)
+                .retrieve()
+                .bodyToMono(UserDto.class);
+    }
+
+    public Mono<UserDto> getUserByEmail(String email) {
+        return webClient.get()
+                .uri("/api/users/email/{email}", email)
+                .retrieve()
+                .bodyToMono(UserDto.class);
+    }
+
+    public Flux<UserDto> getUsersByIds(UserBatchRequest request) {
+        return webClient.post()
+                .uri("/api/users/batch")
+                .bodyValue(request)
+                .retrieve()
+                .bodyToFlux(UserDto.class);
+    }
+}
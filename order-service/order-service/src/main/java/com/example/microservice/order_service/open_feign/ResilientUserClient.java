@@ -0,0 +1,160 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The only way order-service calls {@link UserClient}. Each call takes a permit from a semaphore
+ * bulkhead, so a slow user-service ties up at most {@code max-concurrent-calls} threads, and passes a
+ * circuit breaker that fails fast while too many recent calls failed or were slow. Feign's connect and
+ * read timeouts bound each call.
+ * <p>
+ * Every user returned is kept as its last known copy. When a call is rejected or fails on the
+ * user-service side, those copies are served instead; ids never seen before fail with
+ * {@link UserServiceUnavailableException}. 4xx responses are the caller's problem and pass through
+ * without counting against the circuit.
+ */
+@Component
+@Slf4j
+public class ResilientUserClient {
+
+    static final String NAME = "user-service";
+
+    private final UserClient userClient;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Cache<Long, UserDto> lastKnown;
+    private final Counter staleServed;
+
+    @Autowired
+    public ResilientUserClient(UserClient userClient,
+                               MeterRegistry meterRegistry,
+                               @Value("${user-client.bulkhead.max-concurrent-calls:16}") int maxConcurrentCalls,
+                               @Value("${user-client.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                               @Value("${user-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                               @Value("${user-client.circuit-breaker.slow-call-duration-threshold:500ms}") Duration slowCallDuration,
+                               @Value("${user-client.circuit-breaker.wait-duration-in-open-state:5s}") Duration waitInOpenState,
+                               @Value("${user-client.stale-cache.time-to-live:1h}") Duration staleTimeToLive,
+                               @Value("${user-client.stale-cache.maximum-size:100000}") long staleMaximumSize) {
+        this(userClient, meterRegistry,
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(slidingWindowSize)
+                        .minimumNumberOfCalls(Math.min(20, slidingWindowSize))
+                        .failureRateThreshold(failureRateThreshold)
+                        .slowCallDurationThreshold(slowCallDuration)
+                        .slowCallRateThreshold(failureRateThreshold)
+                        .waitDurationInOpenState(waitInOpenState)
+                        .permittedNumberOfCallsInHalfOpenState(5)
+                        .ignoreExceptions(FeignException.FeignClientException.class)
+                        .build(),
+                BulkheadConfig.custom()
+                        .maxConcurrentCalls(maxConcurrentCalls)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build(),
+                Caffeine.newBuilder()
+                        .expireAfterWrite(staleTimeToLive)
+                        .maximumSize(staleMaximumSize)
+                        .recordStats()
+                        .build());
+    }
+
+    ResilientUserClient(UserClient userClient, MeterRegistry meterRegistry, CircuitBreakerConfig circuitBreakerConfig,
+                        BulkheadConfig bulkheadConfig, Cache<Long, UserDto> lastKnown) {
+        this.userClient = userClient;
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(bulkheadConfig);
+        this.circuitBreaker = circuitBreakers.circuitBreaker(NAME);
+        this.bulkhead = bulkheads.bulkhead(NAME);
+        this.lastKnown = lastKnown;
+
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker for {}: {}", NAME, event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, lastKnown, "lastKnownUsers");
+        this.staleServed = Counter.builder("user.client.stale.served")
+                .description("Users served from their last known copy because user-service failed or was not called")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves {@code ids}, one id through {@link UserClient#getUserById} and more through
+     * {@link UserClient#getUsersByIds}. Unknown ids are left out, including the 404 of a single id.
+     */
+    public Map<Long, UserDto> getUsers(List<Long> ids) {
+        Map<Long, UserDto> users;
+        try {
+            users = Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, () -> fetch(ids))).get();
+        } catch (FeignException.FeignClientException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            return fallback(ids, ex);
+        }
+        lastKnown.putAll(users);
+        return users;
+    }
+
+    public Optional<UserDto> getLastKnown(Long id) {
+        return Optional.ofNullable(lastKnown.getIfPresent(id));
+    }
+
+    // for users fetched without this client, such as by the reactive profile's WebClient
+    public void remember(Long id, UserDto user) {
+        lastKnown.put(id, user);
+    }
+
+    CircuitBreaker.State state() {
+        return circuitBreaker.getState();
+    }
+
+    private Map<Long, UserDto> fetch(List<Long> ids) {
+        if (ids.size() == 1) {
+            try {
+                UserDto user = userClient.getUserById(ids.get(0));
+                return user != null ? Map.of(ids.get(0), user) : Map.of();
+            } catch (FeignException.NotFound ex) {
+                return Map.of();
+            }
+        }
+        return userClient.getUsersByIds(new UserBatchRequest(new LinkedHashSet<>(ids))).stream()
+                .collect(Collectors.toMap(UserDto::getId, Function.identity(), (a, b) -> a));
+    }
+
+    private Map<Long, UserDto> fallback(List<Long> ids, RuntimeException ex) {
+        Map<Long, UserDto> stale = lastKnown.getAllPresent(ids);
+        staleServed.increment(stale.size());
+        if (stale.size() == ids.size()) {
+            log.warn("User lookup for {} ids failed, serving last known copies: {}", ids.size(), ex.toString());
+            return stale;
+        }
+        List<Long> unknown = ids.stream().filter(id -> !stale.containsKey(id)).toList();
+        throw new UserServiceUnavailableException(unknown, stale, ex);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request-coalescing front for {@link UserClient}. Concurrent lookups of the same id share one
+ * in-flight future, and distinct ids arriving within {@code window} are sent as one
+ * {@link UserClient#getUsersByIds} call. Calls go through {@link ResilientUserClient}.
+ * <p>
+ * {@link #getUserById} waits at most the window plus Feign's connect and read timeouts; a batch stuck
+ * behind a busy dispatcher then fails like an unavailable user-service instead of blocking the caller.
+ */
+@Component
+@Slf4j
+public class UserBatchLoader {
+
+    // per call limit of UserClient#getUsersByIds
+    private static final int MAX_IDS_PER_CALL = 500;
+
+    private final ResilientUserClient userClient;
+    private final Duration window;
+    private final Duration timeout;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService dispatcher;
+
+    private final Map<Long, CompletableFuture<UserDto>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private List<Long> pending = new ArrayList<>();
+
+    private final Counter requests;
+    private final Counter coalesced;
+    private final Counter downstreamIds;
+    private final DistributionSummary batchSize;
+
+    public UserBatchLoader(ResilientUserClient userClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${user-loader.window:5ms}") Duration window,
+                           @Value("${user-loader.max-batch-size:100}") int maxBatchSize,
+                           @Value("${user-loader.threads:4}") int threads,
+                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                           @Value("${spring.cloud.openfeign.client.config.user-service.connect-timeout:10000}") long connectTimeoutMillis,
+                           @Value("${spring.cloud.openfeign.client.config.user-service.read-timeout:60000}") long readTimeoutMillis) {
+        this.userClient = userClient;
+        this.window = window;
+        this.timeout = window.plusMillis(connectTimeoutMillis + readTimeoutMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("user-loader-timer").daemon().factory());
+        // downstream calls block on HTTP, so with virtual threads each batch gets its own
+        this.dispatcher = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-loader-", 0).factory())
+                : Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("user-loader-", 0).daemon().factory());
+
+        this.requests = Counter.builder("user.loader.requests")
+                .description("User lookups requested through the loader")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("user.loader.coalesced")
+                .description("User lookups served by an already in-flight request for the same id")
+                .register(meterRegistry);
+        this.downstreamIds = Counter.builder("user.loader.downstream.ids")
+                .description("User ids actually sent to user-service")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("user.loader.batch.size")
+                .description("Number of distinct ids per downstream call")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("user.loader.coalescing.ratio", this, UserBatchLoader::coalescingRatio)
+                .description("Share of requested lookups that did not cost a downstream id")
+                .register(meterRegistry);
+    }
+
+    public UserDto getUserById(Long id) {
+        try {
+            // on a copy, so the timeout does not complete the future shared with coalesced callers
+            return load(id).copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof TimeoutException) {
+                Optional<UserDto> stale = userClient.getLastKnown(id);
+                if (stale.isPresent()) {
+                    return stale.get();
+                }
+                throw new UserServiceUnavailableException(List.of(id), Map.of(), ex.getCause());
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public CompletableFuture<UserDto> load(Long id) {
+        requests.increment();
+        CompletableFuture<UserDto> created = new CompletableFuture<>();
+        CompletableFuture<UserDto> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        created.whenComplete((user, ex) -> inFlight.remove(id, created));
+        enqueue(id);
+        return created;
+    }
+
+    /**
+     * Resolves a whole set of ids at once for bulk callers, in as few {@link UserClient#getUsersByIds}
+     * calls as the per call limit allows, bypassing the coalescing window. Unknown ids are left out.
+     */
+    public Map<Long, UserDto> getUsersByIds(Collection<Long> ids) {
+        List<Long> distinct = List.copyOf(new LinkedHashSet<>(ids));
+        requests.increment(ids.size());
+        Map<Long, UserDto> users = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += MAX_IDS_PER_CALL) {
+            List<Long> chunk = distinct.subList(from, Math.min(distinct.size(), from + MAX_IDS_PER_CALL));
+            batchSize.record(chunk.size());
+            downstreamIds.increment(chunk.size());
+            users.putAll(userClient.getUsers(chunk));
+        }
+        return users;
+    }
+
+    private void enqueue(Long id) {
+        List<Long> ready = null;
+        synchronized (lock) {
+            pending.add(id);
+            if (pending.size() >= maxBatchSize) {
+                ready = pending;
+                pending = new ArrayList<>();
+            } else if (pending.size() == 1) {
+                scheduler.schedule(() -> dispatcher.execute(this::flushPending), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            List<Long> batch = ready;
+            dispatcher.execute(() -> dispatch(batch));
+        }
+    }
+
+    private void flushPending() {
+        List<Long> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(List<Long> ids) {
+        batchSize.record(ids.size());
+        downstreamIds.increment(ids.size());
+        try {
+            Map<Long, UserDto> users = userClient.getUsers(ids);
+            for (Long id : ids) {
+                UserDto user = users.get(id);
+                if (user != null) {
+                    complete(id, user);
+                } else {
+                    fail(id, new EntityNotFoundException("Cannot find user with id: " + id));
+                }
+            }
+        } catch (UserServiceUnavailableException ex) {
+            // ids with a last known copy still get it, the rest fail
+            log.warn("User lookup for ids {} failed: {}", ids, ex.getMessage());
+            for (Long id : ids) {
+                UserDto user = ex.getLastKnown().get(id);
+                if (user != null) {
+                    complete(id, user);
+                } else {
+                    fail(id, ex);
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.error("User lookup for ids {} failed: {}", ids, ex.getMessage());
+            ids.forEach(id -> fail(id, ex));
+        }
+    }
+
+    private void complete(Long id, UserDto user) {
+        CompletableFuture<UserDto> future = inFlight.get(id);
+        if (future != null) {
+            future.complete(user);
+        }
+    }
+
+    private void fail(Long id, RuntimeException ex) {
+        CompletableFuture<UserDto> future = inFlight.get(id);
+        if (future != null) {
+            future.completeExceptionally(ex);
+        }
+    }
+
+    private double coalescingRatio() {
+        double requested = requests.count();
+        return requested == 0 ? 0.0 : 1.0 - downstreamIds.count() / requested;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        dispatcher.shutdown();
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.microservice.order_service.open_feign;
 
+import com.example.microservice.order_service.dto.UserBatchRequest;
 import com.example.microservice.order_service.dto.UserDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "user-service", fallback = UserClientFallback.class)
+import java.util.List;
+
+// called through ResilientUserClient, which adds the bulkhead, circuit breaker and last known copies
+@FeignClient(name = "user-service")
 public interface UserClient {
 
     @GetMapping("/api/users/{id}")
@@ -13,4 +19,8 @@ public interface UserClient {
     
     @GetMapping("/api/users/email/{email}")
     UserDto getUserByEmail(@PathVariable("email") String email);
+
+    // Resolves up to 500 users in one round trip; unknown IDs are left out of the result
+    @PostMapping("/api/users/batch")
+    List<UserDto> getUsersByIds(@RequestBody UserBatchRequest request);
 }
@@ -0,0 +1,74 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resolves the {@link UserDto} attached to order responses. Lookups are served from a short-TTL
+ * local cache or started asynchronously through {@link UserBatchLoader}, so callers can overlap
+ * them with their own database work; waiting is capped by {@code timeout}, after which the user's
+ * last known copy from {@link ResilientUserClient} is used, or none at all if it was never seen.
+ */
+@Component
+@Slf4j
+public class UserEnricher {
+
+    private final UserBatchLoader userBatchLoader;
+    private final ResilientUserClient userClient;
+    private final Duration timeout;
+    private final Cache<Long, UserDto> users;
+
+    public UserEnricher(UserBatchLoader userBatchLoader,
+                        ResilientUserClient userClient,
+                        MeterRegistry meterRegistry,
+                        @Value("${order-enrichment.user-timeout:200ms}") Duration timeout,
+                        @Value("${order-enrichment.user-cache.time-to-live:30s}") Duration timeToLive,
+                        @Value("${order-enrichment.user-cache.maximum-size:10000}") long maximumSize) {
+        this.userBatchLoader = userBatchLoader;
+        this.userClient = userClient;
+        this.timeout = timeout;
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "orderUsers");
+    }
+
+    public CompletableFuture<UserDto> prefetch(Long userId) {
+        UserDto cached = users.getIfPresent(userId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return userBatchLoader.load(userId).thenApply(user -> {
+            users.put(userId, user);
+            return user;
+        });
+    }
+
+    public UserDto await(CompletableFuture<UserDto> user, Long userId) {
+        try {
+            return user.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            log.warn("User {} not resolved within {}, using last known copy", userId, timeout);
+        } catch (ExecutionException ex) {
+            log.warn("User {} lookup failed, using last known copy: {}", userId, ex.getCause().getMessage());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        // a missing user is better than a made-up one
+        return userClient.getLastKnown(userId).orElse(null);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.microservice.order_service.repository;
 
 import com.example.microservice.order_service.model.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,13 +9,17 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import javax.swing.text.html.Option;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     Page<Order> findByUserId(Long userId, Pageable pageable);
-    Optional<List<Order>> findByUserId(Long id);
+    List<Order> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Limit limit);
+
+    // One statement: sets the status unless it already is :to and returns the row as it was before, so the caller
+    // learns the previous status without reading it first. Empty when the order is missing or already in :to
+    @Query(value = "SELECT * FROM OLD TABLE (UPDATE orders SET status = :#{#to.name()} WHERE id = :id AND status <> :#{#to.name()})",
+            nativeQuery = true)
+    Optional<Order> updateStatusReturningPrevious(@Param("id") Long id, @Param("to") Order.OrderStatus to);
 }
@@ -0,0 +1,17 @@
+package com.example.microservice.order_service.repository;
+
+import com.example.microservice.order_service.model.OutboxRelayLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxRelayLeaseRepository extends JpaRepository<OutboxRelayLease, String> {
+
+    // Locks the lease row until the surrounding transaction ends; empty at once while another transaction holds it
+    @Query(value = "SELECT name FROM order_outbox_relay_lease WHERE name = :name FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<String> tryLock(@Param("name") String name);
+}
@@ -0,0 +1,18 @@
+package com.example.microservice.order_service.repository;
+
+import com.example.microservice.order_service.model.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveOrderRepository extends R2dbcRepository<Order, Long> {
+    Flux<Order> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Limit limit);
+
+    // Same single statement as OrderRepository.updateStatusReturningPrevious
+    @Query("SELECT * FROM OLD TABLE (UPDATE orders SET status = :to WHERE id = :id AND status <> :to)")
+    Mono<Order> updateStatusReturningPrevious(Long id, Order.OrderStatus to);
+}
@@ -2,13 +2,17 @@ package com.example.microservice.order_service.service;
 
 import com.example.microservice.order_service.model.Order;
 import com.example.microservice.order_service.model.OrderResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
 public interface OrderService {
     OrderResponse createOrder(Order order);
+    List<OrderResponse> createOrders(List<Order> orders);
     OrderResponse getOrderById(Long id);
-    List<OrderResponse> getOrdersByUserId(Long id);
+    Page<OrderResponse> getOrdersByUserId(Long userId, Pageable pageable);
+    List<OrderResponse> getOrdersByUserIdAfter(Long userId, Long afterId, int size);
     OrderResponse updateOrderStatus(Long id, Order.OrderStatus orderStatus);
     void deleteOrder(Long id);
 }
@@ -0,0 +1,14 @@
+package com.example.microservice.order_service.service;
+
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveOrderService {
+    Mono<OrderResponse> createOrder(Order order);
+    Mono<OrderResponse> getOrderById(Long id);
+    Flux<OrderResponse> getOrdersByUserIdAfter(Long userId, Long afterId, int size);
+    Mono<OrderResponse> updateOrderStatus(Long id, Order.OrderStatus orderStatus);
+    Mono<Void> deleteOrder(Long id);
+}
@@ -3,10 +3,13 @@ package com.example.microservice.order_service.service.impl;
 import com.example.microservice.order_service.config.TopicConfig;
 import com.example.microservice.order_service.dto.UserDto;
 import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OrderStatusChangedEvent;
+import com.example.microservice.order_service.event.OutboxPublisher;
 import com.example.microservice.order_service.mapper.OrderMapper;
 import com.example.microservice.order_service.model.Order;
 import com.example.microservice.order_service.model.OrderResponse;
-import com.example.microservice.order_service.open_feign.UserClient;
+import com.example.microservice.order_service.open_feign.UserBatchLoader;
+import com.example.microservice.order_service.open_feign.UserEnricher;
 import com.example.microservice.order_service.repository.OrderRepository;
 import com.example.microservice.order_service.service.OrderService;
 import jakarta.persistence.EntityNotFoundException;
@@ -14,13 +17,21 @@ import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Component
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
@@ -31,13 +42,14 @@ public class OrderServiceImpl implements OrderService {
 
     OrderRepository orderRepository;
     OrderMapper orderMapper;
-    KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
-    UserClient userClient;
+    OutboxPublisher outboxPublisher;
+    UserBatchLoader userBatchLoader;
+    UserEnricher userEnricher;
 
 
     @Override
     public OrderResponse createOrder(Order order) {
-        UserDto userDto = userClient.getUserById(order.getUserId());
+        UserDto userDto = userBatchLoader.getUserById(order.getUserId());
         order.setUserId(userDto.getId());
         Order saveOrder = orderRepository.save(order);
 
@@ -47,37 +59,97 @@ public class OrderServiceImpl implements OrderService {
                 .userId(saveOrder.getUserId())
                 .total(saveOrder.getTotal())
                 .build();
-        log.info("Send event: {} to topic: {}", event, TopicConfig.TOPIC_CREATE_ORDER);
-        kafkaTemplate.send(TopicConfig.TOPIC_CREATE_ORDER, event);
+        log.info("Queue event: {} for topic: {}", event, TopicConfig.TOPIC_CREATE_ORDER);
+        outboxPublisher.enqueue(TopicConfig.TOPIC_CREATE_ORDER, String.valueOf(saveOrder.getId()), event);
 
         return orderMapper.toOrderResponse(saveOrder);
     }
 
+    @Override
+    public List<OrderResponse> createOrders(List<Order> orders) {
+        // one lookup for every distinct user, before the first statement borrows a connection
+        Set<Long> userIds = orders.stream().map(Order::getUserId).collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, UserDto> users = userBatchLoader.getUsersByIds(userIds);
+        List<Long> missing = userIds.stream().filter(userId -> !users.containsKey(userId)).toList();
+        if (!missing.isEmpty())
+            throw new EntityNotFoundException("Cannot find users with ids: " + missing);
+
+        // ids come from the pooled sequence, so orders are inserted in JDBC batches on flush; outbox rows in one more
+        List<Order> savedOrders = orderRepository.saveAll(orders);
+        Map<String, OrderPlacedEvent> events = new LinkedHashMap<>();
+        for (Order saveOrder : savedOrders) {
+            events.put(String.valueOf(saveOrder.getId()), OrderPlacedEvent.builder()
+                    .orderId(saveOrder.getId())
+                    .userId(saveOrder.getUserId())
+                    .total(saveOrder.getTotal())
+                    .build());
+        }
+        log.info("Queue {} events for topic: {}", events.size(), TopicConfig.TOPIC_CREATE_ORDER);
+        outboxPublisher.enqueueAll(TopicConfig.TOPIC_CREATE_ORDER, events);
+
+        return savedOrders.stream().map(orderMapper::toOrderResponse).toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
         Optional<Order> optionalOrder = orderRepository.findById(id);
         if (optionalOrder.isEmpty())
             throw new EntityNotFoundException("Cannot find order with id: " + id);
-        return orderMapper.toOrderResponse(optionalOrder.get());
+        Order order = optionalOrder.get();
+        UserDto user = userEnricher.await(userEnricher.prefetch(order.getUserId()), order.getUserId());
+        return orderMapper.toOrderResponse(order, user);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<OrderResponse> getOrdersByUserId(Long userId, Pageable pageable) {
+        // start the user lookup first so it overlaps with the order query
+        CompletableFuture<UserDto> user = userEnricher.prefetch(userId);
+        Page<Order> orders = orderRepository.findByUserId(userId, pageable);
+        if (orders.isEmpty())
+            return orders.map(orderMapper::toOrderResponse);
+        UserDto userDto = userEnricher.await(user, userId);
+        return orders.map(order -> orderMapper.toOrderResponse(order, userDto));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersByUserId(Long id) {
-        List<Order> orders = orderRepository.findByUserId(id).orElse(Collections.emptyList());
-        return orders.stream().map(orderMapper::toOrderResponse).toList();
+    public List<OrderResponse> getOrdersByUserIdAfter(Long userId, Long afterId, int size) {
+        CompletableFuture<UserDto> user = userEnricher.prefetch(userId);
+        List<Order> orders = orderRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, Limit.of(size));
+        if (orders.isEmpty())
+            return Collections.emptyList();
+        UserDto userDto = userEnricher.await(user, userId);
+        return orders.stream().map(order -> orderMapper.toOrderResponse(order, userDto)).toList();
     }
 
     @Override
     public OrderResponse updateOrderStatus(Long id, Order.OrderStatus orderStatus) {
-        Optional<Order> optionalOrder = orderRepository.findById(id);
-        if (optionalOrder.isEmpty())
-            throw new EntityNotFoundException("Cannot find order with id: " + id);
-        Order order = optionalOrder.get();
-        order.setStatus(orderStatus);
+        // the update alone: the row it returns, as it was before, holds the previous status for the event
+        Optional<Order> previous = orderRepository.updateStatusReturningPrevious(id, orderStatus);
+        if (previous.isEmpty()) {
+            // already in that status, or no such order
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Cannot find order with id: " + id));
+            return orderMapper.toOrderResponse(order);
+        }
+        Order order = previous.get();
+        Order.OrderStatus from = order.getStatus();
+
+        OrderStatusChangedEvent event = OrderStatusChangedEvent.builder()
+                .orderId(id)
+                .userId(order.getUserId())
+                .from(from)
+                .to(orderStatus)
+                .build();
+        log.info("Queue event: {} for topic: {}", event, TopicConfig.TOPIC_ORDER_STATUS_CHANGED);
+        outboxPublisher.enqueue(TopicConfig.TOPIC_ORDER_STATUS_CHANGED, String.valueOf(id), event);
 
-        return orderMapper.toOrderResponse(orderRepository.save(order));
+        // the returned Order is managed; changing it would be flushed as a second UPDATE
+        OrderResponse response = orderMapper.toOrderResponse(order);
+        response.setStatus(orderStatus);
+        return response;
     }
 
     @Override
@@ -0,0 +1,158 @@
+package com.example.microservice.order_service.service.impl;
+
+import com.example.microservice.order_service.config.TopicConfig;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OrderStatusChangedEvent;
+import com.example.microservice.order_service.event.ReactiveOutboxPublisher;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import com.example.microservice.order_service.mapper.OrderMapper;
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import com.example.microservice.order_service.open_feign.ReactiveUserClient;
+import com.example.microservice.order_service.open_feign.ResilientUserClient;
+import com.example.microservice.order_service.repository.ReactiveOrderRepository;
+import com.example.microservice.order_service.service.ReactiveOrderService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Profile("reactive")
+@Slf4j
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+
+    private final ReactiveOrderRepository orderRepository;
+    private final OrderMapper orderMapper;
+    private final ReactiveOutboxPublisher outboxPublisher;
+    private final ReactiveUserClient userClient;
+    // the last known users, shared with the Feign path
+    private final ResilientUserClient resilientUserClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration userTimeout;
+
+    public ReactiveOrderServiceImpl(ReactiveOrderRepository orderRepository,
+                                    OrderMapper orderMapper,
+                                    ReactiveOutboxPublisher outboxPublisher,
+                                    ReactiveUserClient userClient,
+                                    ResilientUserClient resilientUserClient,
+                                    TransactionalOperator transactionalOperator,
+                                    @Value("${order-enrichment.user-timeout:200ms}") Duration userTimeout) {
+        this.orderRepository = orderRepository;
+        this.orderMapper = orderMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.userClient = userClient;
+        this.resilientUserClient = resilientUserClient;
+        this.transactionalOperator = transactionalOperator;
+        this.userTimeout = userTimeout;
+    }
+
+    @Override
+    public Mono<OrderResponse> createOrder(Order order) {
+        // resolve the user before the transaction starts so no connection is held across the call
+        return fetchUser(order.getUserId())
+                .onErrorResume(ReactiveOrderServiceImpl::userServiceFailed, ex -> lastKnown(order.getUserId(), ex))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Cannot find user with id: " + order.getUserId())))
+                .flatMap(user -> {
+                    order.setUserId(user.getId());
+                    return orderRepository.save(order)
+                            .flatMap(saveOrder -> {
+                                OrderPlacedEvent event = OrderPlacedEvent.builder()
+                                        .orderId(saveOrder.getId())
+                                        .userId(saveOrder.getUserId())
+                                        .total(saveOrder.getTotal())
+                                        .build();
+                                log.info("Queue event: {} for topic: {}", event, TopicConfig.TOPIC_CREATE_ORDER);
+                                return outboxPublisher.enqueue(TopicConfig.TOPIC_CREATE_ORDER, String.valueOf(saveOrder.getId()), event)
+                                        .thenReturn(saveOrder);
+                            })
+                            .as(transactionalOperator::transactional);
+                })
+                .map(orderMapper::toOrderResponse);
+    }
+
+    @Override
+    public Mono<OrderResponse> getOrderById(Long id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Cannot find order with id: " + id)))
+                .flatMap(order -> enrich(order.getUserId()).map(user -> orderMapper.toOrderResponse(order, user.orElse(null))));
+    }
+
+    @Override
+    public Flux<OrderResponse> getOrdersByUserIdAfter(Long userId, Long afterId, int size) {
+        // the user lookup runs concurrently with the order query
+        return Mono.zip(orderRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, Limit.of(size)).collectList(), enrich(userId))
+                .flatMapIterable(result -> result.getT1().stream()
+                        .map(order -> orderMapper.toOrderResponse(order, result.getT2().orElse(null)))
+                        .toList());
+    }
+
+    @Override
+    public Mono<OrderResponse> updateOrderStatus(Long id, Order.OrderStatus orderStatus) {
+        // the update alone: the row it returns, as it was before, holds the previous status for the event
+        return orderRepository.updateStatusReturningPrevious(id, orderStatus)
+                .flatMap(order -> {
+                    OrderStatusChangedEvent event = OrderStatusChangedEvent.builder()
+                            .orderId(id)
+                            .userId(order.getUserId())
+                            .from(order.getStatus())
+                            .to(orderStatus)
+                            .build();
+                    order.setStatus(orderStatus);
+                    return outboxPublisher.enqueue(TopicConfig.TOPIC_ORDER_STATUS_CHANGED, String.valueOf(id), event)
+                            .thenReturn(order);
+                })
+                // already in that status, or no such order
+                .switchIfEmpty(Mono.defer(() -> orderRepository.findById(id)))
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Cannot find order with id: " + id)))
+                .as(transactionalOperator::transactional)
+                .map(orderMapper::toOrderResponse);
+    }
+
+    @Override
+    public Mono<Void> deleteOrder(Long id) {
+        return orderRepository.deleteById(id);
+    }
+
+    // as UserEnricher: the user, else its last known copy, else none; a missing user is better than a made-up one
+    private Mono<Optional<UserDto>> enrich(Long userId) {
+        return fetchUser(userId)
+                .timeout(userTimeout)
+                .onErrorResume(ex -> lastKnown(userId, ex))
+                .map(Optional::of)
+                .onErrorReturn(UserServiceUnavailableException.class, Optional.empty())
+                .defaultIfEmpty(Optional.empty());
+    }
+
+    // empty when user-service does not know the id; a user it returns becomes the last known copy
+    private Mono<UserDto> fetchUser(Long userId) {
+        return userClient.getUserById(userId)
+                .doOnNext(user -> resilientUserClient.remember(userId, user))
+                .onErrorResume(WebClientResponseException.NotFound.class, ex -> Mono.empty());
+    }
+
+    // as ResilientUserClient: the last known copy, else UserServiceUnavailableException
+    private Mono<UserDto> lastKnown(Long userId, Throwable ex) {
+        log.warn("User {} lookup failed, using last known copy: {}", userId, ex.toString());
+        return resilientUserClient.getLastKnown(userId)
+                .map(Mono::just)
+                .orElseGet(() -> Mono.error(new UserServiceUnavailableException(List.of(userId), Map.of(), ex)));
+    }
+
+    // 4xx answers are the caller's problem, not user-service's
+    private static boolean userServiceFailed(Throwable ex) {
+        return !(ex instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError());
+    }
+}
@@ -1,13 +1,202 @@
 package com.example.microservice.order_service;
 
+import com.example.microservice.order_service.config.TopicConfig;
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.event.OutboxRelay;
+import com.example.microservice.shared.loadbalancer.PeakEwmaLoadBalancer;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import com.example.microservice.order_service.model.OutboxEvent;
+import com.example.microservice.order_service.open_feign.UserClient;
+import com.example.microservice.order_service.repository.OrderRepository;
+import com.example.microservice.order_service.repository.OutboxEventRepository;
+import com.example.microservice.order_service.repository.OutboxRelayLeaseRepository;
+import com.example.microservice.order_service.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
 
-@SpringBootTest
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "outbox.relay.interval=1h")
 class OrderServiceApplicationTests {
 
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private OutboxRelayLeaseRepository outboxRelayLeaseRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private LoadBalancerClientFactory loadBalancerClientFactory;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	@MockitoBean
+	private UserClient userClient;
+
 	@Test
 	void contextLoads() {
 	}
 
+	@Test
+	void When_FeignResolvesUserService_Expect_PeakEwmaLoadBalancerWithStatsLifecycle() {
+		// TODO: Act & Assert
+		assertTrue(loadBalancerClientFactory.getInstance("user-service") instanceof PeakEwmaLoadBalancer);
+		assertTrue(loadBalancerClientFactory.getInstances("user-service", LoadBalancerLifecycle.class).values().stream()
+				.anyMatch(PeakEwmaStats.class::isInstance));
+	}
+
+	@Test
+	void When_TransactionalReadWithReactiveStackOnClasspath_Expect_UseJpaTransactionManager() {
+		// TODO: Act & Assert
+		assertTrue(orderService.getOrdersByUserIdAfter(0L, 0L, 10).isEmpty());
+	}
+
+	@Test
+	void When_NotReactiveProfile_Expect_NoR2dbcInfrastructure() {
+		// TODO: Act & Assert
+		assertEquals(0, applicationContext.getBeanNamesForType(ConnectionFactory.class).length);
+		assertEquals(0, applicationContext.getBeanNamesForType(ReactiveTransactionManager.class).length);
+	}
+
+	@Test
+	void When_PagingOrdersOfUser_Expect_KeysetAndOffsetPagesCoverEveryOrderOnce() {
+		// TODO: Arrange
+		List<Long> ids = Stream.of(30.0, 10.0, 20.0)
+				.map(total -> orderRepository.save(Order.builder().userId(300L).product("Item").price(total).total(total).build()).getId())
+				.toList();
+		orderRepository.save(Order.builder().userId(301L).product("Other").price(1.0).total(1.0).build());
+
+		// TODO: Act
+		List<OrderResponse> first = orderService.getOrdersByUserIdAfter(300L, 0L, 2);
+		List<OrderResponse> second = orderService.getOrdersByUserIdAfter(300L, first.get(1).getOrderId(), 2);
+		Page<OrderResponse> byTotal = orderService.getOrdersByUserId(300L,
+				PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "total")));
+
+		// TODO: Assert
+		assertEquals(ids, Stream.concat(first.stream(), second.stream()).map(OrderResponse::getOrderId).toList());
+		assertEquals(3, byTotal.getTotalElements());
+		assertEquals(List.of(30.0, 20.0), byTotal.getContent().stream().map(OrderResponse::getPrice).toList());
+	}
+
+	@Test
+	void When_CreateOrdersInBulk_Expect_SequenceIdsAndOneOutboxEventPerOrder() {
+		// TODO: Arrange
+		Mockito.when(userClient.getUsersByIds(ArgumentMatchers.any())).thenAnswer(invocation ->
+				invocation.<UserBatchRequest>getArgument(0).getIds().stream()
+						.map(id -> UserDto.builder().id(id).build())
+						.toList());
+		List<Order> orders = LongStream.range(0, 120)
+				.mapToObj(i -> Order.builder().userId(400L + i % 3).product("Bulk").price(1.0).total(1.0).build())
+				.toList();
+		long outboxBefore = outboxEventRepository.count();
+
+		// TODO: Act
+		List<OrderResponse> created = orderService.createOrders(orders);
+
+		// TODO: Assert
+		assertEquals(120, created.stream().map(OrderResponse::getOrderId).distinct().count());
+		assertEquals(outboxBefore + 120, outboxEventRepository.count());
+		assertEquals(40, orderService.getOrdersByUserIdAfter(401L, 0L, 100).size());
+		Mockito.verify(userClient, Mockito.times(1)).getUsersByIds(ArgumentMatchers.any());
+	}
+
+	@Test
+	void When_UpdateOrderStatus_Expect_StatusPersistedWithOneOutboxEvent() {
+		// TODO: Arrange
+		Order order = orderRepository.save(Order.builder().userId(100L).product("Laptop").price(1200.0).total(1200.0).build());
+
+		// TODO: Act
+		orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED);
+		orderService.updateOrderStatus(order.getId(), Order.OrderStatus.CONFIRMED);
+
+		// TODO: Assert
+		assertEquals(Order.OrderStatus.CONFIRMED, orderRepository.findById(order.getId()).orElseThrow().getStatus());
+		assertEquals(1, outboxEventRepository.findAll().stream()
+				.map(OutboxEvent::getMessageKey)
+				.filter(String.valueOf(order.getId())::equals)
+				.count());
+		assertTrue(outboxEventRepository.findAll().stream()
+				.anyMatch(event -> event.getTopic().equals(TopicConfig.TOPIC_ORDER_STATUS_CHANGED)
+						&& event.getPayload().contains("\"from\":\"PENDING\",\"to\":\"CONFIRMED\"")));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void When_TwoRelaysRunConcurrently_Expect_EveryOutboxEventPublishedOnce() throws Exception {
+		// TODO: Arrange
+		List<String> keys = LongStream.range(0, 5).mapToObj(i -> "relay-" + i).toList();
+		keys.forEach(key -> outboxEventRepository.save(OutboxEvent.builder().topic(TopicConfig.TOPIC_CREATE_ORDER)
+				.messageKey(key).payload("{}").createdAt(LocalDateTime.now()).build()));
+		KafkaTemplate<String, String> kafkaA = Mockito.mock(KafkaTemplate.class);
+		KafkaTemplate<String, String> kafkaB = Mockito.mock(KafkaTemplate.class);
+		List<String> sentByA = new ArrayList<>();
+		CompletableFuture<SendResult<String, String>> brokerAck = new CompletableFuture<>();
+		CountDownLatch aSending = new CountDownLatch(1);
+		Mockito.when(kafkaA.send(ArgumentMatchers.<ProducerRecord<String, String>>any()))
+				.thenAnswer(invocation -> {
+					sentByA.add(invocation.<ProducerRecord<String, String>>getArgument(0).key());
+					aSending.countDown();
+					return brokerAck;
+				});
+		OutboxRelay relayA = new OutboxRelay(outboxEventRepository, outboxRelayLeaseRepository, transactionManager, kafkaA,
+				new SimpleMeterRegistry(), 1000, Duration.ofSeconds(10));
+		OutboxRelay relayB = new OutboxRelay(outboxEventRepository, outboxRelayLeaseRepository, transactionManager, kafkaB,
+				new SimpleMeterRegistry(), 1000, Duration.ofSeconds(10));
+
+		// TODO: Act: B runs while A waits for the broker
+		Thread a = Thread.ofVirtual().start(relayA::relay);
+		assertTrue(aSending.await(10, TimeUnit.SECONDS));
+		relayB.relay();
+		brokerAck.complete(null);
+		a.join(10_000);
+		relayB.relay();
+
+		// TODO: Assert
+		Mockito.verifyNoInteractions(kafkaB);
+		assertEquals(sentByA.size(), sentByA.stream().distinct().count());
+		assertTrue(sentByA.containsAll(keys));
+		assertEquals(0, outboxEventRepository.count());
+	}
+
 }
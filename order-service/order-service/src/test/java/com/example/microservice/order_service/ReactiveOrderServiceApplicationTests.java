@@ -0,0 +1,100 @@
+package com.example.microservice.order_service;
+
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.model.OrderResponse;
+import com.example.microservice.order_service.open_feign.ReactiveUserClient;
+import com.example.microservice.order_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"eureka.client.enabled=false", "outbox.relay.interval=1h",
+				// own database, so the other contexts' outbox relays never see these rows
+				"spring.datasource.url=jdbc:h2:mem:reactive-orderdb", "spring.r2dbc.url=r2dbc:h2:mem:///reactive-orderdb"})
+@ActiveProfiles("reactive")
+class ReactiveOrderServiceApplicationTests {
+
+	@Autowired
+	private WebTestClient webTestClient;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@MockitoBean
+	private ReactiveUserClient reactiveUserClient;
+
+	@Test
+	void When_CreateAndReadOrder_Expect_PersistedWithOutboxEventAndEnrichedUser() {
+		// TODO: Arrange
+		UserDto user = UserDto.builder().id(100L).name("John Doe").email("john@example.com").build();
+		Mockito.when(reactiveUserClient.getUserById(100L)).thenReturn(Mono.just(user));
+		long outboxBefore = outboxEventRepository.count();
+
+		// TODO: Act
+		OrderResponse created = webTestClient.post().uri("/api/orders")
+				.bodyValue(Map.of("userId", 100L, "product", "Laptop", "price", 1200.0, "total", 1200.0))
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(OrderResponse.class)
+				.returnResult().getResponseBody();
+
+		// TODO: Assert
+		assertNotNull(created);
+		assertNotNull(created.getOrderId());
+		assertEquals(outboxBefore + 1, outboxEventRepository.count());
+		webTestClient.get().uri("/api/orders/{id}", created.getOrderId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.product").isEqualTo("Laptop")
+				.jsonPath("$.user.name").isEqualTo("John Doe");
+		webTestClient.get().uri("/api/orders/user/{userId}", 100L)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$[0].user.email").isEqualTo("john@example.com");
+	}
+
+	@Test
+	void When_UpdateOrderStatus_Expect_ConditionalUpdateWithOutboxEvent() {
+		// TODO: Arrange
+		UserDto user = UserDto.builder().id(100L).name("John Doe").email("john@example.com").build();
+		Mockito.when(reactiveUserClient.getUserById(100L)).thenReturn(Mono.just(user));
+		OrderResponse created = webTestClient.post().uri("/api/orders")
+				.bodyValue(Map.of("userId", 100L, "product", "Phone", "price", 500.0, "total", 500.0))
+				.exchange()
+				.expectStatus().isCreated()
+				.expectBody(OrderResponse.class)
+				.returnResult().getResponseBody();
+		assertNotNull(created);
+		long outboxBefore = outboxEventRepository.count();
+
+		// TODO: Act
+		webTestClient.patch().uri("/api/orders/{id}/status?status=SHIPPED", created.getOrderId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.status").isEqualTo("SHIPPED");
+		webTestClient.patch().uri("/api/orders/{id}/status?status=SHIPPED", created.getOrderId())
+				.exchange()
+				.expectStatus().isOk();
+
+		// TODO: Assert
+		assertEquals(outboxBefore + 1, outboxEventRepository.count());
+		webTestClient.get().uri("/api/orders/{id}", created.getOrderId())
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.status").isEqualTo("SHIPPED");
+	}
+}
@@ -0,0 +1,160 @@
+package com.example.microservice.order_service.analytics;
+
+import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderAnalyticsTest {
+
+    static final Instant DAY_ONE = Instant.parse("2025-01-15T10:00:00Z");
+    static final Instant DAY_TWO = Instant.parse("2025-01-16T23:59:00Z");
+
+    @TempDir
+    Path snapshotDir;
+    ObjectMapper objectMapper;
+    OrderAnalytics orderAnalytics;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        orderAnalytics = new OrderAnalytics(objectMapper, snapshotDir.resolve("analytics.json"), 100);
+    }
+
+    static OrderPlacedEvent placed(long orderId, long userId, double total) {
+        return OrderPlacedEvent.builder().orderId(orderId).userId(userId).total(total).build();
+    }
+
+    @Test
+    void When_OrdersPlaced_Expect_TotalsPerUserStatusAndDay() {
+        // TODO: Act
+        orderAnalytics.applyPlaced("order-creation-0", 0, null, placed(1, 7, 100.0), DAY_ONE);
+        orderAnalytics.applyPlaced("order-creation-1", 0, null, placed(2, 7, 50.0), DAY_TWO);
+        orderAnalytics.applyPlaced("order-creation-0", 1, null, placed(3, 8, 25.0), DAY_TWO);
+        // TODO: Assert
+        OrderAnalyticsSummary summary = orderAnalytics.summary();
+        assertEquals(3, summary.orders());
+        assertEquals(175.0, summary.revenue());
+        assertEquals(3L, summary.ordersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(0L, summary.ordersByStatus().get(Order.OrderStatus.SHIPPED));
+        assertEquals(new OrderTotals(2, 150.0), orderAnalytics.user(7L));
+        assertEquals(OrderTotals.ZERO, orderAnalytics.user(404L));
+        assertEquals(Map.of(LocalDate.of(2025, 1, 15), new OrderTotals(1, 100.0),
+                        LocalDate.of(2025, 1, 16), new OrderTotals(2, 75.0)),
+                orderAnalytics.daily(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31)));
+    }
+
+    @Test
+    void When_EventRedelivered_Expect_AppliedOnce() {
+        // TODO: Act
+        assertTrue(orderAnalytics.applyPlaced("order-creation-0", 5, null, placed(1, 7, 100.0), DAY_ONE));
+        assertFalse(orderAnalytics.applyPlaced("order-creation-0", 5, null, placed(1, 7, 100.0), DAY_ONE));
+        assertFalse(orderAnalytics.applyPlaced("order-creation-0", 4, null, placed(0, 7, 100.0), DAY_ONE));
+        // TODO: Assert
+        assertEquals(1, orderAnalytics.summary().orders());
+        assertEquals(Map.of("order-creation-0", 5L), orderAnalytics.appliedOffsets());
+    }
+
+    @Test
+    void When_OutboxRepublishesAtNewOffsets_Expect_AppliedOnce() {
+        // TODO: Arrange
+        orderAnalytics.applyPlaced("order-creation-0", 0, 10L, placed(1, 7, 100.0), DAY_ONE);
+        orderAnalytics.applyStatusChange("order-status-0", 0, 11L, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        orderAnalytics.applyStatusChange("order-status-0", 1, 12L, Order.OrderStatus.CONFIRMED, Order.OrderStatus.SHIPPED);
+        // TODO: Act
+        boolean placedAgain = orderAnalytics.applyPlaced("order-creation-0", 1, 10L, placed(1, 7, 100.0), DAY_ONE);
+        boolean confirmedAgain = orderAnalytics.applyStatusChange("order-status-0", 2, 11L,
+                Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        // TODO: Assert
+        assertFalse(placedAgain);
+        assertFalse(confirmedAgain);
+        OrderAnalyticsSummary summary = orderAnalytics.summary();
+        assertEquals(1, summary.orders());
+        assertEquals(100.0, summary.revenue());
+        assertEquals(0L, summary.ordersByStatus().get(Order.OrderStatus.CONFIRMED));
+        assertEquals(1L, summary.ordersByStatus().get(Order.OrderStatus.SHIPPED));
+        assertEquals(Map.of("order-creation-0", 1L, "order-status-0", 2L), orderAnalytics.appliedOffsets());
+    }
+
+    @Test
+    void When_ManyMoreEventsThanWindow_Expect_DedupStateStopsGrowing() {
+        // TODO: Act
+        for (long id = 1; id <= 1000; id++) {
+            orderAnalytics.applyPlaced("order-creation-0", id, id, placed(id, 7, 1.0), DAY_ONE);
+        }
+        // TODO: Assert
+        assertEquals(100, orderAnalytics.trackedEvents());
+        assertFalse(orderAnalytics.applyPlaced("order-creation-0", 1001, 1000L, placed(1000, 7, 1.0), DAY_ONE));
+        assertEquals(1000, orderAnalytics.summary().orders());
+    }
+
+    @Test
+    void When_StatusChangeReadBeforePlacement_Expect_BothApplied() {
+        // TODO: Act
+        orderAnalytics.applyStatusChange("order-status-0", 0, null, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        orderAnalytics.applyPlaced("order-creation-0", 0, null, placed(1, 7, 100.0), DAY_ONE);
+        // TODO: Assert
+        OrderAnalyticsSummary summary = orderAnalytics.summary();
+        assertEquals(0L, summary.ordersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(1L, summary.ordersByStatus().get(Order.OrderStatus.CONFIRMED));
+    }
+
+    @Test
+    void When_StatusChanges_Expect_MoveBetweenStatusCountsAndKeepRevenue() {
+        // TODO: Arrange
+        orderAnalytics.applyPlaced("order-creation-0", 0, null, placed(1, 7, 100.0), DAY_ONE);
+        // TODO: Act
+        orderAnalytics.applyStatusChange("order-status-0", 0, null, Order.OrderStatus.PENDING, Order.OrderStatus.CANCELLED);
+        // TODO: Assert
+        OrderAnalyticsSummary summary = orderAnalytics.summary();
+        assertEquals(0L, summary.ordersByStatus().get(Order.OrderStatus.PENDING));
+        assertEquals(1L, summary.ordersByStatus().get(Order.OrderStatus.CANCELLED));
+        assertEquals(100.0, summary.revenue());
+    }
+
+    @Test
+    void When_DailyRangeReversedOrTooLong_Expect_IllegalArgumentException() {
+        // TODO: Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> orderAnalytics.daily(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 1, 1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderAnalytics.daily(LocalDate.of(2020, 1, 1), LocalDate.of(2025, 1, 1)));
+    }
+
+    @Test
+    void When_SnapshotRestoredInNewInstance_Expect_SameStateAndOffsets() {
+        // TODO: Arrange
+        orderAnalytics.applyPlaced("order-creation-0", 3, 10L, placed(1, 7, 100.0), DAY_ONE);
+        orderAnalytics.applyStatusChange("order-status-0", 0, 11L, Order.OrderStatus.PENDING, Order.OrderStatus.CONFIRMED);
+        // TODO: Act
+        orderAnalytics.snapshot();
+        OrderAnalytics restored = new OrderAnalytics(objectMapper, snapshotDir.resolve("analytics.json"), 100);
+        restored.restore();
+        // TODO: Assert
+        assertEquals(orderAnalytics.summary(), restored.summary());
+        assertEquals(new OrderTotals(1, 100.0), restored.user(7L));
+        assertEquals(Map.of(LocalDate.of(2025, 1, 15), new OrderTotals(1, 100.0)),
+                restored.daily(LocalDate.of(2025, 1, 15), LocalDate.of(2025, 1, 15)));
+        assertEquals(Map.of("order-creation-0", 3L, "order-status-0", 0L), restored.appliedOffsets());
+        assertFalse(restored.applyPlaced("order-creation-0", 3, null, placed(1, 7, 100.0), DAY_ONE));
+        assertFalse(restored.applyPlaced("order-creation-0", 4, 10L, placed(1, 7, 100.0), DAY_ONE));
+    }
+
+    @Test
+    void When_NothingApplied_Expect_NoSnapshotWritten() {
+        // TODO: Act
+        orderAnalytics.snapshot();
+        // TODO: Assert
+        assertFalse(Files.exists(snapshotDir.resolve("analytics.json")));
+    }
+}
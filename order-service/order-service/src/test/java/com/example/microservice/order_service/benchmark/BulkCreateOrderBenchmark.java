@@ -0,0 +1,135 @@
+package com.example.microservice.order_service.benchmark;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.open_feign.UserClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Orders ingested per second through {@code POST /api/orders} (one order per request, {@link #CLIENTS}
+ * concurrent clients) versus {@code POST /api/orders/bulk} with {@link #BULK_SIZE} orders per request.
+ * user-service is replaced by a {@link UserClient} stub that blocks for {@link #USER_SERVICE_LATENCY} per call.
+ * <p>
+ * Run with {@code mvn test -Dtest=BulkCreateOrderBenchmark -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "eureka.client.enabled=false",
+        "outbox.relay.interval=1h",
+        "order-analytics.enabled=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN",
+        "user-loader.window=1ms"})
+class BulkCreateOrderBenchmark {
+
+    static final Duration USER_SERVICE_LATENCY = Duration.ofMillis(5);
+    static final int ORDERS = 20_000;
+    static final int CLIENTS = 50;
+    static final int BULK_SIZE = 2_000;
+    static final int USERS = 1_000;
+
+    @LocalServerPort
+    int port;
+
+    @MockitoBean
+    UserClient userClient;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @BeforeEach
+    void stubUserService() {
+        Mockito.when(userClient.getUserById(ArgumentMatchers.anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(USER_SERVICE_LATENCY);
+            return UserDto.builder().id(invocation.getArgument(0)).name("User").email("user@example.com").build();
+        });
+        Mockito.when(userClient.getUsersByIds(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            Thread.sleep(USER_SERVICE_LATENCY);
+            return invocation.<UserBatchRequest>getArgument(0).getIds().stream()
+                    .map(id -> UserDto.builder().id(id).name("User").email("user@example.com").build())
+                    .toList();
+        });
+    }
+
+    @Test
+    void measure() throws Exception {
+        // warm up JIT, connection pools and Hibernate
+        single(ORDERS / 10);
+        bulk(ORDERS / 10);
+
+        double single = single(ORDERS);
+        double bulk = bulk(ORDERS);
+        System.out.printf("%n== %d orders ==%n%-28s %10.0f orders/s%n%-28s %10.0f orders/s%nspeed-up: %.1fx%n",
+                ORDERS, "POST /api/orders", single, "POST /api/orders/bulk", bulk, bulk / single);
+    }
+
+    private double single(int orders) throws Exception {
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<Void>> workers = new ArrayList<>(CLIENTS);
+            for (int client = 0; client < CLIENTS; client++) {
+                int first = client;
+                workers.add(CompletableFuture.runAsync(() -> {
+                    for (int i = first; i < orders; i += CLIENTS) {
+                        post("/api/orders", order(i));
+                    }
+                }, clients));
+            }
+            for (CompletableFuture<Void> worker : workers) {
+                worker.get();
+            }
+        }
+        return orders / (Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0);
+    }
+
+    private double bulk(int orders) {
+        long start = System.nanoTime();
+        for (int from = 0; from < orders; from += BULK_SIZE) {
+            StringJoiner body = new StringJoiner(",", "[", "]");
+            for (int i = from; i < Math.min(orders, from + BULK_SIZE); i++) {
+                body.add(order(i));
+            }
+            post("/api/orders/bulk", body.toString());
+        }
+        return orders / (Duration.ofNanos(System.nanoTime() - start).toMillis() / 1000.0);
+    }
+
+    private static String order(int i) {
+        return "{\"userId\":" + (i % USERS) + ",\"product\":\"Laptop\",\"price\":1200.0,\"total\":1200.0}";
+    }
+
+    private void post(String path, String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.microservice.order_service.benchmark;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.open_feign.UserClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Finds the highest number of concurrent in-flight {@code POST /api/orders} requests that still meets
+ * a fixed p99, with and without {@code spring.threads.virtual.enabled}. user-service is replaced by a
+ * {@link UserClient} stub that blocks for {@link #USER_SERVICE_LATENCY}; Tomcat keeps its default
+ * 200 platform threads.
+ * <p>
+ * Run with {@code mvn test -Dtest=CreateOrderConcurrencyBenchmark* -Dbenchmark=true}; the target defaults to
+ * 300 ms and can be set with {@code -Dbenchmark.p99=PT0.5S}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CreateOrderConcurrencyBenchmark {
+
+    static final Duration USER_SERVICE_LATENCY = Duration.ofMillis(100);
+    static final Duration TARGET_P99 = Duration.parse(System.getProperty("benchmark.p99", "PT0.3S"));
+    static final int[] CONCURRENCY_LEVELS = {50, 100, 200, 400, 800, 1600};
+    static final int WAVES = 5;
+
+    static final String PROPERTIES = """
+            eureka.client.enabled=false
+            outbox.relay.interval=1h
+            spring.jpa.show-sql=false
+            logging.level.root=WARN
+            logging.level.org.springframework.web=WARN
+            user-loader.window=1ms
+            """;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {PROPERTIES, "spring.threads.virtual.enabled=false"})
+    class PlatformThreads extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("platform threads");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {PROPERTIES, "spring.threads.virtual.enabled=true"})
+    class VirtualThreads extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("virtual threads");
+        }
+    }
+
+    abstract static class Scenario {
+
+        @LocalServerPort
+        int port;
+
+        @MockitoBean
+        UserClient userClient;
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        @BeforeEach
+        void stubUserService() {
+            Mockito.when(userClient.getUserById(ArgumentMatchers.anyLong())).thenAnswer(invocation -> {
+                Thread.sleep(USER_SERVICE_LATENCY);
+                return UserDto.builder().id(invocation.getArgument(0)).name("User").email("user@example.com").build();
+            });
+            Mockito.when(userClient.getUsersByIds(ArgumentMatchers.any())).thenAnswer(invocation -> {
+                Thread.sleep(USER_SERVICE_LATENCY);
+                return invocation.<UserBatchRequest>getArgument(0).getIds().stream()
+                        .map(id -> UserDto.builder().id(id).name("User").email("user@example.com").build())
+                        .toList();
+            });
+        }
+
+        void run(String mode) throws Exception {
+            // warm up JIT, connection pools and Hibernate
+            measure(50);
+
+            int best = 0;
+            StringBuilder report = new StringBuilder("\n== POST /api/orders, " + mode + " ==\n");
+            report.append(String.format("%12s %10s %10s%n", "concurrency", "p50 ms", "p99 ms"));
+            for (int concurrency : CONCURRENCY_LEVELS) {
+                long[] latencies = measure(concurrency);
+                long p50 = percentile(latencies, 0.50);
+                long p99 = percentile(latencies, 0.99);
+                report.append(String.format("%12d %10d %10d%n", concurrency, p50, p99));
+                if (p99 <= TARGET_P99.toMillis()) {
+                    best = concurrency;
+                }
+            }
+            report.append("max in-flight at p99 <= ").append(TARGET_P99.toMillis()).append(" ms: ").append(best);
+            System.out.println(report);
+        }
+
+        private long[] measure(int concurrency) throws Exception {
+            List<Long> latencies = new ArrayList<>();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int wave = 0; wave < WAVES; wave++) {
+                    List<CompletableFuture<Long>> inFlight = new ArrayList<>(concurrency);
+                    for (int i = 0; i < concurrency; i++) {
+                        long userId = i;
+                        inFlight.add(CompletableFuture.supplyAsync(() -> post(userId), clients));
+                    }
+                    for (CompletableFuture<Long> request : inFlight) {
+                        latencies.add(request.get());
+                    }
+                }
+            }
+            return latencies.stream().mapToLong(Long::longValue).toArray();
+        }
+
+        private long post(long userId) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"userId\":" + userId + ",\"product\":\"Laptop\",\"price\":1200.0,\"total\":1200.0}"))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 201) {
+                    throw new IllegalStateException("Unexpected status " + response.statusCode());
+                }
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+            return Duration.ofNanos(System.nanoTime() - start).toMillis();
+        }
+
+        private static long percentile(long[] latencies, double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.microservice.order_service.benchmark;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.Http2;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code POST /api/orders} throughput with each Feign transport: OpenFeign's default {@code HttpURLConnection}
+ * client, the pooled Apache HttpClient 5 and the JDK HttpClient over HTTP/2. {@link #CLIENTS} closed-loop
+ * clients post orders for {@link #DURATION}; user-service is an embedded Tomcat with h2c enabled that answers
+ * {@code /api/users/**} after {@link #USER_SERVICE_LATENCY}, and reports how many calls it saw, how many came
+ * over HTTP/2 and from how many client ports, i.e. connections.
+ * <p>
+ * Run with {@code mvn test -Dtest=FeignTransportBenchmark* -Dbenchmark=true}. {@code UserBatchLoader} coalesces
+ * concurrent lookups into few calls; {@code -Dbenchmark.max-batch-size=1} sends one call per order instead, so
+ * the transport carries the full request rate.
+ * <p>
+ * On a single CPU one run of the same transport varies by a third, e.g. HttpURLConnection per call between 48
+ * and 81 orders/s. Compare transports on the median of several interleaved runs, each with
+ * {@code -Dtest=FeignTransportBenchmark$<Transport>} in its own JVM, not on one run each.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FeignTransportBenchmark {
+
+    static final Duration USER_SERVICE_LATENCY = Duration.ofMillis(2);
+    static final Duration WARMUP = Duration.ofSeconds(10);
+    static final Duration DURATION = Duration.ofSeconds(20);
+    static final int CLIENTS = 64;
+    static final int USERS = 1_000;
+    static final String MAX_BATCH_SIZE = System.getProperty("benchmark.max-batch-size", "100");
+
+    static final UserServiceStub USER_SERVICE_STUB = new UserServiceStub();
+    static final WebServer USER_SERVICE = userService();
+
+    static final String PROPERTIES = """
+            eureka.client.enabled=false
+            outbox.relay.interval=1h
+            order-analytics.enabled=false
+            spring.jpa.show-sql=false
+            logging.level.root=WARN
+            logging.level.org.springframework.web=WARN
+            user-loader.window=1ms
+            user-client.bulkhead.max-concurrent-calls=256
+            """;
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+            properties = {PROPERTIES, "spring.cloud.openfeign.httpclient.hc5.enabled=false"})
+    class HttpUrlConnection extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("HttpURLConnection");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = PROPERTIES)
+    class ApacheHttpClient5 extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("Apache HttpClient 5");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {PROPERTIES,
+            "spring.cloud.openfeign.httpclient.hc5.enabled=false",
+            "spring.cloud.openfeign.http2client.enabled=true"})
+    class JdkHttp2 extends Scenario {
+        @Test
+        void measure() throws Exception {
+            run("JDK HttpClient, HTTP/2");
+        }
+    }
+
+    abstract static class Scenario {
+
+        @LocalServerPort
+        int port;
+
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        @DynamicPropertySource
+        static void userService(DynamicPropertyRegistry registry) {
+            registry.add("spring.cloud.discovery.client.simple.instances.user-service[0].uri",
+                    () -> "http://localhost:" + USER_SERVICE.getPort());
+            registry.add("user-loader.max-batch-size", () -> MAX_BATCH_SIZE);
+        }
+
+        void run(String transport) throws Exception {
+            // warm up JIT, connection pools and Hibernate
+            measure(WARMUP);
+            USER_SERVICE_STUB.reset();
+
+            long[] latencies = measure(DURATION);
+            StringBuilder report = new StringBuilder("\n== POST /api/orders, Feign on " + transport
+                    + ", user-loader.max-batch-size=" + MAX_BATCH_SIZE + " ==\n");
+            report.append(String.format("%10s %8s %8s %14s %8s %14s%n",
+                    "orders/s", "p50 ms", "p99 ms", "user calls", "HTTP/2", "client ports"));
+            report.append(String.format("%10.0f %8.1f %8.1f %14d %7.0f%% %14d",
+                    latencies.length / (DURATION.toNanos() / 1e9),
+                    percentile(latencies, 0.50) / 1e6,
+                    percentile(latencies, 0.99) / 1e6,
+                    USER_SERVICE_STUB.requests.sum(),
+                    100.0 * USER_SERVICE_STUB.http2Requests.sum() / Math.max(1, USER_SERVICE_STUB.requests.sum()),
+                    USER_SERVICE_STUB.clientPorts.size()));
+            System.out.println(report);
+        }
+
+        private long[] measure(Duration duration) throws Exception {
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<List<Long>>> clients = new ArrayList<>(CLIENTS);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CLIENTS; i++) {
+                    clients.add(executor.submit(() -> {
+                        List<Long> latencies = new ArrayList<>();
+                        while (System.nanoTime() < deadline) {
+                            latencies.add(post(ThreadLocalRandom.current().nextLong(1, USERS + 1)));
+                        }
+                        return latencies;
+                    }));
+                }
+                List<Long> latencies = new ArrayList<>();
+                for (Future<List<Long>> client : clients) {
+                    latencies.addAll(client.get());
+                }
+                return latencies.stream().mapToLong(Long::longValue).toArray();
+            }
+        }
+
+        private long post(long userId) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"userId\":" + userId + ",\"product\":\"Laptop\",\"price\":1200.0,\"total\":1200.0}"))
+                    .build();
+            long start = System.nanoTime();
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Unexpected status " + response.statusCode());
+            }
+            return System.nanoTime() - start;
+        }
+
+        private static long percentile(long[] latencies, double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+    }
+
+    private static WebServer userService() {
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        Http2 http2 = new Http2();
+        http2.setEnabled(true);
+        factory.setHttp2(http2);
+        WebServer server = factory.getWebServer(context ->
+                context.addServlet("user-service", USER_SERVICE_STUB).addMapping("/api/users/*"));
+        server.start();
+        return server;
+    }
+
+    // GET /api/users/{id} and POST /api/users/batch, every id exists
+    static final class UserServiceStub extends HttpServlet {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+        final LongAdder requests = new LongAdder();
+        final LongAdder http2Requests = new LongAdder();
+        final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+        void reset() {
+            requests.reset();
+            http2Requests.reset();
+            clientPorts.clear();
+        }
+
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            requests.increment();
+            if ("HTTP/2.0".equals(request.getProtocol())) {
+                http2Requests.increment();
+            }
+            clientPorts.add(request.getRemotePort());
+            try {
+                Thread.sleep(USER_SERVICE_LATENCY);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            super.service(request, response);
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            long id = Long.parseLong(request.getPathInfo().substring(1));
+            write(response, user(id));
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            UserBatchRequest batch = objectMapper.readValue(request.getInputStream(), UserBatchRequest.class);
+            write(response, batch.getIds().stream().map(UserServiceStub::user).toList());
+        }
+
+        private void write(HttpServletResponse response, Object body) throws IOException {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            response.setContentType("application/json");
+            response.setContentLength(json.length);
+            response.getOutputStream().write(json);
+        }
+
+        private static UserDto user(long id) {
+            return UserDto.builder().id(id).name("User").email("user" + id + "@example.com").build();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.microservice.order_service.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FeignTransportConfigTest {
+
+    private final FeignTransportConfig config = new FeignTransportConfig();
+
+    private SimpleMeterRegistry meterRegistry;
+    private HttpServer userService;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        userService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        userService.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        userService.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(20)
+                .setMaxConnPerRoute(5)
+                .build();
+        HttpClientBuilder builder = HttpClientBuilder.create().setConnectionManager(connectionManager);
+        config.feignConnectionPoolCustomizer(meterRegistry, Duration.ofSeconds(30)).customize(builder);
+        config.feignConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+        httpClient = builder.build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        userService.stop(0);
+    }
+
+    double requests(String connection) {
+        return meterRegistry.get("feign.client.requests").tag("connection", connection).counter().count();
+    }
+
+    @Test
+    void When_SequentialRequests_Expect_OneConnectionOpenedThenReused() throws Exception {
+        // TODO: Arrange
+        HttpGet request = new HttpGet("http://localhost:" + userService.getAddress().getPort() + "/api/users/1");
+
+        // TODO: Act
+        for (int i = 0; i < 3; i++) {
+            httpClient.execute(request, response -> EntityUtils.toString(response.getEntity()));
+        }
+
+        // TODO: Assert
+        assertEquals(1.0, requests("new"));
+        assertEquals(2.0, requests("reused"));
+        assertEquals(1.0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", FeignTransportConfig.POOL_NAME).tag("state", "available").gauge().value());
+        assertEquals(0.0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("state", "leased").gauge().value());
+    }
+
+    @Test
+    void When_PoolBound_Expect_LimitsExported() {
+        // TODO: Arrange, Act: the pool is bound in setUp
+
+        // TODO: Assert
+        assertEquals(20.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", FeignTransportConfig.POOL_NAME).gauge().value());
+        assertEquals(5.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value());
+        assertEquals(0.0, meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value());
+    }
+}
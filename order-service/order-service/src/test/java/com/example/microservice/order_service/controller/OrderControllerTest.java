@@ -10,6 +10,9 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,6 +20,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 
 @WebMvcTest(OrderController.class)
@@ -72,6 +76,33 @@ class OrderControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.product").value("Laptop"));
     }
 
+    @Test
+    void When_CreateOrdersInBulk_Expect_ReturnCreatedOrders() throws Exception {
+        // TODO Arrange
+        Mockito.when(orderService.createOrders(ArgumentMatchers.anyList())).thenReturn(List.of(testResponse, testResponse));
+
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(testOrder, testOrder))))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void When_CreateOrdersInBulkEmptyOrWithoutUser_Expect_BadRequest() throws Exception {
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"product\":\"Laptop\"}]"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(orderService);
+    }
+
     @Test
     void When_GetOrderById_Expect_ReturnOrderResponse() throws Exception {
         // TODO Arrange
@@ -88,15 +119,95 @@ class OrderControllerTest {
     void When_GetOrdersByUserId_Expect_ReturnListOfOrders() throws Exception {
         // TODO Arrange
         List<OrderResponse> responses = List.of(testResponse);
-        Mockito.when(orderService.getOrdersByUserId(100L)).thenReturn(responses);
+        Mockito.when(orderService.getOrdersByUserIdAfter(100L, 0L, 100)).thenReturn(responses);
 
         // TODO Act & Assert
         mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L))
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("Deprecation"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].product").value("Laptop"));
     }
 
+    @Test
+    void When_GetOrdersByUserIdWithAll_Expect_EveryOrderAcrossKeysetPagesAndDeprecation() throws Exception {
+        // TODO Arrange
+        Mockito.when(orderService.getOrdersByUserIdAfter(100L, 0L, 1000)).thenReturn(Collections.nCopies(1000, testResponse));
+        Mockito.when(orderService.getOrdersByUserIdAfter(100L, 1L, 1000)).thenReturn(List.of(testResponse));
+
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("all", "true"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"))
+                .andExpect(MockMvcResultMatchers.header().string("Deprecation", "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(1001));
+    }
+
+    @Test
+    void When_GetOrdersByUserIdWithAllAndSize_Expect_BadRequest() throws Exception {
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("all", "true")
+                        .param("size", "10"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void When_GetOrdersByUserIdWithoutSize_Expect_DefaultPageWithNextCursor() throws Exception {
+        // TODO Arrange
+        Mockito.when(orderService.getOrdersByUserIdAfter(100L, 5L, 100)).thenReturn(Collections.nCopies(100, testResponse));
+
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("afterId", "5"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(100));
+        Mockito.verify(orderService, Mockito.never()).getOrdersByUserIdAfter(ArgumentMatchers.eq(100L), ArgumentMatchers.any(), ArgumentMatchers.eq(1000));
+    }
+
+    @Test
+    void When_GetOrdersByUserIdFullKeysetPage_Expect_NextCursorHeader() throws Exception {
+        // TODO Arrange
+        Mockito.when(orderService.getOrdersByUserIdAfter(100L, 5L, 1)).thenReturn(List.of(testResponse));
+
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("afterId", "5")
+                        .param("size", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "1"));
+    }
+
+    @Test
+    void When_GetOrdersByUserIdWithPageAndSort_Expect_OffsetPageWithIdTiebreakAndTotalCount() throws Exception {
+        // TODO Arrange
+        PageRequest pageRequest = PageRequest.of(2, 10, Sort.by(Sort.Order.desc("total"), Sort.Order.asc("id")));
+        Mockito.when(orderService.getOrdersByUserId(100L, pageRequest))
+                .thenReturn(new PageImpl<>(List.of(testResponse), pageRequest, 21));
+
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("page", "2")
+                        .param("size", "10")
+                        .param("sort", "total,desc"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Total-Count", "21"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].product").value("Laptop"));
+    }
+
+    @Test
+    void When_GetOrdersByUserIdSortedByUnknownProperty_Expect_BadRequest() throws Exception {
+        // TODO Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/user/{userId}", 100L)
+                        .param("sort", "userId"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        Mockito.verifyNoInteractions(orderService);
+    }
+
     @Test
     void When_UpdateOrderStatus_Expect_ReturnUpdatedOrder() throws Exception {
         // TODO Arrange
@@ -0,0 +1,150 @@
+package com.example.microservice.order_service.event;
+
+import com.example.microservice.order_service.model.OutboxEvent;
+import com.example.microservice.order_service.repository.OutboxEventRepository;
+import com.example.microservice.order_service.repository.OutboxRelayLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxRelayLeaseRepository leaseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        outboxRelay = new OutboxRelay(outboxEventRepository, leaseRepository, transactionManager, kafkaTemplate,
+                meterRegistry, 2, Duration.ofSeconds(1));
+        Mockito.lenient().when(transactionManager.getTransaction(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> new SimpleTransactionStatus());
+        Mockito.lenient().when(leaseRepository.tryLock(OutboxRelay.LEASE)).thenReturn(Optional.of(OutboxRelay.LEASE));
+    }
+
+    @Test
+    void When_WholeBatchAcknowledged_Expect_DeleteRowsAndFetchNextBatch() {
+        // TODO: Arrange
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        OutboxEvent third = event(3L);
+        Mockito.when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2)))
+                .thenReturn(List.of(first, second))
+                .thenReturn(List.of(third));
+        Mockito.when(kafkaTemplate.send(ArgumentMatchers.<ProducerRecord<String, String>>any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+
+        // TODO: Act
+        outboxRelay.relay();
+
+        // TODO: Assert
+        Mockito.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        Mockito.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(3L));
+        Mockito.verify(kafkaTemplate, Mockito.times(2)).flush();
+        ArgumentCaptor<ProducerRecord<String, String>> sent = ArgumentCaptor.captor();
+        Mockito.verify(kafkaTemplate, Mockito.times(3)).send(sent.capture());
+        assertEquals("2", new String(sent.getAllValues().get(1).headers().lastHeader(OutboxRelay.EVENT_ID_HEADER).value(),
+                StandardCharsets.UTF_8));
+        Mockito.verify(transactionManager, Mockito.times(2)).commit(ArgumentMatchers.any());
+        assertEquals(3.0, meterRegistry.get("outbox.relay.published").counter().count());
+    }
+
+    @Test
+    void When_SendFails_Expect_KeepFailedRowAndStopDraining() {
+        // TODO: Arrange
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        Mockito.when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(first, second));
+        Mockito.when(kafkaTemplate.send(keyed("1")))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+        Mockito.when(kafkaTemplate.send(keyed("2")))
+                .thenAnswer(invocation -> CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // TODO: Act
+        outboxRelay.relay();
+
+        // TODO: Assert
+        Mockito.verify(outboxEventRepository).deleteAllByIdInBatch(List.of(1L));
+        Mockito.verify(outboxEventRepository, Mockito.times(1)).findAllByOrderByIdAsc(Limit.of(2));
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    void When_EarlierSendFails_Expect_KeepFailedAndLaterRows() {
+        // TODO: Arrange
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        Mockito.when(outboxEventRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(first, second));
+        Mockito.when(kafkaTemplate.send(keyed("1")))
+                .thenAnswer(invocation -> CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        Mockito.when(kafkaTemplate.send(keyed("2")))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(null));
+
+        // TODO: Act
+        outboxRelay.relay();
+
+        // TODO: Assert
+        Mockito.verify(outboxEventRepository, Mockito.never()).deleteAllByIdInBatch(ArgumentMatchers.any());
+        assertEquals(0.0, meterRegistry.get("outbox.relay.published").counter().count());
+        assertEquals(2.0, meterRegistry.get("outbox.relay.failed").counter().count());
+    }
+
+    @Test
+    void When_LeaseHeldByAnotherRelay_Expect_NothingReadOrSent() {
+        // TODO: Arrange
+        Mockito.when(leaseRepository.tryLock(OutboxRelay.LEASE)).thenReturn(Optional.empty());
+
+        // TODO: Act
+        outboxRelay.relay();
+
+        // TODO: Assert
+        Mockito.verifyNoInteractions(outboxEventRepository, kafkaTemplate);
+    }
+
+    private static ProducerRecord<String, String> keyed(String key) {
+        return ArgumentMatchers.argThat(record -> record != null && key.equals(record.key()));
+    }
+
+    private OutboxEvent event(Long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("order-creation")
+                .messageKey(String.valueOf(id))
+                .payload("{}")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
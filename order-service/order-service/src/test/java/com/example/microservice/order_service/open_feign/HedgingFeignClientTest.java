@@ -0,0 +1,175 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.shared.hedging.HedgingPolicy;
+import com.example.microservice.shared.loadbalancer.PeakEwmaStats;
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import feign.Target;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.loadbalancer.support.ServiceInstanceListSuppliers;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingFeignClientTest {
+
+    static final long MS = Duration.ofMillis(1).toNanos();
+    static final Duration SLOW = Duration.ofMillis(500);
+
+    @Mock
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @Mock
+    private PeakEwmaStats peakEwmaStats;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // answers with its own host name, after SLOW on host "slow"
+    private final Client replicas = (request, options) -> {
+        String host = URI.create(request.url()).getHost();
+        if (host.equals("slow")) {
+            try {
+                Thread.sleep(SLOW);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Response.builder()
+                .status(200)
+                .request(request)
+                .headers(Map.of())
+                .body(host, StandardCharsets.UTF_8)
+                .build();
+    };
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    HedgingFeignClient client(HedgingPolicy policy) {
+        return new HedgingFeignClient(replicas, loadBalancerClientFactory, serviceId -> policy, peakEwmaStats);
+    }
+
+    HedgingPolicy primedPolicy(double budgetRatio) {
+        HedgingPolicy policy = new HedgingPolicy(Tags.of("client", "user-service"), meterRegistry, 0.95, Duration.ofMillis(20), budgetRatio);
+        for (int i = 0; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            policy.record(MS);
+        }
+        return policy;
+    }
+
+    void stubInstances() {
+        ServiceInstanceListSupplier supplier = ServiceInstanceListSuppliers.from("user-service",
+                new DefaultServiceInstance("slow-1", "user-service", "slow", 8081, false),
+                new DefaultServiceInstance("fast-1", "user-service", "fast", 8081, false));
+        Mockito.when(loadBalancerClientFactory.getInstance("user-service", ServiceInstanceListSupplier.class)).thenReturn(supplier);
+    }
+
+    static Request request(Request.HttpMethod method) {
+        RequestTemplate template = new RequestTemplate();
+        template.feignTarget(new Target.HardCodedTarget<>(UserClient.class, "user-service", "http://user-service"));
+        return Request.create(method, "http://slow:8081/api/users/1", Map.of(), null, StandardCharsets.UTF_8, template);
+    }
+
+    static String body(Response response) throws Exception {
+        return new String(response.body().asInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void When_ChosenInstanceSlow_Expect_HedgeToOtherInstanceAnswers() throws Exception {
+        // TODO: Arrange
+        HedgingPolicy policy = primedPolicy(1.0);
+        stubInstances();
+
+        // TODO: Act
+        long start = System.nanoTime();
+        Response response = client(policy).execute(request(Request.HttpMethod.GET), new Request.Options());
+        long elapsed = System.nanoTime() - start;
+
+        // TODO: Assert
+        assertEquals("fast", body(response));
+        assertTrue(elapsed < SLOW.toNanos(), "took " + elapsed / MS + " ms");
+        assertEquals(Duration.ofMillis(20).toNanos(), policy.delayNanos());
+        assertEquals(1.0, meterRegistry.get("hedging.hedges").counter().count());
+        assertEquals(1.0, meterRegistry.get("hedging.win.rate").gauge().value());
+    }
+
+    @Test
+    void When_HedgeSent_Expect_CountedInPeakEwmaStatsOfOtherInstance() throws Exception {
+        // TODO: Arrange
+        HedgingPolicy policy = primedPolicy(1.0);
+        stubInstances();
+        PeakEwmaStats.Attempt attempt = Mockito.mock(PeakEwmaStats.Attempt.class);
+        Mockito.when(peakEwmaStats.start(Mockito.argThat(instance -> instance.getHost().equals("fast")))).thenReturn(attempt);
+
+        // TODO: Act
+        client(policy).execute(request(Request.HttpMethod.GET), new Request.Options());
+
+        // TODO: Assert
+        Mockito.verify(attempt, Mockito.timeout(1000)).complete(false);
+    }
+
+    @Test
+    void When_BudgetSpent_Expect_WaitForChosenInstance() throws Exception {
+        // TODO: Arrange
+        HedgingPolicy policy = primedPolicy(0.0);
+        stubInstances();
+
+        // TODO: Act
+        Response response = client(policy).execute(request(Request.HttpMethod.GET), new Request.Options());
+
+        // TODO: Assert
+        assertEquals("slow", body(response));
+        assertEquals(0.0, meterRegistry.get("hedging.hedges").counter().count());
+        assertEquals(1.0, meterRegistry.get("hedging.requests").counter().count());
+    }
+
+    @Test
+    void When_NotGet_Expect_SentOnceWithoutHedging() throws Exception {
+        // TODO: Arrange
+        HedgingPolicy policy = primedPolicy(1.0);
+
+        // TODO: Act
+        Response response = client(policy).execute(request(Request.HttpMethod.POST), new Request.Options());
+
+        // TODO: Assert
+        assertEquals("slow", body(response));
+        assertEquals(0.0, meterRegistry.get("hedging.requests").counter().count());
+        Mockito.verifyNoInteractions(loadBalancerClientFactory);
+    }
+
+    @Test
+    void When_FewerAnswersThanMinimum_Expect_NoHedgeDelay() {
+        // TODO: Arrange
+        HedgingPolicy policy = new HedgingPolicy(Tags.of("client", "user-service"), meterRegistry, 0.5, Duration.ZERO, 1.0);
+
+        // TODO: Act
+        for (int i = 1; i < HedgingPolicy.MIN_SAMPLES; i++) {
+            policy.record(i * MS);
+        }
+        long before = policy.begin();
+        policy.record(HedgingPolicy.MIN_SAMPLES * MS);
+
+        // TODO: Assert
+        assertEquals(-1, before);
+        assertEquals(HedgingPolicy.MIN_SAMPLES / 2 * MS, policy.begin());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientUserClientTest {
+
+    static final Request REQUEST = Request.create(Request.HttpMethod.GET, "/api/users/1", Map.of(), null,
+            StandardCharsets.UTF_8, null);
+
+    @Mock
+    private UserClient userClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResilientUserClient resilientUserClient;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        resilientUserClient = new ResilientUserClient(userClient, meterRegistry,
+                CircuitBreakerConfig.custom()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .failureRateThreshold(50)
+                        .waitDurationInOpenState(Duration.ofMinutes(1))
+                        .ignoreExceptions(FeignException.FeignClientException.class)
+                        .build(),
+                BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build(),
+                Caffeine.newBuilder().build());
+        userDto = UserDto.builder().id(1L).name("User One").email("one@example.com").build();
+    }
+
+    @Test
+    void When_UserServiceFailsAfterUserSeen_Expect_LastKnownCopyServed() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(1L))
+                .thenReturn(userDto)
+                .thenThrow(new FeignException.InternalServerError("boom", REQUEST, null, Map.of()));
+        resilientUserClient.getUsers(List.of(1L));
+
+        // TODO: Act
+        Map<Long, UserDto> users = resilientUserClient.getUsers(List.of(1L));
+
+        // TODO: Assert
+        assertEquals(Map.of(1L, userDto), users);
+        assertEquals(1.0, meterRegistry.get("user.client.stale.served").counter().count());
+    }
+
+    @Test
+    void When_UserServiceFailsForNeverSeenUser_Expect_UserServiceUnavailableException() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(2L))
+                .thenThrow(new FeignException.ServiceUnavailable("down", REQUEST, null, Map.of()));
+
+        // TODO: Act
+        UserServiceUnavailableException ex = assertThrows(UserServiceUnavailableException.class,
+                () -> resilientUserClient.getUsers(List.of(2L)));
+
+        // TODO: Assert
+        assertTrue(ex.getMessage().contains("[2]"));
+        assertTrue(ex.getLastKnown().isEmpty());
+    }
+
+    @Test
+    void When_FailureRateExceeded_Expect_CircuitOpensAndCallsFailFast() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(1L))
+                .thenThrow(new FeignException.ServiceUnavailable("down", REQUEST, null, Map.of()));
+        for (int i = 0; i < 4; i++) {
+            assertThrows(UserServiceUnavailableException.class, () -> resilientUserClient.getUsers(List.of(1L)));
+        }
+
+        // TODO: Act
+        assertThrows(UserServiceUnavailableException.class, () -> resilientUserClient.getUsers(List.of(1L)));
+
+        // TODO: Assert
+        assertEquals(CircuitBreaker.State.OPEN, resilientUserClient.state());
+        Mockito.verify(userClient, Mockito.times(4)).getUserById(1L);
+    }
+
+    @Test
+    void When_SingleUserNotFound_Expect_LeftOutLikeInBatch() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(404L))
+                .thenThrow(new FeignException.NotFound("missing", REQUEST, null, Map.of()));
+
+        // TODO: Act & Assert
+        assertEquals(Map.of(), resilientUserClient.getUsers(List.of(404L)));
+        assertEquals(CircuitBreaker.State.CLOSED, resilientUserClient.state());
+    }
+
+    @Test
+    void When_UnknownIdsFillWindow_Expect_CircuitStaysClosedAndKeepsCalling() {
+        // TODO: Arrange
+        // user-service answers 404 for an unknown id, which Feign raises as NotFound
+        Mockito.when(userClient.getUserById(404L))
+                .thenThrow(new FeignException.NotFound("missing", REQUEST, null, Map.of()));
+
+        // TODO: Act
+        for (int i = 0; i < 8; i++) {
+            assertEquals(Map.of(), resilientUserClient.getUsers(List.of(404L)));
+        }
+
+        // TODO: Assert
+        assertEquals(CircuitBreaker.State.CLOSED, resilientUserClient.state());
+        Mockito.verify(userClient, Mockito.times(8)).getUserById(404L);
+        assertEquals(0.0, meterRegistry.get("user.client.stale.served").counter().count());
+    }
+
+    @Test
+    void When_ClientError_Expect_PropagatedWithoutCountingAgainstCircuit() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(400L))
+                .thenThrow(new FeignException.BadRequest("invalid", REQUEST, null, Map.of()));
+
+        // TODO: Act
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.BadRequest.class, () -> resilientUserClient.getUsers(List.of(400L)));
+        }
+
+        // TODO: Assert
+        assertEquals(CircuitBreaker.State.CLOSED, resilientUserClient.state());
+    }
+
+    @Test
+    void When_BulkheadFull_Expect_RejectedWithoutCallingUserService() throws Exception {
+        // TODO: Arrange
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(userClient.getUserById(1L)).thenAnswer(invocation -> {
+            entered.countDown();
+            release.await();
+            return userDto;
+        });
+        CompletableFuture<Map<Long, UserDto>> slow = CompletableFuture.supplyAsync(() -> resilientUserClient.getUsers(List.of(1L)));
+        entered.await();
+
+        // TODO: Act
+        assertThrows(UserServiceUnavailableException.class, () -> resilientUserClient.getUsers(List.of(3L)));
+        release.countDown();
+
+        // TODO: Assert
+        assertEquals(Map.of(1L, userDto), slow.get());
+        Mockito.verify(userClient, Mockito.never()).getUserById(ArgumentMatchers.eq(3L));
+    }
+}
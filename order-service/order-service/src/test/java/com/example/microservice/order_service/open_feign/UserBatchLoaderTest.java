@@ -0,0 +1,186 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserBatchRequest;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import feign.FeignException;
+import feign.Request;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserBatchLoaderTest {
+
+    static final Request REQUEST = Request.create(Request.HttpMethod.GET, "/api/users/404", Map.of(), null,
+            StandardCharsets.UTF_8, null);
+    static final Request BATCH_REQUEST = Request.create(Request.HttpMethod.POST, "/api/users/batch", Map.of(), null,
+            StandardCharsets.UTF_8, null);
+
+    @Mock
+    private UserClient userClient;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserBatchLoader userBatchLoader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ResilientUserClient resilientUserClient = new ResilientUserClient(userClient, meterRegistry,
+                CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults(), Caffeine.newBuilder().build());
+        userBatchLoader = new UserBatchLoader(resilientUserClient, meterRegistry, Duration.ofMillis(50), 100, 2, false, 100, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userBatchLoader.shutdown();
+    }
+
+    @Test
+    void When_ConcurrentLoadsWithinWindow_Expect_OneBatchedCallWithDistinctIds() {
+        // TODO: Arrange
+        UserDto first = UserDto.builder().id(1L).name("User One").email("one@example.com").build();
+        UserDto second = UserDto.builder().id(2L).name("User Two").email("two@example.com").build();
+        Mockito.when(userClient.getUsersByIds(new UserBatchRequest(Set.of(1L, 2L)))).thenReturn(List.of(first, second));
+
+        // TODO: Act
+        CompletableFuture<UserDto> a = userBatchLoader.load(1L);
+        CompletableFuture<UserDto> b = userBatchLoader.load(1L);
+        CompletableFuture<UserDto> c = userBatchLoader.load(2L);
+
+        // TODO: Assert
+        assertSame(a, b);
+        assertEquals(first, a.join());
+        assertEquals(second, c.join());
+        Mockito.verify(userClient, Mockito.times(1)).getUsersByIds(ArgumentMatchers.any());
+        Mockito.verify(userClient, Mockito.never()).getUserById(ArgumentMatchers.anyLong());
+        assertEquals(1.0, meterRegistry.get("user.loader.coalesced").counter().count());
+        assertEquals(2.0, meterRegistry.get("user.loader.batch.size").summary().totalAmount());
+        assertEquals(1.0 / 3, meterRegistry.get("user.loader.coalescing.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void When_SingleLoad_Expect_UseSingleUserEndpoint() {
+        // TODO: Arrange
+        UserDto user = UserDto.builder().id(7L).name("User Seven").email("seven@example.com").build();
+        Mockito.when(userClient.getUserById(7L)).thenReturn(user);
+
+        // TODO: Act & Assert
+        assertEquals(user, userBatchLoader.getUserById(7L));
+        Mockito.verify(userClient, Mockito.never()).getUsersByIds(ArgumentMatchers.any());
+    }
+
+    @Test
+    void When_SingleLoadOfUnknownUser_Expect_ThrowEntityNotFoundException() {
+        // TODO: Arrange
+        Mockito.when(userClient.getUserById(404L))
+                .thenThrow(new FeignException.NotFound("missing", REQUEST, null, Map.of()));
+
+        // TODO: Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> userBatchLoader.getUserById(404L));
+    }
+
+    @Test
+    void When_UserServiceHangsPastClientTimeout_Expect_UnavailableWithoutBlocking() throws Exception {
+        // TODO: Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(userClient.getUserById(9L)).thenAnswer(invocation -> {
+            release.await();
+            return UserDto.builder().id(9L).build();
+        });
+
+        // TODO: Act
+        long start = System.nanoTime();
+        try {
+            assertThrows(UserServiceUnavailableException.class, () -> userBatchLoader.getUserById(9L));
+        } finally {
+            release.countDown();
+        }
+
+        // TODO: Assert
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(2).toNanos());
+    }
+
+    @Test
+    void When_IdMissingFromBatchResult_Expect_ThrowEntityNotFoundException() {
+        // TODO: Arrange
+        UserDto first = UserDto.builder().id(1L).build();
+        Mockito.when(userClient.getUsersByIds(ArgumentMatchers.any())).thenReturn(List.of(first));
+
+        // TODO: Act
+        CompletableFuture<UserDto> found = userBatchLoader.load(1L);
+        CompletableFuture<UserDto> missing = userBatchLoader.load(404L);
+
+        // TODO: Assert
+        assertEquals(first, found.join());
+        CompletionException ex = assertThrows(CompletionException.class, missing::join);
+        assertInstanceOf(EntityNotFoundException.class, ex.getCause());
+    }
+
+    @Test
+    void When_GetUsersByIdsAboveCallLimit_Expect_DistinctIdsInCallsOfAtMost500() {
+        // TODO: Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 600; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        Mockito.when(userClient.getUsersByIds(ArgumentMatchers.any())).thenAnswer(invocation ->
+                invocation.<UserBatchRequest>getArgument(0).getIds().stream()
+                        .filter(id -> id != 600L)
+                        .map(id -> UserDto.builder().id(id).build())
+                        .toList());
+
+        // TODO: Act
+        Map<Long, UserDto> users = userBatchLoader.getUsersByIds(ids);
+
+        // TODO: Assert
+        assertEquals(599, users.size());
+        assertFalse(users.containsKey(600L));
+        Mockito.verify(userClient, Mockito.times(2)).getUsersByIds(ArgumentMatchers.any());
+        assertEquals(500.0, meterRegistry.get("user.loader.batch.size").summary().max());
+    }
+
+    @Test
+    void When_UserServiceFailsAndOnlySomeUsersKnown_Expect_KnownServedAndOthersUnavailable() {
+        // TODO: Arrange
+        UserDto known = UserDto.builder().id(1L).name("User One").build();
+        FeignException down = new FeignException.ServiceUnavailable("down", BATCH_REQUEST, null, Map.of());
+        Mockito.when(userClient.getUserById(1L)).thenReturn(known).thenThrow(down);
+        userBatchLoader.getUserById(1L);
+        // the same outcome whether both loads land in one window or not
+        Mockito.lenient().when(userClient.getUserById(2L)).thenThrow(down);
+        Mockito.lenient().when(userClient.getUsersByIds(ArgumentMatchers.any())).thenThrow(down);
+
+        // TODO: Act
+        CompletableFuture<UserDto> stale = userBatchLoader.load(1L);
+        CompletableFuture<UserDto> unknown = userBatchLoader.load(2L);
+
+        // TODO: Assert
+        assertEquals(known, stale.join());
+        CompletionException ex = assertThrows(CompletionException.class, unknown::join);
+        assertInstanceOf(UserServiceUnavailableException.class, ex.getCause());
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.microservice.order_service.open_feign;
+
+import com.example.microservice.order_service.dto.UserDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEnricherTest {
+
+    @Mock
+    private UserBatchLoader userBatchLoader;
+
+    @Mock
+    private ResilientUserClient userClient;
+
+    private UserEnricher userEnricher;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        userEnricher = new UserEnricher(userBatchLoader, userClient, new SimpleMeterRegistry(),
+                Duration.ofMillis(20), Duration.ofMinutes(1), 100);
+        userDto = UserDto.builder().id(100L).name("User One").email("user@example.com").build();
+    }
+
+    @Test
+    void When_UserResolvedOnce_Expect_SecondPrefetchServedFromCache() {
+        // TODO: Arrange
+        Mockito.when(userBatchLoader.load(100L)).thenReturn(CompletableFuture.completedFuture(userDto));
+
+        // TODO: Act
+        UserDto first = userEnricher.await(userEnricher.prefetch(100L), 100L);
+        UserDto second = userEnricher.await(userEnricher.prefetch(100L), 100L);
+
+        // TODO: Assert
+        assertEquals(userDto, first);
+        assertEquals(userDto, second);
+        Mockito.verify(userBatchLoader, Mockito.times(1)).load(100L);
+    }
+
+    @Test
+    void When_LookupExceedsBudget_Expect_ReturnLastKnownUser() {
+        // TODO: Arrange
+        Mockito.when(userBatchLoader.load(100L)).thenReturn(new CompletableFuture<>());
+        Mockito.when(userClient.getLastKnown(100L)).thenReturn(Optional.of(userDto));
+
+        // TODO: Act
+        UserDto user = userEnricher.await(userEnricher.prefetch(100L), 100L);
+
+        // TODO: Assert
+        assertEquals(userDto, user);
+    }
+
+    @Test
+    void When_LookupFailsForNeverSeenUser_Expect_NoUser() {
+        // TODO: Arrange
+        Mockito.when(userBatchLoader.load(100L)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+        Mockito.when(userClient.getLastKnown(100L)).thenReturn(Optional.empty());
+
+        // TODO: Act
+        UserDto user = userEnricher.await(userEnricher.prefetch(100L), 100L);
+
+        // TODO: Assert
+        assertNull(user);
+    }
+}
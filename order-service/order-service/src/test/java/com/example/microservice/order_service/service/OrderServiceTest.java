@@ -2,12 +2,16 @@ package com.example.microservice.order_service.service;
 
 
 import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.config.TopicConfig;
 import com.example.microservice.order_service.event.OrderPlacedEvent;
+import com.example.microservice.order_service.event.OrderStatusChangedEvent;
+import com.example.microservice.order_service.event.OutboxPublisher;
 import com.example.microservice.order_service.mapper.OrderMapper;
 import com.example.microservice.order_service.model.Order;
 import com.example.microservice.order_service.model.Order.OrderStatus;
 import com.example.microservice.order_service.model.OrderResponse;
-import com.example.microservice.order_service.open_feign.UserClient;
+import com.example.microservice.order_service.open_feign.UserBatchLoader;
+import com.example.microservice.order_service.open_feign.UserEnricher;
 import com.example.microservice.order_service.repository.OrderRepository;
 import com.example.microservice.order_service.service.impl.OrderServiceImpl;
 import jakarta.persistence.EntityNotFoundException;
@@ -19,11 +23,17 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,10 +48,13 @@ class OrderServiceImplTest {
     private OrderMapper orderMapper;
 
     @Mock
-    private KafkaTemplate<String, OrderPlacedEvent> kafkaTemplate;
+    private OutboxPublisher outboxPublisher;
 
     @Mock
-    private UserClient userClient;
+    private UserBatchLoader userBatchLoader;
+
+    @Mock
+    private UserEnricher userEnricher;
 
     @InjectMocks
     private OrderServiceImpl orderService;
@@ -92,34 +105,71 @@ class OrderServiceImplTest {
 
     // ===================== createOrder =====================
     @Test
-    void When_CreateOrderWithValidData_Expect_ReturnOrderResponseAndSendEvent() {
+    void When_CreateOrderWithValidData_Expect_ReturnOrderResponseAndQueueEvent() {
         // Arrange
-        Mockito.when(userClient.getUserById(inputOrder.getUserId())).thenReturn(userDto);
+        Mockito.when(userBatchLoader.getUserById(inputOrder.getUserId())).thenReturn(userDto);
         Mockito.when(orderRepository.save(ArgumentMatchers.any(Order.class))).thenReturn(savedOrder);
         Mockito.when(orderMapper.toOrderResponse(savedOrder)).thenReturn(orderResponse);
 
-        // Mock kafka send - let Mockito infer the return type
-        Mockito.when(kafkaTemplate.send(ArgumentMatchers.anyString(), ArgumentMatchers.any()))
-                .thenAnswer(invocation -> CompletableFuture.completedFuture(null));
-
         // Act
         OrderResponse result = orderService.createOrder(inputOrder);
 
         // Assert
         assertNotNull(result);
         assertEquals(orderResponse, result);
-        Mockito.verify(userClient, Mockito.times(1)).getUserById(inputOrder.getUserId());
+        Mockito.verify(userBatchLoader, Mockito.times(1)).getUserById(inputOrder.getUserId());
         Mockito.verify(orderRepository, Mockito.times(1)).save(ArgumentMatchers.any(Order.class));
-        Mockito.verify(kafkaTemplate, Mockito.times(1)).send(ArgumentMatchers.anyString(), ArgumentMatchers.any());
+        Mockito.verify(outboxPublisher, Mockito.times(1)).enqueue(TopicConfig.TOPIC_CREATE_ORDER, "1",
+                new OrderPlacedEvent(1L, 100L, 1200.0));
         Mockito.verify(orderMapper, Mockito.times(1)).toOrderResponse(savedOrder);
     }
 
     // ===================== getOrderById (found) =====================
+    // ===================== createOrders =====================
+    @Test
+    void When_CreateOrdersForKnownUsers_Expect_SaveAllAndQueueOneEventPerOrder() {
+        // TODO: Arrange
+        Order second = Order.builder().userId(100L).product("Mouse").price(25.0).total(25.0).build();
+        Order savedSecond = Order.builder().id(2L).userId(100L).product("Mouse").price(25.0).total(25.0).build();
+        List<Order> orders = List.of(inputOrder, second);
+        Mockito.when(userBatchLoader.getUsersByIds(Set.of(100L))).thenReturn(Map.of(100L, userDto));
+        Mockito.when(orderRepository.saveAll(orders)).thenReturn(List.of(savedOrder, savedSecond));
+        Mockito.when(orderMapper.toOrderResponse(savedOrder)).thenReturn(orderResponse);
+        Mockito.when(orderMapper.toOrderResponse(savedSecond)).thenReturn(orderResponse);
+
+        // TODO: Act
+        List<OrderResponse> result = orderService.createOrders(orders);
+
+        // TODO: Assert
+        assertEquals(2, result.size());
+        Mockito.verify(outboxPublisher, Mockito.times(1)).enqueueAll(TopicConfig.TOPIC_CREATE_ORDER, Map.of(
+                "1", OrderPlacedEvent.builder().orderId(1L).userId(100L).total(1200.0).build(),
+                "2", OrderPlacedEvent.builder().orderId(2L).userId(100L).total(25.0).build()));
+        Mockito.verify(userBatchLoader, Mockito.never()).getUserById(ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void When_CreateOrdersWithUnknownUser_Expect_ThrowEntityNotFoundExceptionAndSaveNothing() {
+        // TODO: Arrange
+        Order unknown = Order.builder().userId(404L).product("Mouse").price(25.0).total(25.0).build();
+        Mockito.when(userBatchLoader.getUsersByIds(Set.of(100L, 404L))).thenReturn(Map.of(100L, userDto));
+
+        // TODO: Act & Assert
+        EntityNotFoundException ex = assertThrows(EntityNotFoundException.class,
+                () -> orderService.createOrders(List.of(inputOrder, unknown)));
+        assertTrue(ex.getMessage().contains("404"));
+        Mockito.verify(orderRepository, Mockito.never()).saveAll(ArgumentMatchers.any());
+        Mockito.verifyNoInteractions(outboxPublisher);
+    }
+
     @Test
     void When_GetOrderById_OrderExists_Expect_ReturnOrderResponse() {
         // TODO: Arrange
+        CompletableFuture<UserDto> user = CompletableFuture.completedFuture(userDto);
         Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(savedOrder));
-        Mockito.when(orderMapper.toOrderResponse(savedOrder)).thenReturn(orderResponse);
+        Mockito.when(userEnricher.prefetch(100L)).thenReturn(user);
+        Mockito.when(userEnricher.await(user, 100L)).thenReturn(userDto);
+        Mockito.when(orderMapper.toOrderResponse(savedOrder, userDto)).thenReturn(orderResponse);
 
         // TODO: Act
         OrderResponse result = orderService.getOrderById(1L);
@@ -128,7 +178,7 @@ class OrderServiceImplTest {
         assertNotNull(result);
         assertEquals(orderResponse, result);
         Mockito.verify(orderRepository, Mockito.times(1)).findById(1L);
-        Mockito.verify(orderMapper, Mockito.times(1)).toOrderResponse(savedOrder);
+        Mockito.verify(orderMapper, Mockito.times(1)).toOrderResponse(savedOrder, userDto);
     }
 
     // ===================== getOrderById (not found) =====================
@@ -173,38 +223,60 @@ class OrderServiceImplTest {
                 .user(null)
                 .build();
 
-        Mockito.when(orderRepository.findByUserId(100L)).thenReturn(Optional.of(orders));
-        Mockito.when(orderMapper.toOrderResponse(savedOrder)).thenReturn(r1);
-        Mockito.when(orderMapper.toOrderResponse(other)).thenReturn(r2);
+        CompletableFuture<UserDto> user = CompletableFuture.completedFuture(userDto);
+        Mockito.when(userEnricher.prefetch(100L)).thenReturn(user);
+        Mockito.when(userEnricher.await(user, 100L)).thenReturn(userDto);
+        Mockito.when(orderRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(100L, 0L, Limit.of(2))).thenReturn(orders);
+        Mockito.when(orderMapper.toOrderResponse(savedOrder, userDto)).thenReturn(r1);
+        Mockito.when(orderMapper.toOrderResponse(other, userDto)).thenReturn(r2);
 
         // TODO: Act
-        List<OrderResponse> result = orderService.getOrdersByUserId(100L);
+        List<OrderResponse> result = orderService.getOrdersByUserIdAfter(100L, 0L, 2);
 
         // TODO: Assert
         assertNotNull(result);
         assertEquals(2, result.size());
         assertEquals(r1, result.get(0));
         assertEquals(r2, result.get(1));
-        Mockito.verify(orderRepository, Mockito.times(1)).findByUserId(100L);
+        Mockito.verify(orderRepository, Mockito.times(1)).findByUserIdAndIdGreaterThanOrderByIdAsc(100L, 0L, Limit.of(2));
+        Mockito.verify(userEnricher, Mockito.times(1)).prefetch(100L);
     }
 
     @Test
     void When_GetOrdersByUserId_NoOrders_Expect_ReturnEmptyList() {
         // TODO: Arrange
-        Mockito.when(orderRepository.findByUserId(200L)).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(200L, 0L, Limit.of(100))).thenReturn(List.of());
 
         // TODO: Act
-        List<OrderResponse> result = orderService.getOrdersByUserId(200L);
+        List<OrderResponse> result = orderService.getOrdersByUserIdAfter(200L, 0L, 100);
 
         // TODO: Assert
         assertNotNull(result);
         assertEquals(0, result.size());
-        Mockito.verify(orderRepository, Mockito.times(1)).findByUserId(200L);
+        Mockito.verify(orderRepository, Mockito.times(1)).findByUserIdAndIdGreaterThanOrderByIdAsc(200L, 0L, Limit.of(100));
         Mockito.verifyNoInteractions(orderMapper);
     }
 
     @Test
-    void When_UpdateOrderStatus_OrderExists_Expect_ReturnUpdatedOrder() {
+    void When_GetOrdersByUserIdPage_Expect_PageOfEnrichedResponses() {
+        // TODO: Arrange
+        PageRequest pageRequest = PageRequest.of(1, 1, Sort.by(Sort.Direction.DESC, "total"));
+        CompletableFuture<UserDto> user = CompletableFuture.completedFuture(userDto);
+        Mockito.when(userEnricher.prefetch(100L)).thenReturn(user);
+        Mockito.when(userEnricher.await(user, 100L)).thenReturn(userDto);
+        Mockito.when(orderRepository.findByUserId(100L, pageRequest)).thenReturn(new PageImpl<>(List.of(savedOrder), pageRequest, 3));
+        Mockito.when(orderMapper.toOrderResponse(savedOrder, userDto)).thenReturn(orderResponse);
+
+        // TODO: Act
+        Page<OrderResponse> result = orderService.getOrdersByUserId(100L, pageRequest);
+
+        // TODO: Assert
+        assertEquals(List.of(orderResponse), result.getContent());
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void When_UpdateOrderStatus_OrderExists_Expect_ConditionalUpdateAndQueueEvent() {
         // TODO: Arrange
         Order orderToUpdate = Order.builder()
                 .id(1L)
@@ -215,15 +287,6 @@ class OrderServiceImplTest {
                 .total(1200.0)
                 .build();
 
-        Order updatedOrder = Order.builder()
-                .id(1L)
-                .userId(100L)
-                .product("Laptop")
-                .price(1200.0)
-                .status(OrderStatus.SHIPPED)
-                .total(1200.0)
-                .build();
-
         OrderResponse updatedResponse = OrderResponse.builder()
                 .orderId(1L)
                 .product("Laptop")
@@ -236,32 +299,49 @@ class OrderServiceImplTest {
                 .user(null)
                 .build();
 
-        Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(orderToUpdate));
-        Mockito.when(orderRepository.save(ArgumentMatchers.any(Order.class))).thenReturn(updatedOrder);
-        Mockito.when(orderMapper.toOrderResponse(updatedOrder)).thenReturn(updatedResponse);
+        Mockito.when(orderRepository.updateStatusReturningPrevious(1L, OrderStatus.SHIPPED)).thenReturn(Optional.of(orderToUpdate));
+        Mockito.when(orderMapper.toOrderResponse(orderToUpdate)).thenReturn(updatedResponse.toBuilder().status(OrderStatus.PENDING).build());
 
         // TODO: Act
         OrderResponse result = orderService.updateOrderStatus(1L, OrderStatus.SHIPPED);
 
         // TODO: Assert
         assertNotNull(result);
-        assertEquals(OrderStatus.SHIPPED, result.getStatus());
         assertEquals(updatedResponse, result);
-        Mockito.verify(orderRepository, Mockito.times(1)).findById(1L);
-        Mockito.verify(orderRepository, Mockito.times(1)).save(ArgumentMatchers.any(Order.class));
+        assertEquals(OrderStatus.PENDING, orderToUpdate.getStatus());
+        Mockito.verify(orderRepository, Mockito.never()).findById(ArgumentMatchers.any());
+        Mockito.verify(orderRepository, Mockito.never()).save(ArgumentMatchers.any());
+        Mockito.verify(outboxPublisher, Mockito.times(1)).enqueue(TopicConfig.TOPIC_ORDER_STATUS_CHANGED, "1",
+                OrderStatusChangedEvent.builder().orderId(1L).userId(100L).from(OrderStatus.PENDING).to(OrderStatus.SHIPPED).build());
+    }
+
+    @Test
+    void When_UpdateOrderStatus_AlreadyInStatus_Expect_NoUpdateAndNoEvent() {
+        // TODO: Arrange
+        Order order = Order.builder().id(1L).userId(100L).status(OrderStatus.SHIPPED).build();
+        Mockito.when(orderRepository.updateStatusReturningPrevious(1L, OrderStatus.SHIPPED)).thenReturn(Optional.empty());
+        Mockito.when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        Mockito.when(orderMapper.toOrderResponse(order)).thenReturn(orderResponse);
+
+        // TODO: Act
+        OrderResponse result = orderService.updateOrderStatus(1L, OrderStatus.SHIPPED);
+
+        // TODO: Assert
+        assertEquals(orderResponse, result);
+        Mockito.verifyNoInteractions(outboxPublisher);
     }
 
     @Test
     void When_UpdateOrderStatus_OrderNotFound_Expect_ThrowEntityNotFoundException() {
         // TODO: Arrange
+        Mockito.when(orderRepository.updateStatusReturningPrevious(555L, OrderStatus.CONFIRMED)).thenReturn(Optional.empty());
         Mockito.when(orderRepository.findById(555L)).thenReturn(Optional.empty());
 
         // TODO: Act & Assert
         assertThrows(EntityNotFoundException.class, () -> orderService.updateOrderStatus(555L, OrderStatus.CONFIRMED));
 
         // TODO: Assert (additional)
-        Mockito.verify(orderRepository, Mockito.times(1)).findById(555L);
-        Mockito.verify(orderRepository, Mockito.never()).save(ArgumentMatchers.any());
+        Mockito.verifyNoInteractions(outboxPublisher);
     }
 
     @Test
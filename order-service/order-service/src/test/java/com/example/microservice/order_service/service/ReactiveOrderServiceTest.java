@@ -0,0 +1,169 @@
+package com.example.microservice.order_service.service;
+
+import com.example.microservice.order_service.config.TopicConfig;
+import com.example.microservice.order_service.dto.UserDto;
+import com.example.microservice.order_service.event.ReactiveOutboxPublisher;
+import com.example.microservice.order_service.exception.UserServiceUnavailableException;
+import com.example.microservice.order_service.mapper.OrderMapper;
+import com.example.microservice.order_service.model.Order;
+import com.example.microservice.order_service.model.OrderResponse;
+import com.example.microservice.order_service.open_feign.ReactiveUserClient;
+import com.example.microservice.order_service.open_feign.ResilientUserClient;
+import com.example.microservice.order_service.repository.ReactiveOrderRepository;
+import com.example.microservice.order_service.service.impl.ReactiveOrderServiceImpl;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOrderServiceTest {
+
+    @Mock
+    private ReactiveOrderRepository orderRepository;
+
+    @Mock
+    private OrderMapper orderMapper;
+
+    @Mock
+    private ReactiveOutboxPublisher outboxPublisher;
+
+    @Mock
+    private ReactiveUserClient userClient;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private ResilientUserClient resilientUserClient;
+
+    private ReactiveOrderServiceImpl orderService;
+
+    private Order savedOrder;
+    private UserDto userDto;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new ReactiveOrderServiceImpl(orderRepository, orderMapper, outboxPublisher, userClient,
+                resilientUserClient, transactionalOperator, Duration.ofMillis(100));
+        savedOrder = Order.builder().id(1L).userId(100L).product("Laptop").price(1200.0).total(1200.0).build();
+        userDto = UserDto.builder().id(100L).name("John Doe").email("john@example.com").build();
+    }
+
+    @Test
+    void When_CreateOrder_Expect_SaveOrderAndEnqueueEventInTransaction() {
+        // TODO: Arrange
+        Order inputOrder = Order.builder().userId(100L).product("Laptop").price(1200.0).total(1200.0).build();
+        OrderResponse response = OrderResponse.builder().orderId(1L).product("Laptop").build();
+        Mockito.when(userClient.getUserById(100L)).thenReturn(Mono.just(userDto));
+        Mockito.when(orderRepository.save(inputOrder)).thenReturn(Mono.just(savedOrder));
+        Mockito.when(outboxPublisher.enqueue(ArgumentMatchers.eq(TopicConfig.TOPIC_CREATE_ORDER), ArgumentMatchers.eq("1"), ArgumentMatchers.any()))
+                .thenReturn(Mono.empty());
+        Mockito.when(transactionalOperator.transactional(ArgumentMatchers.<Mono<Order>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(orderMapper.toOrderResponse(savedOrder)).thenReturn(response);
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.createOrder(inputOrder))
+                .expectNext(response)
+                .verifyComplete();
+        Mockito.verify(transactionalOperator).transactional(ArgumentMatchers.<Mono<Order>>any());
+        Mockito.verify(resilientUserClient).remember(100L, userDto);
+    }
+
+    @Test
+    void When_CreateOrderForUnknownUser_Expect_EntityNotFoundException() {
+        // TODO: Arrange
+        Order inputOrder = Order.builder().userId(404L).product("Laptop").price(1200.0).total(1200.0).build();
+        Mockito.when(userClient.getUserById(404L))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null, null)));
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.createOrder(inputOrder))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        Mockito.verify(resilientUserClient, Mockito.never()).getLastKnown(404L);
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void When_CreateOrderAndUserServiceDownForNeverSeenUser_Expect_UserServiceUnavailableException() {
+        // TODO: Arrange
+        Order inputOrder = Order.builder().userId(100L).product("Laptop").price(1200.0).total(1200.0).build();
+        Mockito.when(userClient.getUserById(100L))
+                .thenReturn(Mono.error(WebClientResponseException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, null, null)));
+        Mockito.when(resilientUserClient.getLastKnown(100L)).thenReturn(Optional.empty());
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.createOrder(inputOrder))
+                .expectError(UserServiceUnavailableException.class)
+                .verify();
+        Mockito.verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void When_GetOrderByIdAndUserLookupTimesOut_Expect_LastKnownUser() {
+        // TODO: Arrange
+        OrderResponse response = OrderResponse.builder().orderId(1L).user(userDto).build();
+        Mockito.when(orderRepository.findById(1L)).thenReturn(Mono.just(savedOrder));
+        Mockito.when(userClient.getUserById(100L)).thenReturn(Mono.never());
+        Mockito.when(resilientUserClient.getLastKnown(100L)).thenReturn(Optional.of(userDto));
+        Mockito.when(orderMapper.toOrderResponse(savedOrder, userDto)).thenReturn(response);
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.getOrderById(1L))
+                .expectNext(response)
+                .verifyComplete();
+    }
+
+    @Test
+    void When_GetOrderByIdAndNeverSeenUserLookupFails_Expect_OrderWithoutUser() {
+        // TODO: Arrange
+        OrderResponse response = OrderResponse.builder().orderId(1L).build();
+        Mockito.when(orderRepository.findById(1L)).thenReturn(Mono.just(savedOrder));
+        Mockito.when(userClient.getUserById(100L)).thenReturn(Mono.error(new IllegalStateException("boom")));
+        Mockito.when(resilientUserClient.getLastKnown(100L)).thenReturn(Optional.empty());
+        Mockito.when(orderMapper.toOrderResponse(savedOrder, null)).thenReturn(response);
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.getOrderById(1L))
+                .expectNext(response)
+                .verifyComplete();
+    }
+
+    @Test
+    void When_GetOrderByIdNotFound_Expect_EntityNotFoundException() {
+        // TODO: Arrange
+        Mockito.when(orderRepository.findById(99L)).thenReturn(Mono.empty());
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.getOrderById(99L))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void When_GetOrdersByUserIdWithNoOrders_Expect_EmptyFlux() {
+        // TODO: Arrange
+        Mockito.when(orderRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(100L, 0L, Limit.of(100))).thenReturn(Flux.empty());
+        Mockito.when(userClient.getUserById(100L)).thenReturn(Mono.just(userDto));
+
+        // TODO: Act & Assert
+        StepVerifier.create(orderService.getOrdersByUserIdAfter(100L, 0L, 100))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.microservice.shared.hedging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * When to hedge the reads sent to one service or route, and how often. The hedge delay is the {@code percentile} of
+ * the last {@link #WINDOW} answer latencies, but at least {@code minDelay}; nothing is hedged before
+ * {@link #MIN_SAMPLES} answers are in. Every request adds {@code budgetRatio} of a token to a budget
+ * capped at {@link #MAX_BALANCE} tokens and every hedge spends one, so hedging adds at most that share
+ * of extra requests even when the whole service is slow and every request runs past the delay.
+ * <p>
+ * The meters are registered with {@code tags}, which say what the policy belongs to, such as the gateway
+ * route or the Feign client.
+ */
+public class HedgingPolicy {
+
+    public static final int WINDOW = 1024;
+    public static final int MIN_SAMPLES = 128;
+    private static final int RECOMPUTE_EVERY = 32;
+    // budget in thousandths of a hedge
+    private static final long TOKEN = 1000;
+    private static final long MAX_BALANCE = 10 * TOKEN;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long deposit;
+
+    private final AtomicLongArray samples = new AtomicLongArray(WINDOW);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong balance = new AtomicLong();
+    private volatile long delayNanos = -1;
+
+    private final Counter requests;
+    private final Counter hedges;
+    private final Counter wins;
+
+    public HedgingPolicy(Tags tags, MeterRegistry meterRegistry, double percentile, Duration minDelay, double budgetRatio) {
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.deposit = Math.round(budgetRatio * TOKEN);
+
+        this.requests = Counter.builder("hedging.requests")
+                .description("Reads eligible for hedging")
+                .tags(tags)
+                .register(meterRegistry);
+        this.hedges = Counter.builder("hedging.hedges")
+                .description("Second requests sent because the first one ran past the hedge delay")
+                .tags(tags)
+                .register(meterRegistry);
+        this.wins = Counter.builder("hedging.wins")
+                .description("Hedges that answered before the request they backed up")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("hedging.rate", this, policy -> ratio(policy.hedges, policy.requests))
+                .description("Share of eligible reads that were hedged")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("hedging.win.rate", this, policy -> ratio(policy.wins, policy.hedges))
+                .description("Share of hedges that answered first")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("hedging.delay", this, policy -> Math.max(0, policy.delayNanos) / 1e6)
+                .description("Current hedge delay")
+                .baseUnit("milliseconds")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts one eligible request.
+     *
+     * @return nanoseconds to wait for its answer before hedging, or -1 if it must not be hedged
+     */
+    public long begin() {
+        requests.increment();
+        balance.accumulateAndGet(deposit, (current, added) -> Math.min(MAX_BALANCE, current + added));
+        return delayNanos;
+    }
+
+    // time from sending the request to its first answer, hedged or not
+    public void record(long latencyNanos) {
+        long count = recorded.incrementAndGet();
+        samples.set((int) ((count - 1) % WINDOW), latencyNanos);
+        if (count >= MIN_SAMPLES && count % RECOMPUTE_EVERY == 0) {
+            recompute((int) Math.min(count, WINDOW));
+        }
+    }
+
+    // spends a token from the budget; false if the budget is used up
+    public boolean tryHedge() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        hedges.increment();
+        return true;
+    }
+
+    public void hedgeWon() {
+        wins.increment();
+    }
+
+    public long delayNanos() {
+        return delayNanos;
+    }
+
+    private void recompute(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.min(size - 1, Math.max(0, Math.ceil(percentile * size) - 1));
+        delayNanos = Math.max(minDelayNanos, sorted[index]);
+    }
+
+    private static double ratio(Counter part, Counter whole) {
+        double total = whole.count();
+        return total == 0 ? 0.0 : part.count() / total;
+    }
+}
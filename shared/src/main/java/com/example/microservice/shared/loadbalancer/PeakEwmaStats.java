@@ -0,0 +1,172 @@
+package com.example.microservice.shared.loadbalancer;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency and in-flight requests per service instance, fed by the load balancer lifecycle of every client
+ * that resolves {@code lb://} names, and read by {@link PeakEwmaLoadBalancer} as a cost per instance.
+ * <p>
+ * Latency is a peak EWMA: a slower sample replaces the average at once, faster ones pull it down with a
+ * weight that grows with the time since the last sample, and the average decays towards zero while an
+ * instance gets no traffic, so an instance that recovered is tried again. Failed requests and 5xx
+ * responses count as at least {@code failurePenalty}, so an instance failing fast does not look fast.
+ * Requests that bypass the load balancer, such as hedges, are counted through {@link #start}.
+ */
+public class PeakEwmaStats implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private static final Duration IDLE_INSTANCE_EXPIRY = Duration.ofMinutes(10);
+
+    private final double decayNanos;
+    private final long failurePenaltyNanos;
+    private final Cache<String, InstanceStats> instances = Caffeine.newBuilder()
+            .expireAfterAccess(IDLE_INSTANCE_EXPIRY)
+            .build();
+
+    public PeakEwmaStats(Duration decayTime, Duration failurePenalty) {
+        this.decayNanos = decayTime.toNanos();
+        this.failurePenaltyNanos = failurePenalty.toNanos();
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        stats(lbResponse.getServer()).inflight.incrementAndGet();
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        InstanceStats stats = stats(lbResponse.getServer());
+        stats.inflight.decrementAndGet();
+        if (!(completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed)
+                || timed.getRequestStartTime() == 0) {
+            return;
+        }
+        boolean failed = completionContext.status() == CompletionContext.Status.FAILED
+                || completionContext.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+        observe(stats, timed.getRequestStartTime(), failed);
+    }
+
+    /**
+     * Counts a request sent to {@code instance} without going through the load balancer, in flight until
+     * the returned attempt completes or is cancelled.
+     */
+    public Attempt start(ServiceInstance instance) {
+        InstanceStats stats = stats(instance);
+        stats.inflight.incrementAndGet();
+        return new Attempt(stats, System.nanoTime());
+    }
+
+    /**
+     * Expected wait for a new request on the instance: decayed latency times the requests it would share it with.
+     */
+    double cost(ServiceInstance instance, long now) {
+        InstanceStats stats = stats(instance);
+        int inflight = stats.inflight.get();
+        double latency = stats.latency(now);
+        if (latency == 0) {
+            // not measured yet: cheap while idle, so it gets its first requests, expensive once they are pending
+            return inflight == 0 ? 0 : (double) failurePenaltyNanos * inflight;
+        }
+        return latency * (inflight + 1);
+    }
+
+    void observe(ServiceInstance instance, long rttNanos, long now) {
+        stats(instance).observe(rttNanos, now);
+    }
+
+    AtomicInteger inflight(ServiceInstance instance) {
+        return stats(instance).inflight;
+    }
+
+    private void observe(InstanceStats stats, long start, boolean failed) {
+        long now = System.nanoTime();
+        long rtt = now - start;
+        stats.observe(failed ? Math.max(rtt, failurePenaltyNanos) : rtt, now);
+    }
+
+    private InstanceStats stats(ServiceInstance instance) {
+        String key = instance.getInstanceId() != null
+                ? instance.getServiceId() + '/' + instance.getInstanceId()
+                : instance.getServiceId() + '/' + instance.getHost() + ':' + instance.getPort();
+        return instances.get(key, k -> new InstanceStats());
+    }
+
+    /**
+     * A request counted by {@link #start}. Only the first call to {@link #complete} or {@link #cancel} counts.
+     */
+    public final class Attempt {
+
+        private final InstanceStats stats;
+        private final long start;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Attempt(InstanceStats stats, long start) {
+            this.stats = stats;
+            this.start = start;
+        }
+
+        // an answer arrived, a 5xx or a failure if failed
+        public void complete(boolean failed) {
+            if (finished.compareAndSet(false, true)) {
+                stats.inflight.decrementAndGet();
+                observe(stats, start, failed);
+            }
+        }
+
+        // given up before the instance answered, so its latency is unknown
+        public void cancel() {
+            if (finished.compareAndSet(false, true)) {
+                stats.inflight.decrementAndGet();
+            }
+        }
+    }
+
+    private final class InstanceStats {
+
+        final AtomicInteger inflight = new AtomicInteger();
+
+        // guarded by this
+        private double ewma;
+        private long stamp;
+
+        synchronized void observe(long rttNanos, long now) {
+            if (rttNanos > ewma) {
+                ewma = rttNanos;
+            } else {
+                double weight = Math.exp(-Math.max(0, now - stamp) / decayNanos);
+                ewma = ewma * weight + rttNanos * (1 - weight);
+            }
+            stamp = now;
+        }
+
+        synchronized double latency(long now) {
+            return ewma * Math.exp(-Math.max(0, now - stamp) / decayNanos);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.microservice.shared.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTest {
+
+    static final long MS = Duration.ofMillis(1).toNanos();
+
+    PeakEwmaStats stats;
+    PeakEwmaLoadBalancer loadBalancer;
+    ServiceInstance healthy;
+    ServiceInstance degraded;
+
+    @BeforeEach
+    void setUp() {
+        stats = new PeakEwmaStats(Duration.ofSeconds(10), Duration.ofSeconds(1));
+        loadBalancer = new PeakEwmaLoadBalancer(null, "user-service", stats);
+        healthy = new DefaultServiceInstance("user-service-1", "user-service", "10.0.0.1", 8081, false);
+        degraded = new DefaultServiceInstance("user-service-2", "user-service", "10.0.0.2", 8081, false);
+    }
+
+    long chosen(ServiceInstance instance, List<ServiceInstance> instances, int requests) {
+        long count = 0;
+        for (int i = 0; i < requests; i++) {
+            if (loadBalancer.choose(instances).getServer() == instance) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    void When_OneReplicaSlow_Expect_FasterReplicaChosen() {
+        // TODO: Arrange
+        long now = System.nanoTime();
+        stats.observe(healthy, 5 * MS, now);
+        stats.observe(degraded, 200 * MS, now);
+        // TODO: Act & Assert
+        assertEquals(100, chosen(healthy, List.of(healthy, degraded), 100));
+    }
+
+    @Test
+    void When_SameLatency_Expect_FewerInflightChosen() {
+        // TODO: Arrange
+        long now = System.nanoTime();
+        stats.observe(healthy, 10 * MS, now);
+        stats.observe(degraded, 10 * MS, now);
+        stats.inflight(degraded).set(5);
+        // TODO: Act & Assert
+        assertEquals(100, chosen(healthy, List.of(healthy, degraded), 100));
+    }
+
+    @Test
+    void When_SingleSlowSample_Expect_PeakKeptThenDecayed() {
+        // TODO: Arrange
+        long now = System.nanoTime();
+        stats.observe(healthy, 5 * MS, now);
+        // TODO: Act
+        stats.observe(healthy, 100 * MS, now + MS);
+        double peak = stats.cost(healthy, now + MS);
+        stats.observe(healthy, 5 * MS, now + Duration.ofSeconds(10).toNanos());
+        double recovered = stats.cost(healthy, now + Duration.ofSeconds(10).toNanos());
+        double idle = stats.cost(degraded, now);
+        // TODO: Assert
+        assertEquals(100 * MS, peak, MS);
+        assertTrue(recovered < 40 * MS, "cost " + recovered);
+        assertEquals(0, idle);
+    }
+
+    @Test
+    void When_ResponseIs5xx_Expect_FailurePenaltyRecorded() {
+        // TODO: Arrange
+        Request<Object> request = new DefaultRequest<>(new RequestDataContext(
+                new RequestData(HttpMethod.GET, URI.create("http://user-service/api/users/1"), new HttpHeaders(), null, null)));
+        Response<ServiceInstance> lbResponse = new DefaultResponse(degraded);
+        ResponseData unavailable = new ResponseData(HttpStatus.SERVICE_UNAVAILABLE, new HttpHeaders(), null, null);
+        // TODO: Act
+        stats.onStartRequest(request, lbResponse);
+        int inflight = stats.inflight(degraded).get();
+        stats.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, lbResponse, unavailable));
+        // TODO: Assert
+        assertEquals(1, inflight);
+        assertEquals(0, stats.inflight(degraded).get());
+        assertTrue(stats.cost(degraded, System.nanoTime()) > 900 * MS);
+    }
+
+    @Test
+    void When_AttemptOutsideLoadBalancer_Expect_InflightUntilFinishedAndCountedOnce() {
+        // TODO: Arrange
+        PeakEwmaStats.Attempt failed = stats.start(degraded);
+        PeakEwmaStats.Attempt cancelled = stats.start(healthy);
+        int inflight = stats.inflight(degraded).get();
+        // TODO: Act
+        failed.complete(true);
+        failed.cancel();
+        cancelled.cancel();
+        cancelled.complete(false);
+        // TODO: Assert
+        assertEquals(1, inflight);
+        assertEquals(0, stats.inflight(degraded).get());
+        assertEquals(0, stats.inflight(healthy).get());
+        assertTrue(stats.cost(degraded, System.nanoTime()) > 900 * MS);
+        assertEquals(0, stats.cost(healthy, System.nanoTime()));
+    }
+
+    @Test
+    void When_SingleOrNoInstance_Expect_ItOrEmpty() {
+        // TODO: Act & Assert
+        assertSame(healthy, loadBalancer.choose(List.of(healthy)).getServer());
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.microservice.user_service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Redis value serializer writing {@code [0xFE][flags | codec version][codec tag][body]}, where the body is
+ * produced by the {@link CacheValueCodec} registered for the value's type and deflated once it reaches
+ * {@code compressionThreshold} bytes.
+ * <p>
+ * 0xFE never starts a JSON document, so anything else is handed to {@code legacySerializer}; entries
+ * written before the switch stay readable until they expire. Types without a codec, and every value whose
+ * codec {@linkplain CacheValueCodec#jsonRoundTrips() round-trips through JSON} while the format is
+ * {@link CacheValueFormat#JSON}, are written by {@code legacySerializer} as well.
+ * Entries from a newer codec version or with an unknown tag read as {@code null}, i.e. a cache miss.
+ */
+@Slf4j
+public class BinaryCacheValueSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xFE;
+    private static final int COMPRESSED = 0x80;
+    private static final int VERSION_MASK = 0x7F;
+    private static final int HEADER_LENGTH = 3;
+
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final Map<Byte, CacheValueCodec<?>> codecsByTag = new HashMap<>();
+    private final RedisSerializer<Object> legacySerializer;
+    private final CacheValueFormat format;
+    private final int compressionThreshold;
+
+    public BinaryCacheValueSerializer(List<CacheValueCodec<?>> codecs, RedisSerializer<Object> legacySerializer,
+                                      CacheValueFormat format, int compressionThreshold) {
+        for (CacheValueCodec<?> codec : codecs) {
+            if (codecsByTag.putIfAbsent(codec.tag(), codec) != null) {
+                throw new IllegalArgumentException("Duplicate cache value codec tag " + codec.tag());
+            }
+            codecsByType.put(codec.type(), codec);
+        }
+        this.legacySerializer = legacySerializer;
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        CacheValueCodec<Object> codec = value != null ? codecFor(value.getClass()) : null;
+        if (codec == null || format == CacheValueFormat.JSON && codec.jsonRoundTrips()) {
+            return legacySerializer.serialize(value);
+        }
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(128);
+            codec.write(value, new DataOutputStream(body));
+            boolean compress = body.size() >= compressionThreshold;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_LENGTH + body.size());
+            out.write(MAGIC);
+            out.write(codec.version() | (compress ? COMPRESSED : 0));
+            out.write(codec.tag());
+            if (compress) {
+                deflate(body, out);
+            } else {
+                body.writeTo(out);
+            }
+            return out.toByteArray();
+        } catch (IOException ex) {
+            throw new SerializationException("Cannot encode " + value.getClass().getName(), ex);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated cache value of " + bytes.length + " bytes");
+        }
+        int version = bytes[1] & VERSION_MASK;
+        CacheValueCodec<?> codec = codecsByTag.get(bytes[2]);
+        if (codec == null || version > codec.version()) {
+            log.debug("Treating cache value with tag {} version {} as a miss", bytes[2], version);
+            return null;
+        }
+        InputStream body = new ByteArrayInputStream(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        Inflater inflater = (bytes[1] & COMPRESSED) != 0 ? new Inflater() : null;
+        try {
+            return codec.read(new DataInputStream(inflater != null ? new InflaterInputStream(body, inflater) : body), version);
+        } catch (IOException | IllegalArgumentException ex) {
+            throw new SerializationException("Cannot decode cache value of type " + codec.type().getName(), ex);
+        } finally {
+            if (inflater != null) {
+                inflater.end();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheValueCodec<Object> codecFor(Class<?> type) {
+        CacheValueCodec<?> codec = codecsByType.get(type);
+        if (codec == null) {
+            // e.g. a Hibernate proxy subclass of a registered entity
+            codec = codecsByType.values().stream().filter(candidate -> candidate.type().isAssignableFrom(type)).findFirst().orElse(null);
+        }
+        return (CacheValueCodec<Object>) codec;
+    }
+
+    private static void deflate(ByteArrayOutputStream body, ByteArrayOutputStream out) throws IOException {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflating = new DeflaterOutputStream(out, deflater)) {
+            body.writeTo(deflating);
+        } finally {
+            deflater.end();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.microservice.user_service.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Compact encoding of one cached value type for {@link BinaryCacheValueSerializer}. The {@link #tag()}
+ * identifies the type on the wire and must never be reused; {@link #version()} is bumped whenever the
+ * layout changes, and {@link #read} must keep accepting every older version.
+ */
+public interface CacheValueCodec<T> {
+
+    byte tag();
+
+    int version();
+
+    Class<T> type();
+
+    void write(T value, DataOutput out) throws IOException;
+
+    T read(DataInput in, int version) throws IOException;
+
+    /**
+     * Whether values of this type survive a round trip through the legacy JSON serializer, so they can be
+     * written as JSON while {@link CacheValueFormat#JSON} is configured; the others are always written binary.
+     */
+    default boolean jsonRoundTrips() {
+        return true;
+    }
+}
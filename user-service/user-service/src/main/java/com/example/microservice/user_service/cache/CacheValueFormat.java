@@ -0,0 +1,9 @@
+package com.example.microservice.user_service.cache;
+
+/**
+ * Encoding {@link BinaryCacheValueSerializer} writes. Both are always readable, so a rollout can
+ * keep writing {@link #JSON} until every instance runs a reader, then switch to {@link #BINARY}.
+ */
+public enum CacheValueFormat {
+    JSON, BINARY
+}
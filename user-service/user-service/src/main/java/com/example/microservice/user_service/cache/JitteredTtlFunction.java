@@ -0,0 +1,29 @@
+package com.example.microservice.user_service.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Entry TTL of {@code timeToLive} stretched by a random 0..{@code jitter} fraction, so entries written
+ * together (warm-up, bulk reads) do not all expire in the same instant.
+ */
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+
+    private final long timeToLiveMillis;
+    private final double jitter;
+
+    public JitteredTtlFunction(Duration timeToLive, double jitter) {
+        this.timeToLiveMillis = timeToLive.toMillis();
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (jitter <= 0) {
+            return Duration.ofMillis(timeToLiveMillis);
+        }
+        return Duration.ofMillis(timeToLiveMillis + (long) (timeToLiveMillis * jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.microservice.user_service.cache;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Counts and other {@link Long} values, as stored in the {@code userCounts} cache. The JSON serializer writes
+ * a Long as a bare number and reads it back as an Integer, so Longs are written binary in either format;
+ * no earlier release reads {@code userCounts} entries.
+ */
+public class LongCacheValueCodec implements CacheValueCodec<Long> {
+
+    @Override
+    public byte tag() {
+        return 2;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<Long> type() {
+        return Long.class;
+    }
+
+    @Override
+    public void write(Long value, DataOutput out) throws IOException {
+        out.writeLong(value);
+    }
+
+    @Override
+    public Long read(DataInput in, int version) throws IOException {
+        return in.readLong();
+    }
+
+    @Override
+    public boolean jsonRoundTrips() {
+        return false;
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.microservice.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier cache: a bounded in-process Caffeine map (L1) in front of a shared Redis cache (L2).
+ * Writes go to L2 first and are broadcast through {@link CacheInvalidationBus} so that other
+ * replicas drop their L1 copy; the L1 TTL bounds staleness if a message is missed.
+ */
+public class NearCache implements Cache {
+
+    private static final Duration REMOTE_POLL_INTERVAL = Duration.ofMillis(20);
+    private static final double INITIAL_LOAD_NANOS = 10_000_000;
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final CacheInvalidationBus invalidationBus;
+    private final RemoteMultiGet remoteMultiGet;
+    private final RemoteMultiPut remoteMultiPut;
+    private final RemoteLoadCoordinator coordinator;
+    private final Duration loadLease;
+    private final double refreshAheadBeta;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private volatile double loadNanos = INITIAL_LOAD_NANOS;
+
+    private final LongAdder localHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder localSuppressed = new LongAdder();
+    private final LongAdder remoteSuppressed = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public NearCache(Cache remote, long maximumSize, Duration timeToLive, CacheInvalidationBus invalidationBus) {
+        this(remote, maximumSize, timeToLive, invalidationBus, null);
+    }
+
+    public NearCache(Cache remote, long maximumSize, Duration timeToLive, CacheInvalidationBus invalidationBus,
+                     RemoteMultiGet remoteMultiGet) {
+        this(remote, maximumSize, timeToLive, invalidationBus, remoteMultiGet, null, null, Duration.ZERO, 0);
+    }
+
+    public NearCache(Cache remote, long maximumSize, Duration timeToLive, CacheInvalidationBus invalidationBus,
+                     RemoteMultiGet remoteMultiGet, RemoteMultiPut remoteMultiPut, RemoteLoadCoordinator coordinator,
+                     Duration loadLease, double refreshAheadBeta) {
+        this.remote = remote;
+        this.remoteMultiGet = remoteMultiGet;
+        this.remoteMultiPut = remoteMultiPut;
+        this.coordinator = coordinator;
+        this.loadLease = loadLease;
+        this.refreshAheadBeta = refreshAheadBeta;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.invalidationBus = invalidationBus;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null) {
+            misses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        if (wrapper.get() != null) {
+            local.put(localKey, wrapper.get());
+        }
+        return wrapper;
+    }
+
+    /**
+     * Looks up several keys at once: L1 first, then a single multi-get against L2 for the rest.
+     * Keys that are in neither tier are absent from the returned map.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        List<Object> remoteKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Object value = local.getIfPresent(localKey(key));
+            if (value != null) {
+                localHits.increment();
+                found.put(key, value);
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+        List<Object> remoteValues = remoteMultiGet != null
+                ? remoteMultiGet.multiGet(getName(), remoteKeys.stream().map(NearCache::localKey).toList())
+                : remoteKeys.stream().map(key -> remote.get(key)).map(w -> w != null ? w.get() : null).toList();
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            Object value = remoteValues.get(i);
+            if (value == null) {
+                misses.increment();
+                continue;
+            }
+            remoteHits.increment();
+            local.put(localKey(remoteKeys.get(i)), value);
+            found.put(remoteKeys.get(i), value);
+        }
+        return found;
+    }
+
+    /**
+     * Stores values just loaded from the source of truth: one multi-put against L2, where only absent keys
+     * are written so a concurrent {@link #put} is not overwritten, then L1. Nothing is broadcast, since no
+     * replica can hold a copy newer than these, and the writer of any change already published its eviction.
+     */
+    public void putAllLoaded(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (remoteMultiPut != null) {
+            Map<String, Object> remoteEntries = new LinkedHashMap<>();
+            entries.forEach((key, value) -> remoteEntries.put(localKey(key), value));
+            remoteMultiPut.multiPutIfAbsent(getName(), remoteEntries);
+        } else {
+            entries.forEach(remote::putIfAbsent);
+        }
+        entries.forEach((key, value) -> local.put(localKey(key), value));
+        puts.add(entries.size());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    /**
+     * Loads at most once per key: concurrent callers in this JVM share one in-flight load, and with a
+     * {@link RemoteLoadCoordinator} a Redis lease elects one loader across replicas while the others
+     * poll L2 for its result, taking over the lease if it is released without one. An L2 hit close to expiry
+     * is refreshed early with a probability that rises as the remaining TTL approaches the observed load time
+     * (XFetch, scaled by {@code refreshAheadBeta}); a failed refresh serves the current value.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            localHits.increment();
+            return (T) value;
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, load);
+        if (existing != null) {
+            localSuppressed.increment();
+            return (T) join(existing, key, valueLoader);
+        }
+        try {
+            Object result = loadThroughRemote(key, localKey, valueLoader);
+            load.complete(result);
+            return (T) result;
+        } catch (RuntimeException | Error ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(localKey, load);
+        }
+    }
+
+    private Object loadThroughRemote(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            Object value = shouldRefreshEarly(localKey) ? refresh(key, localKey, valueLoader, wrapper.get()) : wrapper.get();
+            local.put(localKey, value);
+            return value;
+        }
+        misses.increment();
+        String token = null;
+        if (coordinator != null) {
+            long deadline = System.nanoTime() + loadLease.toNanos();
+            while ((token = coordinator.tryAcquire(getName(), localKey, loadLease)) == null && System.nanoTime() < deadline) {
+                // another replica holds the lease: wait for its value, or for the lease to be released without
+                // one (e.g. its loader threw), in which case the next tryAcquire makes this call the loader
+                if (!sleep(REMOTE_POLL_INTERVAL)) {
+                    break;
+                }
+                ValueWrapper loadedElsewhere = remote.get(key);
+                if (loadedElsewhere != null && loadedElsewhere.get() != null) {
+                    remoteSuppressed.increment();
+                    local.put(localKey, loadedElsewhere.get());
+                    return loadedElsewhere.get();
+                }
+            }
+            // without a token the lease holder did not finish in time; load anyway rather than fail the request
+        }
+        try {
+            return load(key, localKey, valueLoader);
+        } finally {
+            if (token != null) {
+                coordinator.release(getName(), localKey, token);
+            }
+        }
+    }
+
+    private boolean shouldRefreshEarly(String localKey) {
+        if (coordinator == null || refreshAheadBeta <= 0) {
+            return false;
+        }
+        Duration timeToLive = coordinator.timeToLive(getName(), localKey);
+        if (timeToLive == null) {
+            return false;
+        }
+        double gapNanos = loadNanos * refreshAheadBeta * -Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return gapNanos >= timeToLive.toNanos();
+    }
+
+    private Object refresh(Object key, String localKey, Callable<?> valueLoader, Object current) {
+        String token = coordinator.tryAcquire(getName(), localKey, loadLease);
+        if (token == null) {
+            // another replica is already refreshing this key
+            return current;
+        }
+        try {
+            refreshes.increment();
+            Object refreshed = load(key, localKey, valueLoader);
+            return refreshed != null ? refreshed : current;
+        } catch (RuntimeException ex) {
+            // the entry is still valid; a failed early refresh must not fail the read
+            return current;
+        } finally {
+            coordinator.release(getName(), localKey, token);
+        }
+    }
+
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        // moving average of load time, used as the XFetch delta
+        loadNanos += (System.nanoTime() - start - loadNanos) * 0.2;
+        if (value != null) {
+            remote.put(key, value);
+            puts.increment();
+            local.put(localKey, value);
+        }
+        return value;
+    }
+
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> load, Object key, Callable<?> valueLoader) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        String localKey = localKey(key);
+        remote.put(key, value);
+        puts.increment();
+        if (value != null) {
+            local.put(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        invalidationBus.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String localKey = localKey(key);
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey);
+        if (existing == null) {
+            puts.increment();
+            invalidationBus.publishEvict(getName(), localKey);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = localKey(key);
+        remote.evict(key);
+        local.invalidate(localKey);
+        invalidationBus.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = localKey(key);
+        boolean evicted = remote.evictIfPresent(key);
+        local.invalidate(localKey);
+        invalidationBus.publishEvict(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationBus.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = remote.invalidate();
+        local.invalidateAll();
+        invalidationBus.publishClear(getName());
+        return invalidated;
+    }
+
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    public long localSize() {
+        return local.estimatedSize();
+    }
+
+    public long localHitCount() {
+        return localHits.sum();
+    }
+
+    public long remoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long localSuppressedLoadCount() {
+        return localSuppressed.sum();
+    }
+
+    public long remoteSuppressedLoadCount() {
+        return remoteSuppressed.sum();
+    }
+
+    public long refreshAheadCount() {
+        return refreshes.sum();
+    }
+
+    public long localEvictionCount() {
+        return local.stats().evictionCount();
+    }
+
+    // RedisCache stringifies keys as well, so Long 1 and "1" address the same entry in both tiers
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.microservice.user_service.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decorates every cache of the remote {@link CacheManager} with a {@link NearCache}.
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final CacheManager remoteCacheManager;
+    private final long maximumSize;
+    private final Duration timeToLive;
+    private final CacheInvalidationBus invalidationBus;
+    private final RemoteMultiGet remoteMultiGet;
+    private final RemoteMultiPut remoteMultiPut;
+    private final RemoteLoadCoordinator loadCoordinator;
+    private final Duration loadLease;
+    private final double refreshAheadBeta;
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remoteCacheManager, long maximumSize, Duration timeToLive,
+                            CacheInvalidationBus invalidationBus, RemoteMultiGet remoteMultiGet) {
+        this(remoteCacheManager, maximumSize, timeToLive, invalidationBus, remoteMultiGet, null, null, Duration.ZERO, 0);
+    }
+
+    public NearCacheManager(CacheManager remoteCacheManager, long maximumSize, Duration timeToLive,
+                            CacheInvalidationBus invalidationBus, RemoteMultiGet remoteMultiGet,
+                            RemoteMultiPut remoteMultiPut, RemoteLoadCoordinator loadCoordinator, Duration loadLease,
+                            double refreshAheadBeta) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+        this.invalidationBus = invalidationBus;
+        this.remoteMultiGet = remoteMultiGet;
+        this.remoteMultiPut = remoteMultiPut;
+        this.loadCoordinator = loadCoordinator;
+        this.loadLease = loadLease;
+        this.refreshAheadBeta = refreshAheadBeta;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        NearCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> {
+            NearCache nearCache = new NearCache(remote, maximumSize, timeToLive, invalidationBus, remoteMultiGet,
+                    remoteMultiPut, loadCoordinator, loadLease, refreshAheadBeta);
+            invalidationBus.register(nearCache);
+            return nearCache;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.microservice.user_service.cache;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+
+public class NearCacheMeterBinderProvider implements CacheMeterBinderProvider<NearCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(NearCache cache, Iterable<Tag> tags) {
+        return new NearCacheMetrics(cache, tags);
+    }
+}
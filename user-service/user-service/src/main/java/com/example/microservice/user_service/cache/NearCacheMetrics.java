@@ -0,0 +1,87 @@
+package com.example.microservice.user_service.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Exposes the standard {@code cache.*} meters for a {@link NearCache} plus per-tier
+ * {@code cache.near.hits} counters and {@code cache.near.hit.ratio} gauges.
+ */
+public class NearCacheMetrics extends CacheMeterBinder<NearCache> {
+
+    public NearCacheMetrics(NearCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        NearCache cache = getCache();
+        return cache != null ? cache.localSize() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        NearCache cache = getCache();
+        return cache != null ? cache.localHitCount() + cache.remoteHitCount() : 0L;
+    }
+
+    @Override
+    protected Long missCount() {
+        NearCache cache = getCache();
+        return cache != null ? cache.missCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        NearCache cache = getCache();
+        return cache != null ? cache.localEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        NearCache cache = getCache();
+        return cache != null ? cache.putCount() : 0L;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        NearCache cache = getCache();
+        FunctionCounter.builder("cache.near.hits", cache, NearCache::localHitCount)
+                .tags(getTagsWithCacheName()).tag("layer", "l1")
+                .description("The number of lookups served from the in-process tier")
+                .register(registry);
+        FunctionCounter.builder("cache.near.hits", cache, NearCache::remoteHitCount)
+                .tags(getTagsWithCacheName()).tag("layer", "l2")
+                .description("The number of lookups served from Redis after an in-process miss")
+                .register(registry);
+        FunctionCounter.builder("cache.stampede.suppressed", cache, NearCache::localSuppressedLoadCount)
+                .tags(getTagsWithCacheName()).tag("scope", "local")
+                .description("Loads avoided by joining an in-flight load of the same key in this instance")
+                .register(registry);
+        FunctionCounter.builder("cache.stampede.suppressed", cache, NearCache::remoteSuppressedLoadCount)
+                .tags(getTagsWithCacheName()).tag("scope", "distributed")
+                .description("Loads avoided by waiting for the replica holding the Redis load lease")
+                .register(registry);
+        FunctionCounter.builder("cache.refresh.ahead", cache, NearCache::refreshAheadCount)
+                .tags(getTagsWithCacheName())
+                .description("Entries reloaded early because they were close to expiry")
+                .register(registry);
+        Gauge.builder("cache.near.hit.ratio", cache, c -> ratio(c.localHitCount(), total(c)))
+                .tags(getTagsWithCacheName()).tag("layer", "l1")
+                .register(registry);
+        Gauge.builder("cache.near.hit.ratio", cache, c -> ratio(c.remoteHitCount(), total(c)))
+                .tags(getTagsWithCacheName()).tag("layer", "l2")
+                .register(registry);
+    }
+
+    private static long total(NearCache cache) {
+        return cache.localHitCount() + cache.remoteHitCount() + cache.missCount();
+    }
+
+    private static double ratio(long hits, long total) {
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
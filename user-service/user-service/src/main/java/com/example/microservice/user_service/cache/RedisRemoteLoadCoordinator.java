@@ -0,0 +1,54 @@
+package com.example.microservice.user_service.cache;
+
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RemoteLoadCoordinator} on plain Redis keys: the lease is {@code SET <cache>::<key>::lease NX PX}
+ * holding a random token, released only by its owner, and the entry TTL comes from {@code PTTL}.
+ */
+public class RedisRemoteLoadCoordinator implements RemoteLoadCoordinator {
+
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisRemoteLoadCoordinator(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String tryAcquire(String cacheName, String key, Duration lease) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), token, lease);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    @Override
+    public void release(String cacheName, String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(leaseKey(cacheName, key)), token);
+    }
+
+    @Override
+    public Duration timeToLive(String cacheName, String key) {
+        Long millis = redisTemplate.getExpire(entryKey(cacheName, key), TimeUnit.MILLISECONDS);
+        // -2: no such key, -1: no expiry
+        return millis != null && millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+
+    private static String entryKey(String cacheName, String key) {
+        return CacheKeyPrefix.simple().compute(cacheName) + key;
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return entryKey(cacheName, key) + "::lease";
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.microservice.user_service.cache;
+
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link RemoteMultiGet} backed by a single Redis {@code MGET}. The template must use the same value
+ * serializer as the {@code RedisCacheManager}, and keys follow its default {@code <cache>::<key>} layout.
+ */
+public class RedisRemoteMultiGet implements RemoteMultiGet {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    public RedisRemoteMultiGet(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public List<Object> multiGet(String cacheName, List<String> keys) {
+        String prefix = CacheKeyPrefix.simple().compute(cacheName);
+        List<Object> values = redisTemplate.opsForValue().multiGet(keys.stream().map(key -> prefix + key).toList());
+        return values != null ? values : Collections.nCopies(keys.size(), null);
+    }
+}
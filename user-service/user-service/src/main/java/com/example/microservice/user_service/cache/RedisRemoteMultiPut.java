@@ -0,0 +1,53 @@
+package com.example.microservice.user_service.cache;
+
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@link RemoteMultiPut} backed by pipelined {@code SET NX PX} commands. Values are encoded by the
+ * template's serializer, which must match the {@code RedisCacheManager}'s, and each entry gets the TTL of
+ * that manager's cache configuration.
+ */
+public class RedisRemoteMultiPut implements RemoteMultiPut {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCacheManager redisCacheManager;
+
+    public RedisRemoteMultiPut(RedisTemplate<String, Object> redisTemplate, RedisCacheManager redisCacheManager) {
+        this.redisTemplate = redisTemplate;
+        this.redisCacheManager = redisCacheManager;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void multiPutIfAbsent(String cacheName, Map<String, Object> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String prefix = CacheKeyPrefix.simple().compute(cacheName);
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        RedisCacheWriter.TtlFunction ttlFunction = ((RedisCache) redisCacheManager.getCache(cacheName))
+                .getCacheConfiguration().getTtlFunction();
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            entries.forEach((key, value) -> {
+                Duration ttl = ttlFunction.getTimeToLive(key, value);
+                connection.stringCommands().set((prefix + key).getBytes(StandardCharsets.UTF_8),
+                        valueSerializer.serialize(value),
+                        ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                        RedisStringCommands.SetOption.ifAbsent());
+            });
+            return null;
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.microservice.user_service.cache;
+
+import java.time.Duration;
+
+/**
+ * Cross-replica coordination for loading one remote cache entry. A lease elects the single loader of a
+ * missing or expiring key; the others wait for its value instead of hitting the database.
+ */
+public interface RemoteLoadCoordinator {
+
+    /**
+     * @return a token to release the lease with, or {@code null} if another loader holds it
+     */
+    String tryAcquire(String cacheName, String key, Duration lease);
+
+    void release(String cacheName, String key, String token);
+
+    /**
+     * @return the remaining time to live of the entry, or {@code null} if it is absent or does not expire
+     */
+    Duration timeToLive(String cacheName, String key);
+}
@@ -0,0 +1,12 @@
+package com.example.microservice.user_service.cache;
+
+import java.util.List;
+
+/**
+ * Fetches several entries of a remote cache in one round trip. The result is positional:
+ * one element per key, {@code null} where the key is absent.
+ */
+@FunctionalInterface
+public interface RemoteMultiGet {
+    List<Object> multiGet(String cacheName, List<String> keys);
+}
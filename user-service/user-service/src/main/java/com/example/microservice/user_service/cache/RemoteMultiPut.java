@@ -0,0 +1,12 @@
+package com.example.microservice.user_service.cache;
+
+import java.util.Map;
+
+/**
+ * Writes several entries of a remote cache in one round trip, each only where the key is still absent,
+ * with the TTL the remote cache would give it.
+ */
+@FunctionalInterface
+public interface RemoteMultiPut {
+    void multiPutIfAbsent(String cacheName, Map<String, Object> entries);
+}
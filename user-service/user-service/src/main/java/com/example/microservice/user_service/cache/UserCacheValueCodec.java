@@ -0,0 +1,89 @@
+package com.example.microservice.user_service.cache;
+
+import com.example.microservice.user_service.model.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * {@link User} as a null bitmap followed by the non-null fields in declaration order. Timestamps are
+ * UTC epoch seconds plus nanos, the status is its enum name.
+ */
+public class UserCacheValueCodec implements CacheValueCodec<User> {
+
+    private static final int ID = 1;
+    private static final int NAME = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int PHONE_NUMBER = 1 << 3;
+    private static final int ADDRESS = 1 << 4;
+    private static final int AGE = 1 << 5;
+    private static final int STATUS = 1 << 6;
+    private static final int CREATED_AT = 1 << 7;
+    private static final int UPDATED_AT = 1 << 8;
+
+    @Override
+    public byte tag() {
+        return 1;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public void write(User user, DataOutput out) throws IOException {
+        int present = (user.getId() != null ? ID : 0)
+                | (user.getName() != null ? NAME : 0)
+                | (user.getEmail() != null ? EMAIL : 0)
+                | (user.getPhoneNumber() != null ? PHONE_NUMBER : 0)
+                | (user.getAddress() != null ? ADDRESS : 0)
+                | (user.getAge() != null ? AGE : 0)
+                | (user.getStatus() != null ? STATUS : 0)
+                | (user.getCreatedAt() != null ? CREATED_AT : 0)
+                | (user.getUpdatedAt() != null ? UPDATED_AT : 0);
+        out.writeShort(present);
+        if ((present & ID) != 0) out.writeLong(user.getId());
+        if ((present & NAME) != 0) out.writeUTF(user.getName());
+        if ((present & EMAIL) != 0) out.writeUTF(user.getEmail());
+        if ((present & PHONE_NUMBER) != 0) out.writeUTF(user.getPhoneNumber());
+        if ((present & ADDRESS) != 0) out.writeUTF(user.getAddress());
+        if ((present & AGE) != 0) out.writeInt(user.getAge());
+        if ((present & STATUS) != 0) out.writeUTF(user.getStatus().name());
+        if ((present & CREATED_AT) != 0) writeTimestamp(user.getCreatedAt(), out);
+        if ((present & UPDATED_AT) != 0) writeTimestamp(user.getUpdatedAt(), out);
+    }
+
+    @Override
+    public User read(DataInput in, int version) throws IOException {
+        int present = in.readUnsignedShort();
+        User user = new User();
+        user.setId((present & ID) != 0 ? in.readLong() : null);
+        user.setName((present & NAME) != 0 ? in.readUTF() : null);
+        user.setEmail((present & EMAIL) != 0 ? in.readUTF() : null);
+        user.setPhoneNumber((present & PHONE_NUMBER) != 0 ? in.readUTF() : null);
+        user.setAddress((present & ADDRESS) != 0 ? in.readUTF() : null);
+        user.setAge((present & AGE) != 0 ? in.readInt() : null);
+        user.setStatus((present & STATUS) != 0 ? User.UserStatus.valueOf(in.readUTF()) : null);
+        user.setCreatedAt((present & CREATED_AT) != 0 ? readTimestamp(in) : null);
+        user.setUpdatedAt((present & UPDATED_AT) != 0 ? readTimestamp(in) : null);
+        return user;
+    }
+
+    private static void writeTimestamp(LocalDateTime timestamp, DataOutput out) throws IOException {
+        out.writeLong(timestamp.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(timestamp.getNano());
+    }
+
+    private static LocalDateTime readTimestamp(DataInput in) throws IOException {
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
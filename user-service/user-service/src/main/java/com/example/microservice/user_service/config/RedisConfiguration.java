@@ -1,5 +1,16 @@
 package com.example.microservice.user_service.config;
 
+import com.example.microservice.user_service.cache.BinaryCacheValueSerializer;
+import com.example.microservice.user_service.cache.CacheInvalidationBus;
+import com.example.microservice.user_service.cache.CacheValueFormat;
+import com.example.microservice.user_service.cache.JitteredTtlFunction;
+import com.example.microservice.user_service.cache.LongCacheValueCodec;
+import com.example.microservice.user_service.cache.NearCacheManager;
+import com.example.microservice.user_service.cache.NearCacheMeterBinderProvider;
+import com.example.microservice.user_service.cache.RedisRemoteLoadCoordinator;
+import com.example.microservice.user_service.cache.RedisRemoteMultiGet;
+import com.example.microservice.user_service.cache.RedisRemoteMultiPut;
+import com.example.microservice.user_service.cache.UserCacheValueCodec;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
@@ -7,38 +18,122 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import org.springframework.util.unit.DataSize;
+
 import java.time.Duration;
+import java.util.List;
 
 @Configuration
 public class RedisConfiguration {
     @Value("${spring.data.cache.redis.time-to-live}")
     private Duration TIME_TO_LIVE;
 
+    @Value("${spring.data.cache.redis.value-format:json}")
+    private CacheValueFormat VALUE_FORMAT;
+
+    @Value("${spring.data.cache.redis.compression-threshold:1KB}")
+    private DataSize COMPRESSION_THRESHOLD;
+
+    @Value("${spring.data.cache.redis.ttl-jitter:0.1}")
+    private double TTL_JITTER;
+
+    @Value("${spring.data.cache.redis.load-lease:2s}")
+    private Duration LOAD_LEASE;
+
+    @Value("${spring.data.cache.redis.refresh-ahead-beta:1.0}")
+    private double REFRESH_AHEAD_BETA;
+
+    @Value("${spring.data.cache.near.maximum-size:10000}")
+    private long NEAR_CACHE_MAXIMUM_SIZE;
+
+    @Value("${spring.data.cache.near.time-to-live:30s}")
+    private Duration NEAR_CACHE_TIME_TO_LIVE;
+
+    @Value("${spring.data.cache.near.invalidation-channel:user-service:cache-invalidation}")
+    private String NEAR_CACHE_INVALIDATION_CHANNEL;
+
     @Bean
     public RedisCacheManager redisCacheManager(RedisConnectionFactory redisConnectionFactory) {
-        GenericJackson2JsonRedisSerializer jsonRedisSerializer = createValueSerializer();
+        RedisSerializer<Object> valueSerializer = createValueSerializer(VALUE_FORMAT, (int) COMPRESSION_THRESHOLD.toBytes());
 
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(TIME_TO_LIVE)
+                .entryTtl(new JitteredTtlFunction(TIME_TO_LIVE, TTL_JITTER))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonRedisSerializer));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer));
 
-        return RedisCacheManager.builder(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory))
+        // clearing a cache walks its keys with SCAN rather than one blocking KEYS
+        return RedisCacheManager.builder(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory,
+                        BatchStrategies.scan(1000)))
                 .cacheDefaults(cacheConfiguration)
-                .withCacheConfiguration("users", cacheConfiguration.entryTtl(Duration.ofMinutes(10)))
-                .withCacheConfiguration("userCounts", cacheConfiguration.entryTtl(Duration.ofMinutes(5)))
+                .withCacheConfiguration("users", cacheConfiguration.entryTtl(new JitteredTtlFunction(Duration.ofMinutes(10), TTL_JITTER)))
+                .withCacheConfiguration("userCounts", cacheConfiguration.entryTtl(new JitteredTtlFunction(Duration.ofMinutes(5), TTL_JITTER)))
+                .enableStatistics()
                 .build();
     }
 
-    private GenericJackson2JsonRedisSerializer createValueSerializer() {
+    // L1 in front of redisCacheManager; this is the manager @Cacheable resolves
+    @Bean
+    @Primary
+    public NearCacheManager cacheManager(RedisCacheManager redisCacheManager, CacheInvalidationBus cacheInvalidationBus,
+                                         RedisTemplate<String, Object> userCacheRedisTemplate,
+                                         StringRedisTemplate stringRedisTemplate) {
+        return new NearCacheManager(redisCacheManager, NEAR_CACHE_MAXIMUM_SIZE, NEAR_CACHE_TIME_TO_LIVE, cacheInvalidationBus,
+                new RedisRemoteMultiGet(userCacheRedisTemplate),
+                new RedisRemoteMultiPut(userCacheRedisTemplate, redisCacheManager),
+                new RedisRemoteLoadCoordinator(stringRedisTemplate), LOAD_LEASE, REFRESH_AHEAD_BETA);
+    }
+
+    // Same key/value encoding as redisCacheManager, used for MGET on batch lookups and pipelined SETs of their misses
+    @Bean
+    public RedisTemplate<String, Object> userCacheRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(redisConnectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(createValueSerializer(VALUE_FORMAT, (int) COMPRESSION_THRESHOLD.toBytes()));
+        return template;
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate stringRedisTemplate) {
+        return new CacheInvalidationBus(stringRedisTemplate, NEAR_CACHE_INVALIDATION_CHANNEL);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory redisConnectionFactory,
+                                                                           CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(cacheInvalidationBus.getChannel()));
+        return container;
+    }
+
+    @Bean
+    public NearCacheMeterBinderProvider nearCacheMeterBinderProvider() {
+        return new NearCacheMeterBinderProvider();
+    }
+
+    static RedisSerializer<Object> createValueSerializer(CacheValueFormat format, int compressionThreshold) {
+        return new BinaryCacheValueSerializer(List.of(new UserCacheValueCodec(), new LongCacheValueCodec()),
+                createJsonValueSerializer(), format, compressionThreshold);
+    }
+
+    // The original value format; still used to read entries written before the binary format
+    static GenericJackson2JsonRedisSerializer createJsonValueSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
 
         objectMapper.registerModule(new JavaTimeModule());
@@ -0,0 +1,16 @@
+package com.example.microservice.user_service.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+@Configuration
+public class WebConfiguration {
+
+    // Buffers each JSON response to add ETag and Content-Length, which the api-gateway needs to cache it.
+    // StreamingResponseBody endpoints (GET /api/users unpaged and /stream) opt out and stay chunked
+    @Bean
+    public ShallowEtagHeaderFilter shallowEtagHeaderFilter() {
+        return new ShallowEtagHeaderFilter();
+    }
+}
@@ -1,8 +1,11 @@
 package com.example.microservice.user_service.controller;
 
 import com.example.microservice.user_service.model.User;
+import com.example.microservice.user_service.model.UserBatchRequest;
 import com.example.microservice.user_service.model.UserDto;
 import com.example.microservice.user_service.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,10 +14,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,7 +32,11 @@ import java.util.Map;
 @Slf4j
 public class UserController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     // Create User
     @PostMapping
@@ -42,6 +54,23 @@ public class UserController {
         return ResponseEntity.noContent().build();
     }
 
+    // Change User status; keeps the user counts in step
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<User> updateUserStatus(@PathVariable Long id, @RequestParam User.UserStatus status) {
+        return ResponseEntity.ok(userService.updateStatus(id, status));
+    }
+
+    // Count Users, in total and per status, from maintained counters instead of a table scan
+    @GetMapping("/count")
+    public ResponseEntity<Map<String, Long>> countUsers() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("total", userService.countUsers(null));
+        for (User.UserStatus status : User.UserStatus.values()) {
+            counts.put(status.name(), userService.countUsers(status));
+        }
+        return ResponseEntity.ok(counts);
+    }
+
     // Get User by ID (with caching)
     @GetMapping("/{id}")
     public ResponseEntity<User> getUserById(@PathVariable Long id) {
@@ -51,6 +80,12 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // Get Users by IDs in one call (with caching); unknown IDs are left out of the result
+    @PostMapping("/batch")
+    public ResponseEntity<List<User>> getUsersByIds(@Valid @RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userService.findAllByIds(request.getIds()));
+    }
+
     // Get User by Email (with caching)
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
@@ -59,9 +94,60 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // Get all Users as one JSON array, written row by row as it is read from the database.
+    // Callers that pass afterId or size get keyset pages instead
+    @GetMapping(params = {"!afterId", "!size"})
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        ObjectWriter writer = objectMapper.writerFor(User.class);
+        StreamingResponseBody body = outputStream -> {
+            outputStream.write('[');
+            boolean[] first = {true};
+            userService.streamAllUsers(user -> {
+                try {
+                    if (!first[0]) {
+                        outputStream.write(',');
+                    }
+                    first[0] = false;
+                    outputStream.write(writer.writeValueAsBytes(user));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.write(']');
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // Get Users by keyset pagination: pass X-Next-Cursor back as afterId to fetch the next page
     @GetMapping
-    public ResponseEntity<List<User>> getAllUser(){
-        return ResponseEntity.ok(userService.getAllUser());
+    public ResponseEntity<List<User>> getAllUser(@RequestParam(defaultValue = "0") Long afterId,
+                                                 @RequestParam(defaultValue = "100") int size) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<User> users = userService.getUsersAfter(afterId, pageSize);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (users.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(users.get(users.size() - 1).getId()));
+        }
+        return response.body(users);
+    }
+
+    // Stream all Users as NDJSON, one row per line as it is read from the database
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        ObjectWriter writer = objectMapper.writerFor(User.class);
+        StreamingResponseBody body = outputStream -> userService.streamAllUsers(user -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(user));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
 }
@@ -1,5 +1,6 @@
 package com.example.microservice.user_service.exception;
 
+import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,8 +17,9 @@ import java.util.Map;
 @Slf4j
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleUserNotFoundException(UserNotFoundException ex) {
+    // findById reports a missing user as EntityNotFoundException; callers such as order-service need the 404
+    @ExceptionHandler({UserNotFoundException.class, EntityNotFoundException.class})
+    public ResponseEntity<ErrorResponse> handleUserNotFoundException(RuntimeException ex) {
         ErrorResponse errorResponse = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
                 .status(HttpStatus.NOT_FOUND.value())
@@ -1,10 +1,18 @@
 package com.example.microservice.user_service.repository;
 
 import com.example.microservice.user_service.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -13,5 +21,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    @Query("select u.email as email, u.status as status from User u where u.id = :id")
+    Optional<EmailAndStatus> findEmailAndStatusById(@Param("id") Long id);
 
-}
\ No newline at end of file
+    @Query("select u.status as status, count(u) as count from User u group by u.status")
+    List<StatusCount> countByStatus();
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAllOrderById();
+
+    interface EmailAndStatus {
+        String getEmail();
+
+        User.UserStatus getStatus();
+    }
+
+    interface StatusCount {
+        User.UserStatus getStatus();
+
+        long getCount();
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.microservice.user_service.service;
+
+import com.example.microservice.user_service.model.User;
+import com.example.microservice.user_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * User totals kept in one Redis hash ({@code total} plus one field per {@link User.UserStatus}), adjusted
+ * with {@code HINCRBY} after each committed create, delete or status change, so reading a count never
+ * scans the table. Deltas lost to a crash or a Redis outage are corrected by {@link #reconcile()}, which
+ * overwrites the hash with a {@code GROUP BY status} count from the database.
+ */
+@Component
+@Slf4j
+public class UserCounters {
+
+    static final String TOTAL = "total";
+    private static final String USER_COUNT_CACHE = "userCounts";
+
+    private final StringRedisTemplate redisTemplate;
+    private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final String KEY;
+
+    public UserCounters(StringRedisTemplate redisTemplate, UserRepository userRepository, CacheManager cacheManager,
+                        @Value("${user-counts.key:user-service:user-counts}") String key) {
+        this.redisTemplate = redisTemplate;
+        this.userRepository = userRepository;
+        this.cacheManager = cacheManager;
+        this.KEY = key;
+    }
+
+    public void onCreated(User.UserStatus status) {
+        afterCommit(Map.of(TOTAL, 1L), status, 1L);
+    }
+
+    public void onDeleted(User.UserStatus status) {
+        afterCommit(Map.of(TOTAL, -1L), status, -1L);
+    }
+
+    public void onStatusChanged(User.UserStatus from, User.UserStatus to) {
+        if (from == to) {
+            return;
+        }
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        if (from != null) {
+            deltas.put(from.name(), -1L);
+        }
+        afterCommit(deltas, to, 1L);
+    }
+
+    /**
+     * @param field {@link #TOTAL} or a {@link User.UserStatus} name
+     */
+    public long get(String field) {
+        HashOperations<String, String, String> hash = redisTemplate.opsForHash();
+        String value = hash.get(KEY, field);
+        if (value == null && !Boolean.TRUE.equals(redisTemplate.hasKey(KEY))) {
+            // first read after a Redis flush or on a fresh instance
+            reconcile();
+            value = hash.get(KEY, field);
+        }
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    // Increments racing with the snapshot can be off until the next run; counts are eventually exact
+    @Scheduled(fixedDelayString = "${user-counts.reconcile-interval:5m}", initialDelayString = "${user-counts.reconcile-interval:5m}")
+    public void reconcile() {
+        Map<String, String> counts = new LinkedHashMap<>();
+        long total = 0;
+        for (User.UserStatus status : User.UserStatus.values()) {
+            counts.put(status.name(), "0");
+        }
+        for (UserRepository.StatusCount statusCount : userRepository.countByStatus()) {
+            total += statusCount.getCount();
+            if (statusCount.getStatus() != null) {
+                counts.put(statusCount.getStatus().name(), String.valueOf(statusCount.getCount()));
+            }
+        }
+        counts.put(TOTAL, String.valueOf(total));
+        redisTemplate.opsForHash().putAll(KEY, counts);
+        evictCachedCounts(counts.keySet());
+        log.info("Reconciled user counts: {}", counts);
+    }
+
+    private void afterCommit(Map<String, Long> deltas, User.UserStatus status, long delta) {
+        Map<String, Long> all = new LinkedHashMap<>(deltas);
+        if (status != null) {
+            all.merge(status.name(), delta, Long::sum);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(all);
+                }
+            });
+        } else {
+            apply(all);
+        }
+    }
+
+    private void apply(Map<String, Long> deltas) {
+        try {
+            deltas.forEach((field, delta) -> redisTemplate.opsForHash().increment(KEY, field, delta));
+            evictCachedCounts(deltas.keySet());
+        } catch (DataAccessException ex) {
+            // runs after commit, so the write itself must not fail because of this
+            log.warn("Cannot update user counts {}, the next reconciliation will correct them: {}", deltas, ex.getMessage());
+        }
+    }
+
+    // userCounts is keyed by hash field, so only the counts that changed are dropped
+    private void evictCachedCounts(Collection<String> fields) {
+        Cache cache = cacheManager.getCache(USER_COUNT_CACHE);
+        if (cache != null) {
+            fields.forEach(cache::evict);
+        }
+    }
+}
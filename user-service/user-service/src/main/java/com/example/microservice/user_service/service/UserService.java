@@ -2,18 +2,29 @@ package com.example.microservice.user_service.service;
 
 import com.example.microservice.user_service.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
     User createUser(User user);
 
     void deleteById(Long id);
 
+    User updateStatus(Long id, User.UserStatus status);
+
+    // null counts users of every status
+    long countUsers(User.UserStatus status);
+
     User findById(Long id);
 
     Optional<User> findByEmail(String email);
 
-    List<User> getAllUser();
+    List<User> findAllByIds(Collection<Long> ids);
+
+    List<User> getUsersAfter(Long afterId, int size);
+
+    void streamAllUsers(Consumer<User> consumer);
 
 }
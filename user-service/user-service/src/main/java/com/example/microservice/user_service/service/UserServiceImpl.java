@@ -1,21 +1,35 @@
 package com.example.microservice.user_service.service;
 
+import com.example.microservice.user_service.cache.NearCache;
 import com.example.microservice.user_service.exception.EmailAlreadyExistsException;
 import com.example.microservice.user_service.exception.UserNotFoundException;
 import com.example.microservice.user_service.model.User;
 import com.example.microservice.user_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,31 +38,65 @@ import java.util.Optional;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+    private final UserCounters userCounters;
     private static final String USER_CACHE = "users";
     private static final String USER_COUNT_CACHE = "userCounts";
 
     @Override
     @Transactional
-    @CacheEvict(value = {USER_CACHE, USER_COUNT_CACHE}, allEntries = true)
+    @Caching(
+            put = {
+                    @CachePut(value = USER_CACHE, key = "#result.id"),
+                    @CachePut(value = USER_CACHE, key = "'email_' + #result.email")
+            }
+    )
     public User createUser(User user) {
         if (userRepository.existsByEmail(user.getEmail())) {
             throw new EmailAlreadyExistsException("Email already exists: " + user.getEmail());
         }
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userCounters.onCreated(savedUser.getStatus());
+        return savedUser;
     }
 
     @Override
     @Transactional
-    @CacheEvict(value = {USER_CACHE, USER_COUNT_CACHE}, allEntries = true)
-    public void deleteById(Long id) {
-        if (!userRepository.existsById(id)) {
-            throw new UserNotFoundException("User not found with id: " + id);
+    @Caching(put = {
+            @CachePut(value = USER_CACHE, key = "#result.id"),
+            @CachePut(value = USER_CACHE, key = "'email_' + #result.email")
+    })
+    public User updateStatus(Long id, User.UserStatus status) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+        User.UserStatus previous = user.getStatus();
+        if (previous != status) {
+            user.setStatus(status);
+            user = userRepository.save(user);
+            userCounters.onStatusChanged(previous, status);
         }
+        return user;
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(value = USER_CACHE, key = "#id")
+    public void deleteById(Long id) {
+        UserRepository.EmailAndStatus deleted = userRepository.findEmailAndStatusById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
         userRepository.deleteById(id);
+        userCounters.onDeleted(deleted.getStatus());
+        // the email key is not derivable from the method arguments, so evict it by hand
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        if (cache != null) {
+            cache.evict("email_" + deleted.getEmail());
+        }
     }
 
     @Override
-    @Cacheable(value = USER_CACHE, key = "#id", unless = "#result == null")
+    // sync: concurrent misses for one id share a single load, see NearCache#get(Object, Callable)
+    @Cacheable(value = USER_CACHE, key = "#id", sync = true)
     public User findById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> {
@@ -65,8 +113,60 @@ public class UserServiceImpl implements UserService {
         return userRepository.findByEmail(email);
     }
 
+    // userCounts entries are cleared by UserCounters once a write has committed and been counted
+    @Override
+    @Cacheable(value = USER_COUNT_CACHE, key = "#status != null ? #status.name() : 'total'", sync = true)
+    public long countUsers(User.UserStatus status) {
+        return userCounters.get(status != null ? status.name() : UserCounters.TOTAL);
+    }
+
     @Override
-    public List<User> getAllUser() {
-        return userRepository.findAll();
+    public List<User> findAllByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, User> found = new HashMap<>();
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        if (cache instanceof NearCache nearCache) {
+            nearCache.getAll(distinctIds).forEach((id, user) -> found.put((Long) id, (User) user));
+        } else if (cache != null) {
+            distinctIds.forEach(id -> {
+                User user = cache.get(id, User.class);
+                if (user != null) {
+                    found.put(id, user);
+                }
+            });
+        }
+
+        List<Long> missingIds = new ArrayList<>(distinctIds);
+        missingIds.removeAll(found.keySet());
+        if (!missingIds.isEmpty()) {
+            Map<Long, User> loaded = new HashMap<>();
+            for (User user : userRepository.findAllById(missingIds)) {
+                loaded.put(user.getId(), user);
+            }
+            found.putAll(loaded);
+            if (cache instanceof NearCache nearCache) {
+                nearCache.putAllLoaded(loaded);
+            } else if (cache != null) {
+                loaded.forEach(cache::put);
+            }
+        }
+        log.info("Resolved {} of {} users, {} from the database", found.size(), distinctIds.size(), missingIds.size());
+        return distinctIds.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public List<User> getUsersAfter(Long afterId, int size) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(size));
+    }
+
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                // keep the persistence context from growing with the table
+                entityManager.detach(user);
+            });
+        }
     }
 }
@@ -0,0 +1,147 @@
+package com.example.microservice.user_service.cache;
+
+import com.example.microservice.user_service.model.User;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCacheValueSerializerTest {
+
+    RedisSerializer<Object> jsonSerializer;
+    BinaryCacheValueSerializer serializer;
+    User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(BasicPolymorphicTypeValidator.builder().allowIfBaseType(Object.class).build(),
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        serializer = create(CacheValueFormat.BINARY, 1024);
+        LocalDateTime timestamp = LocalDateTime.of(2025, 1, 15, 10, 30, 0, 123_456_789);
+        testUser = User.builder()
+                .id(1L)
+                .name("Chi Bao TO")
+                .email("baototo@gmail.com")
+                .phoneNumber("+84901234567")
+                .address("123 Nguyen Hue, District 1, Ho Chi Minh City")
+                .age(30)
+                .createdAt(timestamp)
+                .updatedAt(timestamp)
+                .build();
+    }
+
+    BinaryCacheValueSerializer create(CacheValueFormat format, int compressionThreshold) {
+        return new BinaryCacheValueSerializer(List.of(new UserCacheValueCodec(), new LongCacheValueCodec()),
+                jsonSerializer, format, compressionThreshold);
+    }
+
+    @Test
+    void When_RoundTripUser_Expect_AllFieldsAndSmallerThanJson() {
+        // TODO: Act
+        byte[] bytes = serializer.serialize(testUser);
+        User user = (User) serializer.deserialize(bytes);
+        // TODO: Assert
+        assertEquals(BinaryCacheValueSerializer.MAGIC, bytes[0]);
+        assertTrue(bytes.length < jsonSerializer.serialize(testUser).length / 2);
+        assertEquals(testUser.getId(), user.getId());
+        assertEquals(testUser.getName(), user.getName());
+        assertEquals(testUser.getEmail(), user.getEmail());
+        assertEquals(testUser.getPhoneNumber(), user.getPhoneNumber());
+        assertEquals(testUser.getAddress(), user.getAddress());
+        assertEquals(testUser.getAge(), user.getAge());
+        assertEquals(User.UserStatus.ACTIVE, user.getStatus());
+        assertEquals(testUser.getCreatedAt(), user.getCreatedAt());
+        assertEquals(testUser.getUpdatedAt(), user.getUpdatedAt());
+    }
+
+    @Test
+    void When_RoundTripUserWithNullFields_Expect_NullsPreserved() {
+        // TODO: Arrange
+        User sparse = User.builder().id(2L).name("Sparse").email("sparse@example.com").status(null).build();
+        // TODO: Act
+        User user = (User) serializer.deserialize(serializer.serialize(sparse));
+        // TODO: Assert
+        assertEquals("Sparse", user.getName());
+        assertNull(user.getPhoneNumber());
+        assertNull(user.getAge());
+        assertNull(user.getStatus());
+        assertNull(user.getCreatedAt());
+    }
+
+    @Test
+    void When_RoundTripCount_Expect_Long() {
+        // TODO: Act & Assert
+        assertEquals(42L, serializer.deserialize(serializer.serialize(42L)));
+    }
+
+    @Test
+    void When_ValueAboveCompressionThreshold_Expect_DeflatedAndReadable() {
+        // TODO: Arrange
+        BinaryCacheValueSerializer compressing = create(CacheValueFormat.BINARY, 16);
+        testUser.setAddress("District 1 ".repeat(9));
+        // TODO: Act
+        byte[] compressed = compressing.serialize(testUser);
+        byte[] plain = serializer.serialize(testUser);
+        // TODO: Assert
+        assertTrue(compressed.length < plain.length);
+        assertEquals(testUser.getAddress(), ((User) compressing.deserialize(compressed)).getAddress());
+        assertEquals(testUser.getAddress(), ((User) serializer.deserialize(compressed)).getAddress());
+    }
+
+    @Test
+    void When_LegacyJsonEntry_Expect_ReadThroughJsonSerializer() {
+        // TODO: Arrange
+        byte[] legacy = jsonSerializer.serialize(testUser);
+        // TODO: Act
+        User user = (User) serializer.deserialize(legacy);
+        // TODO: Assert
+        assertEquals(testUser.getEmail(), user.getEmail());
+        assertEquals(testUser.getCreatedAt(), user.getCreatedAt());
+    }
+
+    @Test
+    void When_JsonFormat_Expect_WriteJsonAndStillReadBinary() {
+        // TODO: Arrange
+        BinaryCacheValueSerializer json = create(CacheValueFormat.JSON, 1024);
+        // TODO: Act
+        byte[] bytes = json.serialize(testUser);
+        // TODO: Assert
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).startsWith("{"));
+        assertEquals(testUser.getEmail(), ((User) json.deserialize(serializer.serialize(testUser))).getEmail());
+    }
+
+    @Test
+    void When_JsonFormatCount_Expect_WriteBinaryAndReadBackLong() {
+        // TODO: Arrange
+        BinaryCacheValueSerializer json = create(CacheValueFormat.JSON, 1024);
+        // TODO: Act
+        byte[] bytes = json.serialize(42L);
+        // TODO: Assert
+        assertEquals(BinaryCacheValueSerializer.MAGIC, bytes[0]);
+        assertEquals(42L, json.deserialize(bytes));
+    }
+
+    @Test
+    void When_NewerCodecVersionOrUnknownTag_Expect_Miss() {
+        // TODO: Arrange
+        byte[] newer = serializer.serialize(testUser);
+        newer[1] = 2;
+        byte[] unknown = serializer.serialize(testUser);
+        unknown[2] = 99;
+        // TODO: Act & Assert
+        assertNull(serializer.deserialize(newer));
+        assertNull(serializer.deserialize(unknown));
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.microservice.user_service.cache;
+
+import com.example.microservice.user_service.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.connection.DefaultMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheTest {
+
+    @Mock
+    CacheInvalidationBus invalidationBus;
+    Cache remote;
+    NearCache nearCache;
+    User testUser;
+
+    @BeforeEach
+    void setUp() {
+        remote = Mockito.spy(new ConcurrentMapCache("users"));
+        nearCache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus);
+        testUser = User.builder().id(1L).name("Chi Bao TO").email("baototo@gmail.com").build();
+    }
+
+    @Test
+    void When_GetAfterRemoteHit_Expect_ServeFromLocalTier() {
+        // TODO: Arrange
+        remote.put(1L, testUser);
+        // TODO: Act
+        Cache.ValueWrapper first = nearCache.get(1L);
+        Cache.ValueWrapper second = nearCache.get(1L);
+        // TODO: Assert
+        assertSame(testUser, first.get());
+        assertSame(testUser, second.get());
+        assertEquals(1, nearCache.remoteHitCount());
+        assertEquals(1, nearCache.localHitCount());
+        Mockito.verify(remote, Mockito.times(1)).get(1L);
+    }
+
+    @Test
+    void When_GetMissingKey_Expect_CountMissAndReturnNull() {
+        // TODO: Act & Assert
+        assertNull(nearCache.get(42L));
+        assertEquals(1, nearCache.missCount());
+        assertEquals(0, nearCache.localSize());
+    }
+
+    @Test
+    void When_Evict_Expect_RemoveBothTiersAndPublish() {
+        // TODO: Arrange
+        nearCache.put(1L, testUser);
+        // TODO: Act
+        nearCache.evict(1L);
+        // TODO: Assert
+        assertNull(remote.get(1L));
+        assertNull(nearCache.get(1L));
+        Mockito.verify(invalidationBus, Mockito.times(2)).publishEvict("users", "1");
+    }
+
+    @Test
+    void When_InvalidationFromOtherInstance_Expect_DropOnlyLocalCopy() {
+        // TODO: Arrange
+        CacheInvalidationBus bus = new CacheInvalidationBus(null, "test-channel");
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), bus);
+        bus.register(cache);
+        remote.put(1L, testUser);
+        cache.get(1L);
+        assertEquals(1, cache.localSize());
+        // TODO: Act
+        bus.onMessage(new DefaultMessage("test-channel".getBytes(StandardCharsets.UTF_8),
+                "other-instance:E:users:1".getBytes(StandardCharsets.UTF_8)), null);
+        // TODO: Assert
+        assertEquals(0, cache.localSize());
+        assertNotNull(remote.get(1L));
+    }
+
+    @Test
+    void When_GetAllWithMixedTiers_Expect_SingleRemoteMultiGetForLocalMisses() {
+        // TODO: Arrange
+        User otherUser = User.builder().id(2L).name("Other").email("other@gmail.com").build();
+        List<List<String>> requestedKeys = new ArrayList<>();
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, (name, keys) -> {
+            requestedKeys.add(keys);
+            return Arrays.asList(otherUser, null);
+        });
+        cache.put(1L, testUser);
+        // TODO: Act
+        Map<Object, Object> found = cache.getAll(List.of(1L, 2L, 3L));
+        // TODO: Assert
+        assertEquals(Map.of(1L, testUser, 2L, otherUser), found);
+        assertEquals(List.of(List.of("2", "3")), requestedKeys);
+        assertEquals(1, cache.localHitCount());
+        assertEquals(1, cache.remoteHitCount());
+        assertEquals(1, cache.missCount());
+    }
+
+    @Test
+    void When_PutAllLoaded_Expect_SingleRemoteMultiPutAndNoInvalidation() {
+        // TODO: Arrange
+        User otherUser = User.builder().id(2L).name("Other").email("other@gmail.com").build();
+        List<Map<String, Object>> written = new ArrayList<>();
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, null,
+                (name, entries) -> written.add(entries), null, Duration.ZERO, 0);
+        // TODO: Act
+        cache.putAllLoaded(Map.of(1L, testUser, 2L, otherUser));
+        // TODO: Assert
+        assertEquals(List.of(Map.of("1", testUser, "2", otherUser)), written);
+        assertSame(otherUser, cache.get(2L, User.class));
+        assertEquals(1, cache.localHitCount());
+        assertEquals(2, cache.putCount());
+        Mockito.verifyNoInteractions(invalidationBus);
+        Mockito.verify(remote, Mockito.never()).put(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void When_PutAllLoadedWithoutMultiPut_Expect_KeepNewerRemoteEntry() {
+        // TODO: Arrange
+        User updated = User.builder().id(1L).name("Updated").email("baototo@gmail.com").build();
+        remote.put(1L, updated);
+        // TODO: Act
+        nearCache.putAllLoaded(Map.of(1L, testUser));
+        // TODO: Assert
+        assertSame(updated, remote.get(1L).get());
+        Mockito.verifyNoInteractions(invalidationBus);
+    }
+
+    @Test
+    void When_ConcurrentLoadsOfSameKey_Expect_SingleLoaderCall() throws Exception {
+        // TODO: Arrange
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<User> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return testUser;
+        };
+        // TODO: Act
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            Future<User> leader = executor.submit(() -> nearCache.get(1L, loader));
+            loading.await();
+            List<Future<User>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> nearCache.get(1L, loader)));
+            }
+            while (nearCache.localSuppressedLoadCount() < 3) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            // TODO: Assert
+            assertSame(testUser, leader.get());
+            for (Future<User> follower : followers) {
+                assertSame(testUser, follower.get());
+            }
+        }
+        assertEquals(1, loads.get());
+        assertSame(testUser, remote.get(1L).get());
+    }
+
+    @Test
+    void When_LoadLeaseHeldByOtherReplica_Expect_WaitForItsValueInsteadOfLoading() {
+        // TODO: Arrange
+        RemoteLoadCoordinator coordinator = Mockito.mock(RemoteLoadCoordinator.class);
+        Mockito.when(coordinator.tryAcquire("users", "1", Duration.ofSeconds(1))).thenAnswer(invocation -> {
+            // the other replica finishes its load while we wait
+            remote.put(1L, testUser);
+            return null;
+        });
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, null, null,
+                coordinator, Duration.ofSeconds(1), 0);
+        // TODO: Act
+        User user = cache.get(1L, () -> fail("loaded despite the lease held elsewhere"));
+        // TODO: Assert
+        assertSame(testUser, user);
+        assertEquals(1, cache.remoteSuppressedLoadCount());
+        Mockito.verify(coordinator, Mockito.never()).release(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    void When_LeaseReleasedWithoutValue_Expect_TakeOverLeaseAndLoad() {
+        // TODO: Arrange
+        RemoteLoadCoordinator coordinator = Mockito.mock(RemoteLoadCoordinator.class);
+        // held by another replica whose loader then fails and releases the lease without writing L2
+        Mockito.when(coordinator.tryAcquire("users", "1", Duration.ofSeconds(2))).thenReturn(null, "token");
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, null, null,
+                coordinator, Duration.ofSeconds(2), 0);
+        long start = System.nanoTime();
+        // TODO: Act
+        User user = cache.get(1L, () -> testUser);
+        // TODO: Assert
+        assertSame(testUser, user);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos(), "waited for the whole lease");
+        assertEquals(0, cache.remoteSuppressedLoadCount());
+        Mockito.verify(coordinator).release("users", "1", "token");
+    }
+
+    @Test
+    void When_EarlyRefreshLoaderFails_Expect_ServeCurrentValue() {
+        // TODO: Arrange
+        RemoteLoadCoordinator coordinator = Mockito.mock(RemoteLoadCoordinator.class);
+        Mockito.when(coordinator.timeToLive("users", "1")).thenReturn(Duration.ZERO);
+        Mockito.when(coordinator.tryAcquire("users", "1", Duration.ofSeconds(1))).thenReturn("token");
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, null, null,
+                coordinator, Duration.ofSeconds(1), 1.0);
+        remote.put(1L, testUser);
+        // TODO: Act
+        User user = cache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        });
+        // TODO: Assert
+        assertSame(testUser, user);
+        assertEquals(1, cache.refreshAheadCount());
+        Mockito.verify(coordinator).release("users", "1", "token");
+    }
+
+    @Test
+    void When_RemoteEntryAboutToExpire_Expect_RefreshAheadUnderLease() {
+        // TODO: Arrange
+        User refreshed = User.builder().id(1L).name("Refreshed").email("baototo@gmail.com").build();
+        RemoteLoadCoordinator coordinator = Mockito.mock(RemoteLoadCoordinator.class);
+        Mockito.when(coordinator.timeToLive("users", "1")).thenReturn(Duration.ZERO);
+        Mockito.when(coordinator.tryAcquire("users", "1", Duration.ofSeconds(1))).thenReturn("token");
+        NearCache cache = new NearCache(remote, 100, Duration.ofMinutes(1), invalidationBus, null, null,
+                coordinator, Duration.ofSeconds(1), 1.0);
+        remote.put(1L, testUser);
+        // TODO: Act
+        User user = cache.get(1L, () -> refreshed);
+        // TODO: Assert
+        assertSame(refreshed, user);
+        assertSame(refreshed, remote.get(1L).get());
+        assertEquals(1, cache.refreshAheadCount());
+        Mockito.verify(coordinator).release("users", "1", "token");
+    }
+
+    @Test
+    void When_JitteredTtl_Expect_WithinConfiguredSpread() {
+        // TODO: Arrange
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(10), 0.1);
+        // TODO: Act & Assert
+        for (int i = 0; i < 100; i++) {
+            Duration ttl = ttlFunction.getTimeToLive(1L, testUser);
+            assertTrue(ttl.compareTo(Duration.ofMinutes(10)) >= 0 && ttl.compareTo(Duration.ofMinutes(11)) <= 0, ttl.toString());
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.example.microservice.user_service.controller;
 
 import com.example.microservice.user_service.exception.UserNotFoundException;
 import com.example.microservice.user_service.model.User;
+import com.example.microservice.user_service.model.UserBatchRequest;
 import com.example.microservice.user_service.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
 import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -15,6 +17,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
@@ -22,6 +25,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 
 @WebMvcTest(UserController.class)
@@ -113,7 +118,8 @@ public class UserControllerTest {
                                 .contentType(MediaType.APPLICATION_JSON)
                 )
                 .andDo(MockMvcResultHandlers.print())
-                .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+                .andExpect(MockMvcResultMatchers.status().isNotFound())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(404));
 
         Mockito.verify(userService).findById(929L);
     }
@@ -160,41 +166,118 @@ public class UserControllerTest {
         user2.setId(2L);
         user2.setEmail("bao2@example.com");
         user2.setName("Chi Bao Two");
-
-        List<User> users = List.of(testUser, user2);
-        Mockito.when(userService.getAllUser()).thenReturn(users);
-
-        // TODO: Act & Assert
-        this.mockMvc.perform(
+        Mockito.doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            consumer.accept(testUser);
+            consumer.accept(user2);
+            return null;
+        }).when(userService).streamAllUsers(ArgumentMatchers.any());
+
+        // TODO: Act
+        MvcResult mvcResult = this.mockMvc.perform(
                         MockMvcRequestBuilders.get("/api/users")
                                 .contentType(MediaType.APPLICATION_JSON)
                 )
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // TODO: Assert
+        this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[0].email").value("baototo@gmail.com"))
                 .andExpect(MockMvcResultMatchers.jsonPath("$[1].id").value(2))
-                .andExpect(MockMvcResultMatchers.jsonPath("$[1].email").value("bao2@example.com"));
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].email").value("bao2@example.com"))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"));
 
-        Mockito.verify(userService).getAllUser();
+        Mockito.verify(userService, Mockito.never()).getUsersAfter(ArgumentMatchers.any(), ArgumentMatchers.anyInt());
     }
 
     @Test
     void When_GetAllUsers_NoUsers_Expect_ReturnsEmptyList() throws Exception {
-        // TODO: Arrange
-        Mockito.when(userService.getAllUser()).thenReturn(List.of());
+        // TODO: Arrange: streamAllUsers passes no rows
 
-        // TODO: Act & Assert
-        this.mockMvc.perform(
+        // TODO: Act
+        MvcResult mvcResult = this.mockMvc.perform(
                         MockMvcRequestBuilders.get("/api/users")
                                 .contentType(MediaType.APPLICATION_JSON)
                 )
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // TODO: Assert
+        this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(0)));
 
-        Mockito.verify(userService).getAllUser();
+        Mockito.verify(userService).streamAllUsers(ArgumentMatchers.any());
+    }
+
+    @Test
+    void When_GetUsers_WithAfterIdOnly_Expect_DefaultPageSize() throws Exception {
+        // TODO: Arrange
+        Mockito.when(userService.getUsersAfter(5L, 100)).thenReturn(List.of(testUser));
+
+        // TODO: Act & Assert
+        this.mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/users")
+                                .param("afterId", "5")
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.header().doesNotExist("X-Next-Cursor"));
+
+        Mockito.verify(userService).getUsersAfter(5L, 100);
+    }
+
+    @Test
+    void When_GetAllUsers_PageIsFull_Expect_ReturnsNextCursor() throws Exception {
+        // TODO: Arrange
+        Mockito.when(userService.getUsersAfter(0L, 1)).thenReturn(List.of(testUser));
+
+        // TODO: Act & Assert
+        this.mockMvc.perform(
+                        MockMvcRequestBuilders.get("/api/users")
+                                .param("afterId", "0")
+                                .param("size", "1")
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "1"));
+    }
+
+    @Test
+    void When_StreamAllUsers_Expect_ReturnsNdjsonRows() throws Exception {
+        // TODO: Arrange
+        User user2 = new User();
+        user2.setId(2L);
+        user2.setEmail("bao2@example.com");
+        user2.setName("Chi Bao Two");
+        Mockito.doAnswer(invocation -> {
+            Consumer<User> consumer = invocation.getArgument(0);
+            consumer.accept(testUser);
+            consumer.accept(user2);
+            return null;
+        }).when(userService).streamAllUsers(ArgumentMatchers.any());
+
+        // TODO: Act
+        MvcResult mvcResult = this.mockMvc.perform(MockMvcRequestBuilders.get("/api/users/stream"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // TODO: Assert
+        String body = this.mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        Assertions.assertEquals(2, lines.length);
+        Assertions.assertEquals(1L, mapper.readValue(lines[0], User.class).getId());
+        Assertions.assertEquals(2L, mapper.readValue(lines[1], User.class).getId());
     }
     @Test
     void When_DeleteUser_UserExists_Expect_ReturnsNoContent() throws Exception {
@@ -228,4 +311,63 @@ public class UserControllerTest {
 
         Mockito.verify(userService).deleteById(979L);
     }
+
+    @Test
+    void When_GetUsersByIds_Expect_ReturnsResolvedUsers() throws Exception {
+        // TODO: Arrange
+        Mockito.when(userService.findAllByIds(Set.of(1L, 404L))).thenReturn(List.of(testUser));
+
+        // TODO: Act & Assert
+        this.mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(new UserBatchRequest(Set.of(1L, 404L))))
+                )
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(1));
+
+        Mockito.verify(userService).findAllByIds(Set.of(1L, 404L));
+    }
+
+    @Test
+    void When_GetUsersByIds_WithNoIds_Expect_BadRequest() throws Exception {
+        // TODO: Act & Assert
+        this.mockMvc.perform(
+                        MockMvcRequestBuilders.post("/api/users/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(new UserBatchRequest(Set.of())))
+                )
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    @Test
+    void When_CountUsers_Expect_TotalAndPerStatusCounts() throws Exception {
+        // TODO: Arrange
+        Mockito.when(userService.countUsers(null)).thenReturn(5L);
+        Mockito.when(userService.countUsers(User.UserStatus.ACTIVE)).thenReturn(4L);
+        Mockito.when(userService.countUsers(User.UserStatus.SUSPENDED)).thenReturn(1L);
+
+        // TODO: Act & Assert
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/users/count"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.ACTIVE").value(4))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.INACTIVE").value(0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.SUSPENDED").value(1));
+    }
+
+    @Test
+    void When_UpdateUserStatus_Expect_ReturnsUpdatedUser() throws Exception {
+        // TODO: Arrange
+        testUser.setStatus(User.UserStatus.SUSPENDED);
+        Mockito.when(userService.updateStatus(1L, User.UserStatus.SUSPENDED)).thenReturn(testUser);
+
+        // TODO: Act & Assert
+        this.mockMvc.perform(MockMvcRequestBuilders.patch("/api/users/1/status").param("status", "SUSPENDED"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("SUSPENDED"));
+    }
 }
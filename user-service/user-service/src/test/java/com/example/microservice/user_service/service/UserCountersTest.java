@@ -0,0 +1,106 @@
+package com.example.microservice.user_service.service;
+
+import com.example.microservice.user_service.model.User;
+import com.example.microservice.user_service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserCountersTest {
+
+    private static final String KEY = "user-service:user-counts";
+
+    @Mock
+    StringRedisTemplate redisTemplate;
+    @Mock
+    HashOperations<String, Object, Object> hashOperations;
+    @Mock
+    UserRepository userRepository;
+    @Mock
+    CacheManager cacheManager;
+    @Mock
+    Cache cache;
+    UserCounters userCounters;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        Mockito.lenient().when(cacheManager.getCache("userCounts")).thenReturn(cache);
+        userCounters = new UserCounters(redisTemplate, userRepository, cacheManager, KEY);
+    }
+
+    @Test
+    void When_UserCreatedInTransaction_Expect_IncrementOnlyAfterCommit() {
+        // TODO: Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // TODO: Act
+            userCounters.onCreated(User.UserStatus.ACTIVE);
+            Mockito.verifyNoInteractions(hashOperations);
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        // TODO: Assert
+        verify(hashOperations).increment(KEY, "total", 1L);
+        verify(hashOperations).increment(KEY, "ACTIVE", 1L);
+        verify(cache).evict("total");
+        verify(cache).evict("ACTIVE");
+        verify(cache, Mockito.never()).clear();
+    }
+
+    @Test
+    void When_StatusChanged_Expect_MoveOneBetweenStatusesAndKeepTotal() {
+        // TODO: Act
+        userCounters.onStatusChanged(User.UserStatus.ACTIVE, User.UserStatus.SUSPENDED);
+        // TODO: Assert
+        verify(hashOperations).increment(KEY, "ACTIVE", -1L);
+        verify(hashOperations).increment(KEY, "SUSPENDED", 1L);
+        verify(hashOperations, Mockito.never()).increment(Mockito.eq(KEY), Mockito.eq("total"), Mockito.anyLong());
+    }
+
+    @Test
+    void When_Reconcile_Expect_OverwriteHashWithDatabaseCountsIncludingZeros() {
+        // TODO: Arrange
+        UserRepository.StatusCount active = Mockito.mock(UserRepository.StatusCount.class);
+        when(active.getStatus()).thenReturn(User.UserStatus.ACTIVE);
+        when(active.getCount()).thenReturn(7L);
+        when(userRepository.countByStatus()).thenReturn(List.of(active));
+        // TODO: Act
+        userCounters.reconcile();
+        // TODO: Assert
+        verify(hashOperations).putAll(KEY, Map.of("total", "7", "ACTIVE", "7", "INACTIVE", "0", "SUSPENDED", "0"));
+        for (String key : List.of("total", "ACTIVE", "INACTIVE", "SUSPENDED")) {
+            verify(cache).evict(key);
+        }
+        verify(cache, Mockito.never()).clear();
+    }
+
+    @Test
+    void When_GetWithMissingHash_Expect_ReconcileFirst() {
+        // TODO: Arrange
+        when(hashOperations.get(KEY, "total")).thenReturn(null, "3");
+        when(redisTemplate.hasKey(KEY)).thenReturn(false);
+        when(userRepository.countByStatus()).thenReturn(List.of());
+        // TODO: Act & Assert
+        assertEquals(3L, userCounters.get("total"));
+        verify(userRepository).countByStatus();
+    }
+}
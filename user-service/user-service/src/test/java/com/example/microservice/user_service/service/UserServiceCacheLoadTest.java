@@ -0,0 +1,145 @@
+package com.example.microservice.user_service.service;
+
+import com.example.microservice.user_service.model.User;
+import com.example.microservice.user_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * Runs a 95/5 read/write mix through the caching proxy of {@link UserServiceImpl} and checks that
+ * the users cache hit ratio stays flat while writes keep coming in.
+ */
+@SpringJUnitConfig(UserServiceCacheLoadTest.Config.class)
+class UserServiceCacheLoadTest {
+
+    private static final int HOT_USERS = 200;
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 5;
+    private static final int OPS_PER_ROUND = 4_000;
+
+    @Autowired
+    UserService userService;
+    @Autowired
+    Map<Long, User> table;
+    @Autowired
+    LongAdder databaseReads;
+
+    @BeforeEach
+    void seed() {
+        for (long id = 1; id <= HOT_USERS; id++) {
+            table.put(id, User.builder().id(id).name("User " + id).email("user" + id + "@example.com").build());
+        }
+    }
+
+    @Test
+    void When_MixedReadWriteWorkload_Expect_HitRatioStaysFlat() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        double[] hitRatios = new double[ROUNDS];
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LongAdder reads = new LongAdder();
+                long databaseReadsBefore = databaseReads.sum();
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> runMix(reads)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                hitRatios[round] = 1.0 - (double) (databaseReads.sum() - databaseReadsBefore) / reads.sum();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // round 0 warms the cache; every later round must stay near-perfect despite the 5% writes
+        for (int round = 1; round < ROUNDS; round++) {
+            assertTrue(hitRatios[round] > 0.97,
+                    "hit ratio dropped to " + hitRatios[round] + " in round " + round);
+        }
+    }
+
+    private void runMix(LongAdder reads) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPS_PER_ROUND / THREADS; i++) {
+            if (random.nextInt(100) < 5) {
+                userService.createUser(User.builder()
+                        .name("New user")
+                        .email("new" + random.nextLong() + "@example.com")
+                        .build());
+            } else {
+                userService.findById(random.nextLong(1, HOT_USERS + 1));
+                reads.increment();
+            }
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class Config {
+
+        @Bean
+        Map<Long, User> table() {
+            return new ConcurrentHashMap<>();
+        }
+
+        @Bean
+        LongAdder databaseReads() {
+            return new LongAdder();
+        }
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("users", "userCounts");
+        }
+
+        @Bean
+        UserRepository userRepository(Map<Long, User> table, LongAdder databaseReads) {
+            AtomicLong sequence = new AtomicLong(1_000_000);
+            UserRepository repository = Mockito.mock(UserRepository.class, Mockito.withSettings().stubOnly());
+            Mockito.when(repository.findById(anyLong())).thenAnswer(invocation -> {
+                databaseReads.increment();
+                return Optional.ofNullable(table.get(invocation.<Long>getArgument(0)));
+            });
+            Mockito.when(repository.existsByEmail(anyString())).thenReturn(false);
+            Mockito.when(repository.save(any(User.class))).thenAnswer(invocation -> {
+                User user = invocation.getArgument(0);
+                user.setId(sequence.incrementAndGet());
+                table.put(user.getId(), user);
+                return user;
+            });
+            return repository;
+        }
+
+        @Bean
+        UserService userService(UserRepository userRepository, CacheManager cacheManager) {
+            return new UserServiceImpl(userRepository, cacheManager, Mockito.mock(EntityManager.class), Mockito.mock(UserCounters.class));
+        }
+    }
+}
@@ -1,9 +1,11 @@
 package com.example.microservice.user_service.service;
 
+import com.example.microservice.user_service.cache.NearCache;
 import com.example.microservice.user_service.exception.EmailAlreadyExistsException;
 import com.example.microservice.user_service.exception.UserNotFoundException;
 import com.example.microservice.user_service.model.User;
 import com.example.microservice.user_service.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,12 +14,21 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Limit;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -26,6 +37,14 @@ public class UserServiceTest {
     // TODO: naming convention: When_StateUnderTest_Expect_ExpectedBehavior
     @Mock
     UserRepository userRepository;
+    @Mock
+    CacheManager cacheManager;
+    @Mock
+    Cache cache;
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    UserCounters userCounters;
     @InjectMocks
     UserServiceImpl userService;
     User testUser;
@@ -53,6 +72,7 @@ public class UserServiceTest {
         assertEquals(saveUser, testUser);
         verify(userRepository, Mockito.times(1)).existsByEmail(testUser.getEmail());
         verify(userRepository, Mockito.times(1)).save(testUser);
+        verify(userCounters).onCreated(User.UserStatus.ACTIVE);
     }
 
     @Test
@@ -69,24 +89,67 @@ public class UserServiceTest {
     @Test
     void When_DeleteUserWithNotFoundId_Expect_ThrowUserNotFoundException() {
         // TODO: Arrange
-        when(userRepository.existsById(testUser.getId())).thenReturn(false);
+        when(userRepository.findEmailAndStatusById(testUser.getId())).thenReturn(Optional.empty());
         // TODO: Act & Assert
         assertThrows(UserNotFoundException.class, () ->
                 userService.deleteById(testUser.getId()));
-        verify(userRepository, Mockito.times(1)).existsById(testUser.getId());
+        verify(userRepository, Mockito.times(1)).findEmailAndStatusById(testUser.getId());
         verify(userRepository, Mockito.never()).deleteById(any());
+        verify(userCounters, Mockito.never()).onDeleted(any());
+        verify(cache, Mockito.never()).evict(any());
     }
 
     @Test
     void When_DeleteUserWithValidId_Expect_DeleteUserSuccessfully() {
         // TODO: Arrange
-        when(userRepository.existsById(testUser.getId())).thenReturn(true);
+        UserRepository.EmailAndStatus emailAndStatus = Mockito.mock(UserRepository.EmailAndStatus.class);
+        when(emailAndStatus.getEmail()).thenReturn(testUser.getEmail());
+        when(emailAndStatus.getStatus()).thenReturn(testUser.getStatus());
+        when(userRepository.findEmailAndStatusById(testUser.getId())).thenReturn(Optional.of(emailAndStatus));
+        when(cacheManager.getCache("users")).thenReturn(cache);
 //        doNothing().when(userRepository).delete(testUser);
         // TODO: Act
         userService.deleteById(testUser.getId());
         // TODO: Assert
-        verify(userRepository).existsById(testUser.getId());
+        verify(userRepository).findEmailAndStatusById(testUser.getId());
         verify(userRepository).deleteById(testUser.getId());
+        verify(userCounters).onDeleted(User.UserStatus.ACTIVE);
+        verify(cache).evict("email_" + testUser.getEmail());
+    }
+
+    @Test
+    void When_UpdateStatusToDifferentValue_Expect_SaveAndMoveCounters() {
+        // TODO: Arrange
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        when(userRepository.save(testUser)).thenReturn(testUser);
+        // TODO: Act
+        User updated = userService.updateStatus(testUser.getId(), User.UserStatus.SUSPENDED);
+        // TODO: Assert
+        assertEquals(User.UserStatus.SUSPENDED, updated.getStatus());
+        verify(userCounters).onStatusChanged(User.UserStatus.ACTIVE, User.UserStatus.SUSPENDED);
+    }
+
+    @Test
+    void When_UpdateStatusToSameValue_Expect_NoSaveAndNoCounterChange() {
+        // TODO: Arrange
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
+        // TODO: Act
+        userService.updateStatus(testUser.getId(), User.UserStatus.ACTIVE);
+        // TODO: Assert
+        verify(userRepository, Mockito.never()).save(any());
+        verify(userCounters, Mockito.never()).onStatusChanged(any(), any());
+    }
+
+    @Test
+    void When_CountUsers_Expect_ReadCounterInsteadOfScanningTable() {
+        // TODO: Arrange
+        when(userCounters.get("total")).thenReturn(12L);
+        when(userCounters.get("SUSPENDED")).thenReturn(2L);
+        // TODO: Act & Assert
+        assertEquals(12L, userService.countUsers(null));
+        assertEquals(2L, userService.countUsers(User.UserStatus.SUSPENDED));
+        verify(userRepository, Mockito.never()).findAll();
+        verify(userRepository, Mockito.never()).count();
     }
 
     @Test
@@ -111,15 +174,27 @@ public class UserServiceTest {
     }
 
     @Test
-    void When_FindAllUser_Expect_ReturnAListOfOneUser(){
+    void When_GetUsersAfterCursor_Expect_ReturnAListOfOneUser(){
         // TODO: Arrange
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100))).thenReturn(List.of(testUser));
         // TODO: Act
-        List<User> userList = userService.getAllUser();
+        List<User> userList = userService.getUsersAfter(0L, 100);
         // TODO: Assert
         assertEquals(1, userList.size());
-        verify(userRepository).findAll();
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100));
+        verify(userRepository, Mockito.never()).findAll();
+    }
 
+    @Test
+    void When_StreamAllUsers_Expect_ConsumeAndDetachEachUser(){
+        // TODO: Arrange
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(testUser));
+        List<User> consumed = new ArrayList<>();
+        // TODO: Act
+        userService.streamAllUsers(consumed::add);
+        // TODO: Assert
+        assertEquals(List.of(testUser), consumed);
+        verify(entityManager).detach(testUser);
     }
 
     @Test
@@ -132,4 +207,36 @@ public class UserServiceTest {
         assertNotNull(user);
         verify(userRepository).findByEmail(any());
     }
+
+    @Test
+    void When_FindAllByIdsWithOneCachedUser_Expect_QueryOnlyMissingIds(){
+        // TODO: Arrange
+        User otherUser = User.builder().id(2L).email("other@gmail.com").build();
+        when(cacheManager.getCache("users")).thenReturn(cache);
+        when(cache.get(1L, User.class)).thenReturn(testUser);
+        when(cache.get(2L, User.class)).thenReturn(null);
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(otherUser));
+        // TODO: Act
+        List<User> users = userService.findAllByIds(List.of(1L, 2L, 1L));
+        // TODO: Assert
+        assertEquals(List.of(testUser, otherUser), users);
+        verify(userRepository).findAllById(List.of(2L));
+        verify(cache).put(2L, otherUser);
+    }
+
+    @Test
+    void When_FindAllByIdsThroughNearCache_Expect_LoadedUsersWrittenBackInOneBatch(){
+        // TODO: Arrange
+        User otherUser = User.builder().id(2L).email("other@gmail.com").build();
+        NearCache nearCache = mock(NearCache.class);
+        when(cacheManager.getCache("users")).thenReturn(nearCache);
+        when(nearCache.getAll(Set.of(1L, 2L))).thenReturn(Map.of(1L, testUser));
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(otherUser));
+        // TODO: Act
+        List<User> users = userService.findAllByIds(List.of(1L, 2L));
+        // TODO: Assert
+        assertEquals(List.of(testUser, otherUser), users);
+        verify(nearCache).putAllLoaded(Map.of(2L, otherUser));
+        verify(nearCache, never()).put(any(), any());
+    }
 }